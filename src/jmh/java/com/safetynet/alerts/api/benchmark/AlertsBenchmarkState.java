@@ -0,0 +1,90 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.safetynet.alerts.api.dao.FireStationDao;
+import com.safetynet.alerts.api.dao.MedicalRecordDao;
+import com.safetynet.alerts.api.dao.PersonDao;
+import com.safetynet.alerts.api.service.FireStationService;
+import com.safetynet.alerts.api.service.FloodQueryEngine;
+import com.safetynet.alerts.api.service.PersonService;
+import com.safetynet.alerts.api.service.dtomapper.MedicalRecordDtoMapper;
+import com.safetynet.alerts.api.service.dtomapper.PersonDtoMapper;
+import com.safetynet.alerts.api.utils.AgeCache;
+import com.safetynet.alerts.api.utils.SingleFlight;
+import com.safetynet.alerts.api.view.DataVersions;
+import com.safetynet.alerts.api.view.StationResidentView;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * DAOs and services wired as by Spring, on synthetic data of the given number of persons.
+ * Indexes are built during setup : benchmarks measure steady state requests.
+ */
+@State(Scope.Benchmark)
+public class AlertsBenchmarkState {
+
+    @Param({"1000", "100000", "1000000"})
+    public int persons;
+
+    public PersonDao personDao;
+    public FireStationDao fireStationDao;
+    public MedicalRecordDao medicalRecordDao;
+    public PersonDtoMapper personDtoMapper;
+    public StationResidentView stationResidentView;
+    public FloodQueryEngine floodQueryEngine;
+    public FireStationService fireStationService;
+    /*Fire station service whose residents view is not built : residents are computed on each request*/
+    public FireStationService unmaterializedFireStationService;
+    public PersonService personService;
+
+    private int addressCount;
+    private int nextAddress;
+    private int nextStation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataSource dataSource = new BenchmarkDataSource(SyntheticData.generate(persons));
+        personDao = new PersonDao(dataSource, event -> { });
+        fireStationDao = new FireStationDao(dataSource, event -> { });
+        medicalRecordDao = new MedicalRecordDao(dataSource, event -> { });
+        personDao.buildIndex();
+        fireStationDao.buildIndex();
+        medicalRecordDao.buildIndex();
+        AgeCache ageCache = new AgeCache();
+        personDtoMapper = new PersonDtoMapper(medicalRecordDao, new MedicalRecordDtoMapper(), ageCache);
+        stationResidentView = new StationResidentView(dataSource, fireStationDao, personDao, medicalRecordDao, ageCache);
+        stationResidentView.build();
+        floodQueryEngine = new FloodQueryEngine(fireStationDao, personDao, personDtoMapper, 0);
+        SingleFlight singleFlight = new SingleFlight(new DataVersions(personDao, fireStationDao));
+        fireStationService = new FireStationService(fireStationDao, personDao, medicalRecordDao, personDtoMapper, stationResidentView,
+                floodQueryEngine, singleFlight);
+        unmaterializedFireStationService = new FireStationService(fireStationDao, personDao, medicalRecordDao, personDtoMapper,
+                new StationResidentView(dataSource, fireStationDao, personDao, medicalRecordDao, ageCache), floodQueryEngine, singleFlight);
+        personService = new PersonService(personDao, fireStationDao, personDtoMapper, singleFlight);
+        addressCount = SyntheticData.addressCount(persons);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        floodQueryEngine.shutdown();
+    }
+
+    /**
+     * @return an address, addresses are returned in turn so that successive calls do not hit the same data.
+     */
+    public String nextAddress() {
+        nextAddress = (nextAddress + 7919) % addressCount;
+        return SyntheticData.address(nextAddress);
+    }
+
+    /**
+     * @return a fire station number, stations are returned in turn.
+     */
+    public int nextStation() {
+        nextStation = (nextStation + 1) % SyntheticData.STATIONS;
+        return 1 + nextStation;
+    }
+}
@@ -0,0 +1,42 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Datasource holding data generated in memory.
+ */
+public class BenchmarkDataSource implements IAlertsDataSource {
+
+    private final Data data;
+
+    public BenchmarkDataSource(Data data) {
+        this.data = data;
+    }
+
+    @Override
+    public void load(String dataSourceFilePath) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void load(String dataSourceFilePath, Executor executor) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean loadSnapshot(String snapshotFilePath, String dataSourceFilePath) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeSnapshot(String snapshotFilePath, String dataSourceFilePath, boolean journaled) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Data getData() {
+        return data;
+    }
+}
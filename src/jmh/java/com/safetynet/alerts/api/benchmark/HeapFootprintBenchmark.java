@@ -0,0 +1,89 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by the data loaded from a synthetic json file : datasource load, whose repeated values
+ * (addresses, cities, zips, medications, allergies) are dictionary encoded, versus plain Jackson deserialization.
+ * The retained heap, measured after full collections, is reported by the "retainedMegabytes" counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HeapFootprintBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int persons;
+
+    private Path directory;
+    private File dataFile;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedMegabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("alerts-benchmark");
+        dataFile = directory.resolve("data.json").toFile();
+        new ObjectMapper().writeValue(dataFile, SyntheticData.generate(persons));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile.toPath());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Object loadDictionaryEncoded(Footprint footprint) throws IOException {
+        long before = usedHeap();
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load(dataFile.getPath());
+        footprint.retainedMegabytes = (usedHeap() - before) >> 20;
+        return dataSource;
+    }
+
+    @Benchmark
+    public Object loadPlainJackson(Footprint footprint) throws IOException {
+        long before = usedHeap();
+        IAlertsDataSource.Data data = new ObjectMapper().readValue(dataFile, IAlertsDataSource.Data.class);
+        footprint.retainedMegabytes = (usedHeap() - before) >> 20;
+        return data;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,77 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.ChildAlertDto;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Hot paths of the DAOs, services and DTO mapper.
+ * Run with the gc profiler (default jmh.args of the jmh profile) to report allocation rates (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HotPathBenchmark {
+
+    private static final List<Integer> FLOOD_STATIONS = List.of(1, 2, 3);
+    private static final List<Integer> ALL_STATIONS = IntStream.rangeClosed(1, SyntheticData.STATIONS).boxed().collect(Collectors.toList());
+
+    @Benchmark
+    public List<Person> getPersonsByAddress(AlertsBenchmarkState state) {
+        return state.personDao.getPersonsByAddress(state.nextAddress());
+    }
+
+    @Benchmark
+    public List<FloodDto> getFloodHomes(AlertsBenchmarkState state) {
+        return state.fireStationService.getFloodHomes(FLOOD_STATIONS);
+    }
+
+    /**
+     * County-wide flood alert, across every station.
+     */
+    @Benchmark
+    public List<FloodDto> getFloodHomesAllStations(AlertsBenchmarkState state) {
+        return state.fireStationService.getFloodHomes(ALL_STATIONS);
+    }
+
+    @Benchmark
+    public List<String> getPhones(AlertsBenchmarkState state) throws DataNotFoundException {
+        return state.fireStationService.getPhones(state.nextStation());
+    }
+
+    @Benchmark
+    public List<String> getPhonesUnmaterialized(AlertsBenchmarkState state) throws DataNotFoundException {
+        return state.unmaterializedFireStationService.getPhones(state.nextStation());
+    }
+
+    @Benchmark
+    public ChildAlertDto getChildren(AlertsBenchmarkState state) {
+        return state.personService.getChildren(state.nextAddress());
+    }
+
+    @Benchmark
+    public PersonDto mapToDto(AlertsBenchmarkState state) {
+        return state.personDtoMapper.mapToDto(state.personDao.getPersonsByAddress(state.nextAddress()).get(0));
+    }
+
+    @Benchmark
+    public List<PersonDto> mapToDtoBatch(AlertsBenchmarkState state) {
+        return state.personDtoMapper.mapToDto(state.personDao.getPersonsByAddress(state.nextAddress()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of synthetic data written to a temporary json file : sequential streaming load,
+ * parallel sections load and binary snapshot load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int persons;
+
+    private Path directory;
+    private String dataFile;
+    private String snapshotFile;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("alerts-benchmark");
+        dataFile = directory.resolve("data.json").toString();
+        snapshotFile = directory.resolve("data.snapshot").toString();
+        new ObjectMapper().writeValue(directory.resolve("data.json").toFile(), SyntheticData.generate(persons));
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load(dataFile);
+        dataSource.writeSnapshot(snapshotFile, dataFile, false);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        Files.deleteIfExists(directory.resolve("data.json"));
+        Files.deleteIfExists(directory.resolve("data.snapshot"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public IAlertsDataSource.Data loadJson() throws IOException {
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load(dataFile);
+        return dataSource.getData();
+    }
+
+    @Benchmark
+    public IAlertsDataSource.Data loadJsonParallel() throws IOException {
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load(dataFile, executor);
+        return dataSource.getData();
+    }
+
+    @Benchmark
+    public IAlertsDataSource.Data loadSnapshot() throws IOException {
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.loadSnapshot(snapshotFile, dataFile);
+        return dataSource.getData();
+    }
+}
@@ -0,0 +1,71 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.safetynet.alerts.api.dao.ColumnarPersonDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.dao.PersonDao;
+import com.safetynet.alerts.api.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Person lookups of the hash indexed (index) and columnar (columnar) person storages, on synthetic data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonStorageBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int persons;
+
+    @Param({"index", "columnar"})
+    public String storage;
+
+    private IPersonDao personDao;
+    private int addressCount;
+    private int nextAddress;
+    private int nextCity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataSource dataSource = new BenchmarkDataSource(SyntheticData.generate(persons));
+        if (storage.equals("columnar")) {
+            ColumnarPersonDao columnarPersonDao = new ColumnarPersonDao(dataSource, event -> { });
+            columnarPersonDao.buildIndex();
+            personDao = columnarPersonDao;
+        } else {
+            PersonDao indexedPersonDao = new PersonDao(dataSource, event -> { });
+            indexedPersonDao.buildIndex();
+            personDao = indexedPersonDao;
+        }
+        addressCount = SyntheticData.addressCount(persons);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsByCity() {
+        nextCity = (nextCity + 1) % SyntheticData.CITIES;
+        return personDao.getPersonsByCity("City" + nextCity);
+    }
+
+    @Benchmark
+    public List<Person> getPersonsByAddress() {
+        nextAddress = (nextAddress + 7919) % addressCount;
+        return personDao.getPersonsByAddress(SyntheticData.address(nextAddress));
+    }
+}
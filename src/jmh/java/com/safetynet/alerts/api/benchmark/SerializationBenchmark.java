@@ -0,0 +1,66 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.safetynet.alerts.api.controller.uitls.DtoFilterProfile;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a /flood/stations response (stations 1 and 2, 1000 persons) as done by the HTTP message converter :
+ * with filters built for each response, and with the shared filter profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private List<FloodDto> floodDtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AlertsBenchmarkState state = new AlertsBenchmarkState();
+        state.persons = 1000;
+        state.setUp();
+        floodDtos = state.fireStationService.getFloodHomes(List.of(1, 2));
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] filtersPerResponse() throws JsonProcessingException {
+        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName", "lastName", "phone", "age", "medicalRecord"),
+                "MedicalRecordDtoFilter", Set.of("medications", "allergies"));
+        return write(DtoFilter.apply(floodDtos, dtoFilterSpec));
+    }
+
+    @Benchmark
+    public byte[] filterProfile() throws JsonProcessingException {
+        return write(DtoFilter.apply(floodDtos, DtoFilterProfile.FLOOD));
+    }
+
+    private byte[] write(MappingJacksonValue value) throws JsonProcessingException {
+        return objectMapper.writer(value.getFilters()).writeValueAsBytes(value.getValue());
+    }
+}
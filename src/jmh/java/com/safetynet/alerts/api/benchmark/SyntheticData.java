@@ -0,0 +1,101 @@
+package com.safetynet.alerts.api.benchmark;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Generator of synthetic, deterministic, SafetyNet Alerts data :
+ *  - PERSONS_PER_ADDRESS persons live at each address, one person out of four is a child.
+ *  - each address is covered by one of STATIONS fire stations, addresses spread over CITIES cities.
+ *  - each person has a medical record.
+ */
+public final class SyntheticData {
+
+    public static final int PERSONS_PER_ADDRESS = 4;
+    public static final int STATIONS = 100;
+    public static final int CITIES = 20;
+
+    private static final String[] MEDICATIONS = {"aznol:350mg", "hydrapermazol:100mg", "pharmacol:5000mg", "terazine:10mg", "noznazol:250mg"};
+    private static final String[] ALLERGIES = {"nillacilan", "peanut", "shellfish"};
+
+    private SyntheticData() {}
+
+    /**
+     * Generate data.
+     *
+     * @param personCount number of persons (and medical records).
+     * @return the data.
+     */
+    public static IAlertsDataSource.Data generate(int personCount) {
+        int addressCount = Math.max(1, personCount / PERSONS_PER_ADDRESS);
+        LocalDate today = LocalDate.now();
+
+        List<Person> persons = new ArrayList<>(personCount);
+        List<MedicalRecord> medicalRecords = new ArrayList<>(personCount);
+        for (int i = 0; i < personCount; i++) {
+            int address = i % addressCount;
+            Person person = new Person();
+            person.setFirstName("First" + i);
+            person.setLastName("Last" + address);
+            person.setAddress(address(address));
+            person.setCity("City" + address % CITIES);
+            person.setZip(String.valueOf(97000 + address % CITIES));
+            person.setPhone("841-874-" + String.format("%04d", address % 10000));
+            person.setEmail("first" + i + "@email.com");
+            persons.add(person);
+
+            MedicalRecord medicalRecord = new MedicalRecord();
+            medicalRecord.setFirstName(person.getFirstName());
+            medicalRecord.setLastName(person.getLastName());
+            int age = i % 4 == 0 ? 1 + i % 17 : 19 + i % 70;
+            medicalRecord.setBirthdate(Date.from(today.minusYears(age).minusDays(i % 365).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            List<String> medications = new ArrayList<>();
+            for (int m = 0; m < i % 3; m++) {
+                medications.add(MEDICATIONS[(i + m) % MEDICATIONS.length]);
+            }
+            medicalRecord.setMedications(medications);
+            List<String> allergies = new ArrayList<>();
+            if (i % 5 == 0) {
+                allergies.add(ALLERGIES[i % ALLERGIES.length]);
+            }
+            medicalRecord.setAllergies(allergies);
+            medicalRecords.add(medicalRecord);
+        }
+
+        List<FireStation> fireStations = new ArrayList<>(addressCount);
+        for (int address = 0; address < addressCount; address++) {
+            FireStation fireStation = new FireStation();
+            fireStation.setAddress(address(address));
+            fireStation.setStation(1 + address % STATIONS);
+            fireStations.add(fireStation);
+        }
+
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(persons);
+        data.setFirestations(fireStations);
+        data.setMedicalrecords(medicalRecords);
+        return data;
+    }
+
+    /**
+     * @return the street address of the given address number.
+     */
+    public static String address(int address) {
+        return address + " Culver St";
+    }
+
+    /**
+     * @return number of addresses of data generated for the given number of persons.
+     */
+    public static int addressCount(int personCount) {
+        return Math.max(1, personCount / PERSONS_PER_ADDRESS);
+    }
+}
@@ -1,15 +1,31 @@
 package com.safetynet.alerts.api;
 
+import com.safetynet.alerts.api.dao.IIndexedDao;
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.journal.IMutationJournal;
+import com.safetynet.alerts.api.view.IStationResidentView;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootApplication
+@EnableScheduling
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
 public class SafetyNetAlertsApiApplication  implements CommandLineRunner {
 
 	public static void main(String[] args) {
@@ -18,11 +34,88 @@ public class SafetyNetAlertsApiApplication  implements CommandLineRunner {
 
 	private final IAlertsDataSource dataSource;
 
+	private final List<IIndexedDao> indexedDaos;
+
+	private final Optional<IMutationJournal> mutationJournal;
+
+	private final IStationResidentView stationResidentView;
+
 	@Value( "${datasource.filepath}" )
 	private String dataSourceFilePath;
 
+	/*Number of threads loading data sections and building indexes, 1 to load on the main thread*/
+	@Value( "${datasource.loading.threads:1}" )
+	private int loadingThreads;
+
+	/*Path of the binary snapshot of data, empty to always load data from the json file*/
+	@Value( "${datasource.snapshot.filepath:}" )
+	private String snapshotFilePath;
+
+	/**
+	 * Load data and build the DAO indexes.
+	 * Data are loaded from the binary snapshot when it is up to date with the json file, else from the
+	 * json file and the snapshot is then (re)written. Journaled mutations are then replayed on top of data,
+	 * and the fire station residents view is built. Startup fails if the snapshot holds compacted journal mutations
+	 * and the json file has changed since it was written.
+	 * Application is reported ready (readiness state ACCEPTING_TRAFFIC) only once runners have completed,
+	 * i.e. once all data sections are loaded and indexed.
+	 */
 	@Override
 	public void run(String... args) throws Exception {
-		dataSource.load(dataSourceFilePath);
+		long start = System.nanoTime();
+		if (loadingThreads <= 1) {
+			if (!loadSnapshot()) {
+				dataSource.load(dataSourceFilePath);
+				writeSnapshot();
+			}
+			indexedDaos.forEach(IIndexedDao::buildIndex);
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(loadingThreads, new CustomizableThreadFactory("datasource-loader-"));
+			try {
+				if (!loadSnapshot()) {
+					dataSource.load(dataSourceFilePath, executor);
+					/*written before the journal is replayed : the snapshot holds the json file data only*/
+					writeSnapshot();
+				}
+				CompletableFuture.allOf(indexedDaos.stream()
+						.map(indexedDao -> CompletableFuture.runAsync(indexedDao::buildIndex, executor))
+						.toArray(CompletableFuture<?>[]::new)).join();
+			} finally {
+				executor.shutdown();
+			}
+		}
+		if (mutationJournal.isPresent()) {
+			mutationJournal.get().replay();
+		}
+		stationResidentView.build();
+		log.info("Data loaded and indexed in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+	}
+
+	/**
+	 * Load the snapshot, if up to date. A snapshot that may hold journaled mutations and can not be loaded fails
+	 * startup : it would be replaced by the snapshot of the json file.
+	 */
+	private boolean loadSnapshot() {
+		if (snapshotFilePath.isEmpty()) {
+			return false;
+		}
+		try {
+			return dataSource.loadSnapshot(snapshotFilePath, dataSourceFilePath);
+		} catch (IOException e) {
+			/*the corrupted snapshot holds no journaled mutations : it is replaced*/
+			log.warn("Snapshot " + snapshotFilePath + " can not be loaded, data are loaded from " + dataSourceFilePath, e);
+			return false;
+		}
+	}
+
+	private void writeSnapshot() {
+		if (snapshotFilePath.isEmpty()) {
+			return;
+		}
+		try {
+			dataSource.writeSnapshot(snapshotFilePath, dataSourceFilePath, false);
+		} catch (IOException e) {
+			log.warn("Snapshot " + snapshotFilePath + " can not be written", e);
+		}
 	}
 }
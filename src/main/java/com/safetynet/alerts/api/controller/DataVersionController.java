@@ -0,0 +1,58 @@
+package com.safetynet.alerts.api.controller;
+
+import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import com.safetynet.alerts.api.model.dto.DataVersionsDto;
+import com.safetynet.alerts.api.view.IDataVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  Data versions endpoint
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DataVersionController {
+
+    private final IDataVersions dataVersions;
+    private final IRequestLogger requestLogger;
+
+    /**
+     * Get the versions of the data : a client refetches the data of an address (e.g. GET /fire) or of a fire station
+     * (e.g. GET /firestation, GET /flood/stations) only once its version has changed.
+     *
+     * @param addresses addresses whose version is requested.
+     * @param stations numbers of the fire stations whose version is requested.
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link DataVersionsDto}, the epoch and generation of the data and the version of
+     *              each requested address and fire station. Versions of another epoch are not comparable.
+     *              Http status code : "200-Ok".
+     */
+    @GetMapping("/versions")
+    public ResponseEntity<DataVersionsDto> getVersions(@RequestParam(value = "address", required = false) List<String> addresses,
+                                                       @RequestParam(value = "stations", required = false) List<Integer> stations) {
+        requestLogger.logRequest("GET /versions?address={}&stations={}", addresses, stations);
+        Map<String, Long> addressVersions = new LinkedHashMap<>();
+        for (String address : addresses == null ? Collections.<String>emptyList() : addresses) {
+            addressVersions.put(address, dataVersions.getAddressVersion(address));
+        }
+        Map<Integer, Long> stationVersions = new LinkedHashMap<>();
+        for (Integer station : stations == null ? Collections.<Integer>emptyList() : stations) {
+            stationVersions.put(station, dataVersions.getStationVersion(station));
+        }
+        /*generation read last : it is never older than the versions returned*/
+        DataVersionsDto dataVersionsDto = new DataVersionsDto(dataVersions.getEpoch(), dataVersions.getGeneration(), addressVersions, stationVersions);
+        requestLogger.logResponseSuccess(HttpStatus.OK, "epoch " + dataVersionsDto.getEpoch() + " generation " + dataVersionsDto.getGeneration());
+        return ResponseEntity.ok(dataVersionsDto);
+    }
+}
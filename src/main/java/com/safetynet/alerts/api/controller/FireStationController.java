@@ -1,25 +1,34 @@
 package com.safetynet.alerts.api.controller;
 
+import com.safetynet.alerts.api.controller.uitls.AsyncHandler;
 import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.safetynet.alerts.api.controller.uitls.DtoFilterProfile;
+import com.safetynet.alerts.api.controller.uitls.IBatchRequestProcessor;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FloodDto;
 import com.safetynet.alerts.api.service.IFireStationService;
+import com.safetynet.alerts.api.service.IFireStationStreamingService;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  *  Fire station endpoint
@@ -28,7 +37,13 @@ import java.util.Set;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class FireStationController {
     private final IFireStationService fireStationService;
+    private final IFireStationStreamingService fireStationStreamingService;
     private final IRequestLogger requestLogger;
+    private final IBatchRequestProcessor batchRequestProcessor;
+
+    /*When set, GET /firestation and GET /flood/stations responses are written straight to the response stream*/
+    @Value("${api.response.streaming:false}")
+    private boolean streaming;
 
     /**
      * Delete a fire station  mapping.
@@ -43,7 +58,7 @@ public class FireStationController {
      */
     @DeleteMapping("/firestation/{address}")
     public ResponseEntity<String> deleteFireStation(@PathVariable("address") final String address) throws DataNotFoundException {
-        requestLogger.logRequest("DELETE /firestation/"+address);
+        requestLogger.logRequest("DELETE /firestation/{}", address);
         try{
             fireStationService.deleteFireStation(address);
             requestLogger.logResponseSuccess(HttpStatus.NO_CONTENT, null);
@@ -67,7 +82,7 @@ public class FireStationController {
      */
     @PostMapping("/firestation")
     public ResponseEntity<String> createFireStation(@RequestBody FireStation fireStation) throws DataAlreadyExistsException {
-        requestLogger.logRequest("POST /firestation/"+ fireStation.getAddress());
+        requestLogger.logRequest("POST /firestation/{}", fireStation.getAddress());
         try{
             FireStation createdFireStation = fireStationService.createFireStation(fireStation);
             URI location = ServletUriComponentsBuilder
@@ -95,7 +110,7 @@ public class FireStationController {
      */
     @PutMapping("/firestation")
     public  ResponseEntity<String>  updateFireStation(@RequestBody FireStation fireStation) throws DataNotFoundException {
-        requestLogger.logRequest("PUT /firestation/"+ fireStation.getAddress());
+        requestLogger.logRequest("PUT /firestation/{}", fireStation.getAddress());
         try  {
             fireStationService.updateFireStation(fireStation);
             requestLogger.logResponseSuccess(HttpStatus.OK,null);
@@ -116,14 +131,21 @@ public class FireStationController {
      *              Http status code : "200-Ok" .
      *
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
+     * @throws IOException if the streamed response can not be written
      */
     @GetMapping("/firestation")
-    public ResponseEntity<MappingJacksonValue> getFireStationPersons(@RequestParam Integer stationNumber) throws DataNotFoundException {
-        requestLogger.logRequest("GET /firestation?stationNumber="+ stationNumber);
+    @AsyncHandler(AsyncHandler.Bulkhead.AGGREGATE)
+    public ResponseEntity<MappingJacksonValue> getFireStationPersons(@RequestParam Integer stationNumber, HttpServletResponse response) throws DataNotFoundException, IOException {
+        requestLogger.logRequest("GET /firestation?stationNumber={}", stationNumber);
         try{
+            if (streaming) {
+                prepareStreamedResponse(response);
+                fireStationStreamingService.writePersons(stationNumber, response.getOutputStream());
+                requestLogger.logResponseSuccess(HttpStatus.OK ,"");
+                return null;
+            }
             FireStationPersonsDto fireStationPersonsDto = fireStationService.getPersons(stationNumber);
-            Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","address","city", "zip", "phone"));
-            MappingJacksonValue fireStationPersonsDtoFiltered = DtoFilter.apply(fireStationPersonsDto, dtoFilterSpec);
+            MappingJacksonValue fireStationPersonsDtoFiltered = DtoFilter.apply(fireStationPersonsDto, DtoFilterProfile.FIRE_STATION);
             requestLogger.logResponseSuccess(HttpStatus.OK ,"");
             return ResponseEntity.ok(fireStationPersonsDtoFiltered);
         } catch (DataNotFoundException e){
@@ -144,8 +166,9 @@ public class FireStationController {
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
      */
     @GetMapping("/phoneAlert")
+    @AsyncHandler(AsyncHandler.Bulkhead.LOOKUP)
     public ResponseEntity<List<String>> getPhoneAlert(@RequestParam Integer firestation) throws DataNotFoundException {
-        requestLogger.logRequest("GET /phoneAlert?firestation="+ firestation);
+        requestLogger.logRequest("GET /phoneAlert?firestation={}", firestation);
         try{
             List<String> phones = fireStationService.getPhones(firestation);
             requestLogger.logResponseSuccess(HttpStatus.OK ,"");
@@ -165,15 +188,95 @@ public class FireStationController {
      * @retun HTTP response with :
      *              Body : a list of objects {@link com.safetynet.alerts.api.model.dto.FloodDto}
      *              Http status code : "200-Ok" .
+     *
+     * @throws IOException if the streamed response can not be written
      */
     @GetMapping("/flood/stations")
-    public ResponseEntity<MappingJacksonValue> getFiredPersons(@RequestParam List<Integer> stations) {
-        requestLogger.logRequest("GET /flood/stations?stations="+ stations.toString());
+    @AsyncHandler(AsyncHandler.Bulkhead.AGGREGATE)
+    public ResponseEntity<MappingJacksonValue> getFiredPersons(@RequestParam List<Integer> stations, HttpServletResponse response) throws IOException {
+        requestLogger.logRequest("GET /flood/stations?stations={}", stations);
+        if (streaming) {
+            prepareStreamedResponse(response);
+            fireStationStreamingService.writeFloodHomes(stations, response.getOutputStream());
+            requestLogger.logResponseSuccess(HttpStatus.OK ,"");
+            return null;
+        }
         List<FloodDto> floodDtos = fireStationService.getFloodHomes(stations);
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","phone","age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue floodDtoFiltered = DtoFilter.apply(floodDtos, dtoFilterSpec);
+        MappingJacksonValue floodDtoFiltered = DtoFilter.apply(floodDtos, DtoFilterProfile.FLOOD);
         requestLogger.logResponseSuccess(HttpStatus.OK ,"");
         return ResponseEntity.ok(floodDtoFiltered);
     }
+
+    /*A null ResponseEntity tells Spring MVC the response has been handled by the controller*/
+    private static void prepareStreamedResponse(HttpServletResponse response) {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    /**
+     * Add fire station mappings in bulk, chunk by chunk.
+     *
+     * @param body a json array of FireStation objects, or one FireStation object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "201-Created" if the fire station mapping has been added, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PostMapping(value = "/firestations", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> createFireStations(InputStream body) throws IOException {
+        requestLogger.logRequest("POST /firestations");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, FireStation.class,
+                fireStations -> fireStationService.mutateFireStations(DataMutationEvent.Operation.CREATE, fireStations), HttpStatus.CREATED);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " added, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Update fire station mappings in bulk, chunk by chunk.
+     *
+     * @param body a json array of FireStation objects, or one FireStation object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "200-Ok" if the fire station mapping has been updated, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PutMapping(value = "/firestations", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> updateFireStations(InputStream body) throws IOException {
+        requestLogger.logRequest("PUT /firestations");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, FireStation.class,
+                fireStations -> fireStationService.mutateFireStations(DataMutationEvent.Operation.UPDATE, fireStations), HttpStatus.OK);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " updated, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Delete fire station mappings in bulk, chunk by chunk.
+     *
+     * @param body a json array of FireStation objects, or one FireStation object per line (application/x-ndjson),
+     *             only their addresses are used.
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "204-No Content" if the fire station mapping has been deleted, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @DeleteMapping(value = "/firestations", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> deleteFireStations(InputStream body) throws IOException {
+        requestLogger.logRequest("DELETE /firestations");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, FireStation.class,
+                fireStations -> fireStationService.mutateFireStations(DataMutationEvent.Operation.DELETE, fireStations), HttpStatus.NO_CONTENT);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " deleted, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
 }
@@ -0,0 +1,92 @@
+package com.safetynet.alerts.api.controller;
+
+import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.dto.ImportProgressDto;
+import com.safetynet.alerts.api.service.IImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ *  Import endpoint
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImportController {
+
+    private final IImportService importService;
+    private final IRequestLogger requestLogger;
+
+    /**
+     * Import persons, fire stations and medical records : each record is created, or updated if it already exists.
+     *
+     * @param body one record per line, wrapped into an object naming its type :
+     *             {"person":{...}}, {"firestation":{...}} or {"medicalrecord":{...}}.
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link ImportProgressDto}, the counts and first errors of the import.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportProgressDto> importRecords(InputStream body) throws IOException {
+        requestLogger.logRequest("POST /import");
+        ImportProgressDto importProgressDto = importService.importRecords(body);
+        requestLogger.logResponseSuccess(HttpStatus.OK, "import " + importProgressDto.getId() + " " + importProgressDto.getState()
+                + ", " + importProgressDto.getCreated() + " added, " + importProgressDto.getUpdated() + " updated, "
+                + importProgressDto.getFailed() + " failed, " + importProgressDto.getRecordsPerSecond() + " records/s");
+        return ResponseEntity.ok(importProgressDto);
+    }
+
+    /**
+     * Get the progress of running and last finished imports.
+     *
+     * @return  HTTP response with :
+     *              Body : a list of {@link ImportProgressDto}, most recent first.
+     *              Http status code : "200-Ok".
+     */
+    @GetMapping("/import")
+    public ResponseEntity<List<ImportProgressDto>> getImports() {
+        requestLogger.logRequest("GET /import");
+        List<ImportProgressDto> importProgressDtos = importService.getImports();
+        requestLogger.logResponseSuccess(HttpStatus.OK, "");
+        return ResponseEntity.ok(importProgressDtos);
+    }
+
+    /**
+     * Get the progress of an import.
+     *
+     * @param id id of the import
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link ImportProgressDto}.
+     *              Http status code : "200-Ok".
+     *
+     * @throws DataNotFoundException if the import is unknown, or too old to be kept
+     */
+    @GetMapping("/import/{id}")
+    public ResponseEntity<ImportProgressDto> getImport(@PathVariable("id") final long id) throws DataNotFoundException {
+        requestLogger.logRequest("GET /import/{}", id);
+        try {
+            ImportProgressDto importProgressDto = importService.getImport(id)
+                    .orElseThrow(() -> new DataNotFoundException("Import " + id));
+            requestLogger.logResponseSuccess(HttpStatus.OK, "");
+            return ResponseEntity.ok(importProgressDto);
+        } catch (DataNotFoundException e) {
+            requestLogger.logResponseFailure(e.getHttpStatus(), e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.safetynet.alerts.api.controller;
 
+import com.safetynet.alerts.api.controller.uitls.IBatchRequestProcessor;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.service.IMedicalRecordService;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 /**
@@ -23,6 +29,7 @@ public class MedicalRecordController {
 
     private final IMedicalRecordService medicalRecordService;
     private final IRequestLogger requestLogger;
+    private final IBatchRequestProcessor batchRequestProcessor;
 
     /**
      * Delete a medical record of a person.
@@ -39,7 +46,7 @@ public class MedicalRecordController {
     @DeleteMapping("/medicalRecord/{firstName}/{lastName}")
     public ResponseEntity<String> deleteMedicalRecord(@PathVariable("firstName") final String firstName,
                                                         @PathVariable("lastName") final String lastName) throws DataNotFoundException {
-        requestLogger.logRequest("DELETE /medicalRecord/"+firstName+"/"+lastName);
+        requestLogger.logRequest("DELETE /medicalRecord/{}/{}", firstName, lastName);
         try{
             medicalRecordService.deleteMedicalRecord(firstName, lastName);
             requestLogger.logResponseSuccess(HttpStatus.NO_CONTENT, null);
@@ -63,7 +70,7 @@ public class MedicalRecordController {
      */
     @PostMapping("/medicalRecord")
     public ResponseEntity<MedicalRecord> createMedicalRecord(@RequestBody MedicalRecord medicalRecord) throws DataAlreadyExistsException {
-        requestLogger.logRequest("POST /medicalRecord/"+ medicalRecord.getFirstName()+"/"+medicalRecord.getLastName());
+        requestLogger.logRequest("POST /medicalRecord/{}/{}", medicalRecord.getFirstName(), medicalRecord.getLastName());
         try{
             MedicalRecord createdMedicalRecord = medicalRecordService.createMedicalRecord(medicalRecord);
             URI location = ServletUriComponentsBuilder
@@ -92,7 +99,7 @@ public class MedicalRecordController {
      */
     @PutMapping("/medicalRecord")
     public  ResponseEntity<MedicalRecord>  updateMedicalRecord(@RequestBody MedicalRecord medicalRecord) throws DataNotFoundException {
-        requestLogger.logRequest("PUT /medicalRecord/"+ medicalRecord.getFirstName()+"/"+medicalRecord.getLastName());
+        requestLogger.logRequest("PUT /medicalRecord/{}/{}", medicalRecord.getFirstName(), medicalRecord.getLastName());
         try  {
             medicalRecordService.updateMedicalRecord(medicalRecord);
             requestLogger.logResponseSuccess(HttpStatus.OK,null);
@@ -102,4 +109,71 @@ public class MedicalRecordController {
             throw e;
         }
     }
+
+    /**
+     * Add medical records in bulk, chunk by chunk.
+     *
+     * @param body a json array of MedicalRecord objects, or one MedicalRecord object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "201-Created" if the medical record has been added, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PostMapping(value = "/medicalRecords", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> createMedicalRecords(InputStream body) throws IOException {
+        requestLogger.logRequest("POST /medicalRecords");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, MedicalRecord.class,
+                medicalRecords -> medicalRecordService.mutateMedicalRecords(DataMutationEvent.Operation.CREATE, medicalRecords), HttpStatus.CREATED);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " added, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Update medical records in bulk, chunk by chunk.
+     *
+     * @param body a json array of MedicalRecord objects, or one MedicalRecord object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "200-Ok" if the medical record has been updated, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PutMapping(value = "/medicalRecords", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> updateMedicalRecords(InputStream body) throws IOException {
+        requestLogger.logRequest("PUT /medicalRecords");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, MedicalRecord.class,
+                medicalRecords -> medicalRecordService.mutateMedicalRecords(DataMutationEvent.Operation.UPDATE, medicalRecords), HttpStatus.OK);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " updated, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Delete medical records in bulk, chunk by chunk.
+     *
+     * @param body a json array of MedicalRecord objects, or one MedicalRecord object per line (application/x-ndjson),
+     *             only their names are used.
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "204-No Content" if the medical record has been deleted, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @DeleteMapping(value = "/medicalRecords", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> deleteMedicalRecords(InputStream body) throws IOException {
+        requestLogger.logRequest("DELETE /medicalRecords");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, MedicalRecord.class,
+                medicalRecords -> medicalRecordService.mutateMedicalRecords(DataMutationEvent.Operation.DELETE, medicalRecords), HttpStatus.NO_CONTENT);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " deleted, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
 }
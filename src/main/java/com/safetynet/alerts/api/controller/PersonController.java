@@ -1,6 +1,11 @@
 package com.safetynet.alerts.api.controller;
 
+import com.safetynet.alerts.api.controller.uitls.AsyncHandler;
 import com.safetynet.alerts.api.controller.uitls.DtoFilter;
+import com.safetynet.alerts.api.controller.uitls.DtoFilterProfile;
+import com.safetynet.alerts.api.controller.uitls.IBatchRequestProcessor;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
@@ -12,14 +17,15 @@ import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  *  Person endpoint
@@ -30,6 +36,7 @@ public class PersonController {
 
     private final IPersonService personService;
     private final IRequestLogger requestLogger;
+    private final IBatchRequestProcessor batchRequestProcessor;
 
     /**
      * Delete a person.
@@ -47,7 +54,7 @@ public class PersonController {
     @DeleteMapping("/person/{firstName}/{lastName}")
     public ResponseEntity<String> deletePerson(@PathVariable("firstName") final String firstName,
                                                @PathVariable("lastName") final String lastName) throws DataNotFoundException {
-        requestLogger.logRequest("DELETE /person/"+firstName+"/"+lastName);
+        requestLogger.logRequest("DELETE /person/{}/{}", firstName, lastName);
         try{
             personService.deletePerson(firstName.trim(), lastName.trim());
             requestLogger.logResponseSuccess(HttpStatus.NO_CONTENT, null);
@@ -72,7 +79,7 @@ public class PersonController {
      */
     @PostMapping("/person")
     public ResponseEntity<Person> createPerson(@RequestBody Person person) throws DataAlreadyExistsException {
-        requestLogger.logRequest("POST /person/"+ person.getFirstName()+"/"+person.getLastName());
+        requestLogger.logRequest("POST /person/{}/{}", person.getFirstName(), person.getLastName());
         try{
             Person createdPerson = personService.createPerson(person);
             URI location = ServletUriComponentsBuilder
@@ -102,7 +109,7 @@ public class PersonController {
      */
     @PutMapping("/person")
     public  ResponseEntity<Person>  updatePerson(@RequestBody Person person) throws DataNotFoundException {
-        requestLogger.logRequest("PUT /person/"+ person.getFirstName()+"/"+person.getLastName());
+        requestLogger.logRequest("PUT /person/{}/{}", person.getFirstName(), person.getLastName());
         try  {
             personService.updatePerson(person);
             requestLogger.logResponseSuccess(HttpStatus.OK,null);
@@ -123,8 +130,9 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/childAlert")
+    @AsyncHandler(AsyncHandler.Bulkhead.LOOKUP)
     public ResponseEntity<MappingJacksonValue> getChildrenAtAddress(@RequestParam String address) {
-        requestLogger.logRequest("GET /childAlert?address="+ address);
+        requestLogger.logRequest("GET /childAlert?address={}", address);
 
         ChildAlertDto childAlertDto = personService.getChildren(address.trim());
 
@@ -133,9 +141,7 @@ public class PersonController {
             /*No child lives at this address : return an empty string*/
             return  ResponseEntity.ok().build();
         } else {
-            Map<String, Set<String>> dtoFilterSpec = Map.of("ChildAlertDtoChildrenFilter", Set.of("firstName","lastName","age"),
-                                                        "ChildAlertDtoAdultFilter", Set.of("firstName","lastName"));
-            MappingJacksonValue childAlertDtoFiltered = DtoFilter.apply(childAlertDto, dtoFilterSpec);
+            MappingJacksonValue childAlertDtoFiltered = DtoFilter.apply(childAlertDto, DtoFilterProfile.CHILD_ALERT);
             return ResponseEntity.ok(childAlertDtoFiltered);
         }
     }
@@ -150,13 +156,12 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/fire")
+    @AsyncHandler(AsyncHandler.Bulkhead.LOOKUP)
     public ResponseEntity<MappingJacksonValue> getFiredPersons(@RequestParam String address) throws DataNotFoundException {
-        requestLogger.logRequest("GET /fire?address="+ address);
+        requestLogger.logRequest("GET /fire?address={}", address);
         FireDto fireDto = personService.getFiredPersons(address.trim());
 
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter", Set.of("firstName","lastName","phone","age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(fireDto, dtoFilterSpec);
+        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(fireDto, DtoFilterProfile.FIRE);
 
         requestLogger.logResponseSuccess(HttpStatus.OK ,"");
         return ResponseEntity.ok(fireDtoFiltered);
@@ -173,14 +178,13 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/personInfo")
+    @AsyncHandler(AsyncHandler.Bulkhead.LOOKUP)
     public ResponseEntity<MappingJacksonValue> getPersonInfo(@RequestParam String firstName,
                                                    @RequestParam String lastName ) throws DataNotFoundException {
-        requestLogger.logRequest("GET /personInfo?firstName="+firstName+"&lastName="+ lastName);
+        requestLogger.logRequest("GET /personInfo?firstName={}&lastName={}", firstName, lastName);
 
         List<PersonDto> personDtos = personService.getPersonInfo(firstName.trim(), lastName.trim());
-        Map<String, Set<String>> dtoFilterSpec = Map.of("PersonDtoFilter",  Set.of("firstName","lastName","address","city", "zip", "email", "age", "medicalRecord"),
-                                                        "MedicalRecordDtoFilter", Set.of("medications","allergies"));
-        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(personDtos, dtoFilterSpec);
+        MappingJacksonValue fireDtoFiltered = DtoFilter.apply(personDtos, DtoFilterProfile.PERSON_INFO);
 
         requestLogger.logResponseSuccess(HttpStatus.OK ,"");
         return ResponseEntity.ok(fireDtoFiltered);
@@ -196,10 +200,78 @@ public class PersonController {
      *              Http status code : "200-Ok" .
      */
     @GetMapping("/communityEmail")
+    @AsyncHandler(AsyncHandler.Bulkhead.AGGREGATE)
     public ResponseEntity<List<String >> getPersonInfo(@RequestParam String city) throws DataNotFoundException {
-        requestLogger.logRequest("GET /communityEmail?city="+city);
+        requestLogger.logRequest("GET /communityEmail?city={}", city);
         List<String> emails = personService.getEmailsByCity(city.trim());
         requestLogger.logResponseSuccess(HttpStatus.OK ,"");
         return ResponseEntity.ok(emails);
     }
+
+    /**
+     * Add persons in bulk, chunk by chunk.
+     *
+     * @param body a json array of Person objects, or one Person object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "201-Created" if the person has been added, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PostMapping(value = "/persons", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> createPersons(InputStream body) throws IOException {
+        requestLogger.logRequest("POST /persons");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, Person.class,
+                persons -> personService.mutatePersons(DataMutationEvent.Operation.CREATE, persons), HttpStatus.CREATED);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " added, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Update persons in bulk, chunk by chunk.
+     *
+     * @param body a json array of Person objects, or one Person object per line (application/x-ndjson).
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "200-Ok" if the person has been updated, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @PutMapping(value = "/persons", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> updatePersons(InputStream body) throws IOException {
+        requestLogger.logRequest("PUT /persons");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, Person.class,
+                persons -> personService.mutatePersons(DataMutationEvent.Operation.UPDATE, persons), HttpStatus.OK);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " updated, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
+
+    /**
+     * Delete persons in bulk, chunk by chunk.
+     *
+     * @param body a json array of Person objects, or one Person object per line (application/x-ndjson),
+     *             only their names are used.
+     *
+     * @return  HTTP response with :
+     *              Body : an object {@link BatchResultDto}, the result of each item :
+     *                     status "204-No Content" if the person has been deleted, else the status of the single item endpoint.
+     *              Http status code : "200-Ok".
+     *
+     * @throws IOException if the body can not be read
+     */
+    @DeleteMapping(value = "/persons", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> deletePersons(InputStream body) throws IOException {
+        requestLogger.logRequest("DELETE /persons");
+        BatchResultDto batchResultDto = batchRequestProcessor.process(body, Person.class,
+                persons -> personService.mutatePersons(DataMutationEvent.Operation.DELETE, persons), HttpStatus.NO_CONTENT);
+        requestLogger.logResponseSuccess(HttpStatus.OK, batchResultDto.getSucceeded() + " deleted, " + batchResultDto.getFailed()
+                + " failed, " + batchResultDto.getItemsPerSecond() + " items/s");
+        return ResponseEntity.ok(batchResultDto);
+    }
 }
@@ -0,0 +1,31 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mark a handler method to be invoked on the threads of a bulkhead instead of the Tomcat worker thread,
+ * when api.execution.mode is async (see {@link AsyncHandlerAdapter}).
+ * The handler method itself is unchanged : it still returns its response synchronously.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AsyncHandler {
+
+    /**
+     * Bulkheads, each with its own threads and pending requests limit,
+     * so that a burst of expensive requests does not delay the cheap ones.
+     */
+    enum Bulkhead {
+        /*Requests aggregating the data of whole stations or cities*/
+        AGGREGATE,
+        /*Requests looking up the data of one address or one person*/
+        LOOKUP
+    }
+
+    Bulkhead value();
+}
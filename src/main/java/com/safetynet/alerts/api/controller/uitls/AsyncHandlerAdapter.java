@@ -0,0 +1,60 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Handler adapter invoking the handler methods annotated {@link AsyncHandler} on the threads of their bulkhead.
+ *
+ * The arguments of the handler method are resolved by the Tomcat worker thread, then the handler method is wrapped into
+ * a {@link org.springframework.web.context.request.async.WebAsyncTask} : Spring MVC starts the asynchronous processing
+ * of the request, releases the worker thread and dispatches the request again once the handler method has returned,
+ * its response being then handled as if it had been returned synchronously.
+ * The request attributes (hence the request scoped beans) are bound to the bulkhead thread while it runs the handler method.
+ */
+public class AsyncHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final IBulkheads bulkheads;
+
+    /*Bulkhead of each handler method, empty for the handler methods invoked synchronously*/
+    private final Map<Method, Optional<AsyncHandler.Bulkhead>> bulkheadByMethod = new ConcurrentHashMap<>();
+
+    public AsyncHandlerAdapter(IBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        Optional<AsyncHandler.Bulkhead> bulkhead = bulkheadByMethod.computeIfAbsent(handlerMethod.getMethod(),
+                method -> Optional.ofNullable(handlerMethod.getMethodAnnotation(AsyncHandler.class)).map(AsyncHandler::value));
+        return bulkhead.isPresent()
+                ? new BulkheadHandlerMethod(handlerMethod, bulkhead.get())
+                : new ServletInvocableHandlerMethod(handlerMethod);
+    }
+
+    /**
+     * Handler method returning a task invoking it on the threads of its bulkhead.
+     */
+    private class BulkheadHandlerMethod extends ServletInvocableHandlerMethod {
+        private final AsyncHandler.Bulkhead bulkhead;
+
+        BulkheadHandlerMethod(HandlerMethod handlerMethod, AsyncHandler.Bulkhead bulkhead) {
+            super(handlerMethod);
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer, Object... providedArgs) throws Exception {
+            Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+            return bulkheads.prepare(bulkhead, () -> doInvoke(args));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * In async execution mode, replace the handler adapter of Spring MVC by the {@link AsyncHandlerAdapter}.
+ * In sync execution mode (default), every handler method is invoked by the Tomcat worker thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.execution.mode", havingValue = "async")
+public class AsyncHandlerConfiguration {
+
+    @Bean
+    public WebMvcRegistrations asyncHandlerRegistrations(IBulkheads bulkheads) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new AsyncHandlerAdapter(bulkheads);
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.dto.BatchItemResultDto;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link IBatchRequestProcessor} : items are read from the body as they arrive,
+ * at most one chunk of items being held in memory.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class BatchRequestProcessor implements IBatchRequestProcessor {
+
+    private final ObjectMapper objectMapper;
+
+    /*Number of items applied at once, i.e. while holding the DAO lock once*/
+    @Value("${api.batch.chunk.size:1000}")
+    private int chunkSize;
+
+    @Override
+    public <T> BatchResultDto process(InputStream body, Class<T> itemType,
+                                      Function<List<T>, List<Optional<ServiceException>>> chunkOperation,
+                                      HttpStatus successStatus) throws IOException {
+        long start = System.nanoTime();
+        List<BatchItemResultDto> results = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        /*a root level json array is unwrapped by the iterator : arrays and NDJSON are read the same way*/
+        try (MappingIterator<T> items = objectMapper.readerFor(itemType).readValues(body)) {
+            while (true) {
+                T item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (JsonProcessingException e) {
+                    /*the body can not be resynchronized after a malformed item*/
+                    apply(chunk, chunkOperation, successStatus, results);
+                    results.add(new BatchItemResultDto(results.size(), HttpStatus.BAD_REQUEST.value(), "Malformed item: " + e.getOriginalMessage()));
+                    break;
+                }
+                if (item == null) {
+                    apply(chunk, chunkOperation, successStatus, results);
+                    results.add(new BatchItemResultDto(results.size(), HttpStatus.BAD_REQUEST.value(), "Missing item"));
+                    continue;
+                }
+                chunk.add(item);
+                if (chunk.size() >= chunkSize) {
+                    apply(chunk, chunkOperation, successStatus, results);
+                }
+            }
+            apply(chunk, chunkOperation, successStatus, results);
+        }
+
+        long durationNanos = Math.max(1, System.nanoTime() - start);
+        int succeeded = (int) results.stream().filter(r -> r.getMessage() == null).count();
+        return new BatchResultDto(succeeded, results.size() - succeeded, TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                results.size() * TimeUnit.SECONDS.toNanos(1) / durationNanos, results);
+    }
+
+    /**
+     * Apply a chunk of items, add their results and clear the chunk.
+     */
+    private static <T> void apply(List<T> chunk, Function<List<T>, List<Optional<ServiceException>>> chunkOperation,
+                                  HttpStatus successStatus, List<BatchItemResultDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (Optional<ServiceException> failure : chunkOperation.apply(chunk)) {
+            results.add(failure
+                    .map(e -> new BatchItemResultDto(results.size(), e.getHttpStatus().value(), e.getMessage()))
+                    .orElseGet(() -> new BatchItemResultDto(results.size(), successStatus.value(), null)));
+        }
+        chunk.clear();
+    }
+}
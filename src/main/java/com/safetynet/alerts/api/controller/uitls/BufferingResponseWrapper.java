@@ -0,0 +1,174 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Response wrapper buffering the body written, up to a given size.
+ *
+ * Once the body exceeds the size, the buffer is written to the wrapped response and the rest of the body
+ * is written through : {@link #getBufferedBody()} is then null.
+ * Non-blocking writes are supported : write listeners are registered on the wrapped response stream.
+ */
+class BufferingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int maxBufferBytes;
+    /*Generation of the response cache when the response started to be computed*/
+    private final long generation;
+    private final BufferingOutputStream outputStream = new BufferingOutputStream();
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private PrintWriter writer;
+
+    BufferingResponseWrapper(HttpServletResponse response, int maxBufferBytes, long generation) {
+        super(response);
+        this.maxBufferBytes = maxBufferBytes;
+        this.generation = generation;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the body written, or null if it exceeded the buffer and has been written to the wrapped response.
+     */
+    byte[] getBufferedBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return buffer == null ? null : buffer.toByteArray();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        if (buffer == null) {
+            super.setContentLength(len);
+        }
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (buffer == null) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (buffer == null) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (buffer != null) {
+            buffer.reset();
+        } else {
+            super.resetBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (buffer != null) {
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return buffer == null && super.isCommitted();
+    }
+
+    private void spillIfExceeded(int len) throws IOException {
+        if (buffer != null && buffer.size() + len > maxBufferBytes) {
+            ServletOutputStream wrappedStream = getResponse().getOutputStream();
+            buffer.writeTo(wrappedStream);
+            buffer = null;
+        }
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            spillIfExceeded(1);
+            if (buffer != null) {
+                buffer.write(b);
+            } else {
+                getResponse().getOutputStream().write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            spillIfExceeded(len);
+            if (buffer != null) {
+                buffer.write(b, off, len);
+            } else {
+                getResponse().getOutputStream().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer == null) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        /**
+         * The buffer always accepts the body, once spilled the wrapped response stream tells whether it does.
+         */
+        @Override
+        public boolean isReady() {
+            if (buffer != null) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * The listener is registered on the wrapped response stream, as the body may spill to it :
+         * the container calls it back once the wrapped stream is ready, which it is while the body is buffered.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            ServletOutputStream wrappedStream;
+            try {
+                wrappedStream = getResponse().getOutputStream();
+            } catch (IOException e) {
+                writeListener.onError(e);
+                return;
+            }
+            wrappedStream.setWriteListener(writeListener);
+        }
+    }
+}
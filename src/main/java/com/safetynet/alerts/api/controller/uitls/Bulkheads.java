@@ -0,0 +1,100 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.safetynet.alerts.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implementation of {@link IBulkheads} : each bulkhead owns a fixed pool of threads, and a number of permits
+ * bounding the tasks running or queued. A task is refused once the permits of its bulkhead are exhausted,
+ * so that requests are answered 503 at once instead of piling up.
+ */
+@Component
+@ConditionalOnProperty(name = "api.execution.mode", havingValue = "async")
+public class Bulkheads implements IBulkheads, MeterBinder {
+
+    private final Map<AsyncHandler.Bulkhead, Compartment> compartments = new EnumMap<>(AsyncHandler.Bulkhead.class);
+    private final long timeoutMillis;
+
+    /**
+     * @param aggregateThreads threads of the aggregate bulkhead.
+     * @param aggregatePending tasks of the aggregate bulkhead running or queued above which tasks are refused.
+     * @param lookupThreads threads of the lookup bulkhead.
+     * @param lookupPending tasks of the lookup bulkhead running or queued above which tasks are refused.
+     * @param timeoutMillis time after which a request whose task is not done is answered 503.
+     */
+    @Autowired
+    public Bulkheads(@Value("${api.execution.aggregate.threads:2}") int aggregateThreads,
+                     @Value("${api.execution.aggregate.pending:50}") int aggregatePending,
+                     @Value("${api.execution.lookup.threads:8}") int lookupThreads,
+                     @Value("${api.execution.lookup.pending:400}") int lookupPending,
+                     @Value("${api.execution.timeout:30000}") long timeoutMillis) {
+        this.compartments.put(AsyncHandler.Bulkhead.AGGREGATE, new Compartment(AsyncHandler.Bulkhead.AGGREGATE, aggregateThreads, aggregatePending));
+        this.compartments.put(AsyncHandler.Bulkhead.LOOKUP, new Compartment(AsyncHandler.Bulkhead.LOOKUP, lookupThreads, lookupPending));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public <T> WebAsyncTask<T> prepare(AsyncHandler.Bulkhead bulkhead, Callable<T> task) throws ServiceUnavailableException {
+        Compartment compartment = compartments.get(bulkhead);
+        if (!compartment.permits.tryAcquire()) {
+            throw new ServiceUnavailableException(compartment.name);
+        }
+        return new WebAsyncTask<>(timeoutMillis, compartment.executor, () -> {
+            try {
+                return task.call();
+            } finally {
+                compartment.permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Compartment compartment : compartments.values()) {
+            Gauge.builder("alerts.bulkhead.pending", compartment, c -> c.pending - c.permits.availablePermits())
+                    .description("Tasks of the bulkhead running or queued")
+                    .tags("bulkhead", compartment.name)
+                    .register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compartments.values().forEach(compartment -> compartment.executor.shutdown());
+    }
+
+    /**
+     * Threads and permits of a bulkhead.
+     */
+    private static class Compartment {
+        private final String name;
+        private final int pending;
+        private final Semaphore permits;
+        private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        Compartment(AsyncHandler.Bulkhead bulkhead, int threads, int pending) {
+            this.name = bulkhead.name().toLowerCase(Locale.ROOT);
+            this.pending = pending;
+            this.permits = new Semaphore(pending);
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setThreadNamePrefix(name + "-handler-");
+            executor.initialize();
+        }
+    }
+}
@@ -10,6 +10,26 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public class DtoFilter {
+    /**
+     * Filter a DTO with a named profile, whose filter provider is shared by all responses.
+     *
+     * @param dtoToFilter the DTO.
+     * @param profile the filter profile.
+     * @return the DTO with its filters, to be serialized.
+     */
+    public static <T> MappingJacksonValue apply(T dtoToFilter, DtoFilterProfile profile) {
+        MappingJacksonValue filteredDto = new MappingJacksonValue(dtoToFilter);
+        filteredDto.setFilters(profile.getFilterProvider());
+        return filteredDto;
+    }
+
+    /**
+     * Filter a DTO with filters built for this call.
+     *
+     * @param dtoToFilter the DTO.
+     * @param filters fields to keep, by filter name.
+     * @return the DTO with its filters, to be serialized.
+     */
     public static <T> MappingJacksonValue apply(T dtoToFilter,  Map<String, Set<String>> filters ){
         SimpleFilterProvider filterList = new SimpleFilterProvider();
         for(String filterName : filters.keySet()){
@@ -0,0 +1,90 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.safetynet.alerts.api.model.dto.ChildAlertDto;
+import com.safetynet.alerts.api.model.dto.FireDto;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named filter profiles of the DTOs returned by the endpoints : the DTO fields each endpoint exposes.
+ * Filter providers are immutable and built once, they are shared by all the responses of an endpoint.
+ */
+public enum DtoFilterProfile {
+    /** GET /firestation */
+    FIRE_STATION("fireStation", Map.of("PersonDtoFilter", Set.of("firstName", "lastName", "address", "city", "zip", "phone"))) {
+        @Override
+        Object sample() {
+            return new FireStationPersonsDto(List.of(samplePerson()), 1, 0);
+        }
+    },
+    /** GET /flood/stations */
+    FLOOD("flood", Map.of("PersonDtoFilter", Set.of("firstName", "lastName", "phone", "age", "medicalRecord"),
+            "MedicalRecordDtoFilter", Set.of("medications", "allergies"))) {
+        @Override
+        Object sample() {
+            return List.of(new FloodDto("address", List.of(samplePerson())));
+        }
+    },
+    /** GET /fire */
+    FIRE("fire", Map.of("PersonDtoFilter", Set.of("firstName", "lastName", "phone", "age", "medicalRecord"),
+            "MedicalRecordDtoFilter", Set.of("medications", "allergies"))) {
+        @Override
+        Object sample() {
+            return new FireDto(1, List.of(samplePerson()));
+        }
+    },
+    /** GET /personInfo */
+    PERSON_INFO("personInfo", Map.of("PersonDtoFilter", Set.of("firstName", "lastName", "address", "city", "zip", "email", "age", "medicalRecord"),
+            "MedicalRecordDtoFilter", Set.of("medications", "allergies"))) {
+        @Override
+        Object sample() {
+            return List.of(samplePerson());
+        }
+    },
+    /** GET /childAlert */
+    CHILD_ALERT("childAlert", Map.of("ChildAlertDtoChildrenFilter", Set.of("firstName", "lastName", "age"),
+            "ChildAlertDtoAdultFilter", Set.of("firstName", "lastName"))) {
+        @Override
+        Object sample() {
+            return new ChildAlertDto(List.of(samplePerson()), List.of(samplePerson()));
+        }
+    };
+
+    private final String profileName;
+    private final FilterProvider filterProvider;
+
+    DtoFilterProfile(String profileName, Map<String, Set<String>> filters) {
+        this.profileName = profileName;
+        SimpleFilterProvider provider = new SimpleFilterProvider();
+        filters.forEach((filterName, fields) -> provider.addFilter(filterName, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        this.filterProvider = provider;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public FilterProvider getFilterProvider() {
+        return filterProvider;
+    }
+
+    /**
+     * @return a DTO of the type filtered by this profile, used to resolve its serializers at startup.
+     */
+    abstract Object sample();
+
+    private static PersonDto samplePerson() {
+        return new PersonDto("firstName", "lastName", "address", "city", "zip", "phone", "email", 10,
+                new MedicalRecordDto(new Date(0), List.of("medication"), List.of("allergy")));
+    }
+}
@@ -0,0 +1,33 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialize a sample DTO of each filter profile with the application object mapper once the context is started,
+ * so that the filtered bean serializers are resolved and cached before the first request.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
+public class DtoFilterProfileWarmer {
+
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        for (DtoFilterProfile profile : DtoFilterProfile.values()) {
+            try {
+                objectMapper.writer(profile.getFilterProvider()).writeValueAsBytes(profile.sample());
+            } catch (JsonProcessingException e) {
+                log.error("Filter profile " + profile.getProfileName() + " can not be warmed up", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Processor of the bodies of the batch endpoints : items are read one by one from the body
+ * and applied chunk by chunk.
+ */
+public interface IBatchRequestProcessor {
+
+    /**
+     * Read the items of a batch request body and apply them chunk by chunk.
+     * Reading stops at the first malformed item, that is reported with status "400-Bad Request".
+     *
+     * @param body request body : a json array of items, or json items one after the other (application/x-ndjson).
+     * @param itemType class of the items.
+     * @param chunkOperation operation applying a chunk of items, returning for each item the reason why it
+     *                       has not been applied, empty if it has been.
+     * @param successStatus http status reported for the items that have been applied.
+     * @return counts, throughput and result of each item.
+     * @throws IOException if the body can not be read.
+     */
+    <T> BatchResultDto process(InputStream body, Class<T> itemType,
+                               Function<List<T>, List<Optional<ServiceException>>> chunkOperation,
+                               HttpStatus successStatus) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.safetynet.alerts.api.exception.ServiceUnavailableException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+
+public interface IBulkheads {
+    /**
+     * Prepare a task to be executed asynchronously by the threads of a bulkhead.
+     *
+     * @param bulkhead the bulkhead.
+     * @param task the task.
+     * @return the task, to be returned to Spring MVC which submits it.
+     * @throws ServiceUnavailableException if too many tasks are already pending in the bulkhead.
+     */
+    <T> WebAsyncTask<T> prepare(AsyncHandler.Bulkhead bulkhead, Callable<T> task) throws ServiceUnavailableException;
+}
@@ -2,10 +2,19 @@ package com.safetynet.alerts.api.controller.uitls;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Logger of the requests handled by the controllers and of their responses.
+ * Requests are described by a message pattern whose '{}' placeholders are replaced by the arguments
+ * only if the log entry is written.
+ */
 public interface IRequestLogger {
 
     void logRequest(String request);
 
+    void logRequest(String requestPattern, Object argument);
+
+    void logRequest(String requestPattern, Object argument1, Object argument2);
+
     void logResponseSuccess(HttpStatus httpStatus, String response);
 
     void logResponseFailure(HttpStatus httpStatus,String response);
@@ -0,0 +1,62 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache of serialized responses, invalidated by the mutations of the data they have been computed from.
+ */
+public interface IResponseCache {
+
+    /**
+     * Cached response : body, content type and entity tag.
+     */
+    final class CachedResponse {
+        private final byte[] body;
+        private final String contentType;
+        private final String eTag;
+
+        public CachedResponse(byte[] body, String contentType, String eTag) {
+            this.body = body;
+            this.contentType = contentType;
+            this.eTag = eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    /**
+     * Get the current generation of the data, to be given back when caching a response computed from them.
+     *
+     * @return the generation, incremented by each mutation.
+     */
+    long getGeneration();
+
+    /**
+     * Get a cached response.
+     *
+     * @param key endpoint and normalized parameters of the request.
+     * @return the response, empty if not cached.
+     */
+    Optional<CachedResponse> get(String key);
+
+    /**
+     * Cache a response, unless the data have been mutated since it has started to be computed.
+     *
+     * @param key endpoint and normalized parameters of the request.
+     * @param response the response.
+     * @param tags the data the response depends on, see {@link ResponseCache#addressTag(String)} and alike.
+     * @param generation generation of the data when the response started to be computed.
+     */
+    void put(String key, CachedResponse response, Set<String> tags, long generation);
+}
@@ -1,28 +1,71 @@
 package com.safetynet.alerts.api.controller.uitls;
 
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
 
+/**
+ * Request scoped implementation of {@link IRequestLogger} : each HTTP request gets its own logger, holding the
+ * description of that request only.
+ *
+ * Log entries are structured (key=value) and every entry is guarded by its level : when the level is disabled,
+ * no message is formatted and no string is built. Entries are written by the asynchronous appender
+ * configured in logback-spring.xml.
+ */
 @Log4j2
 @Component
+@RequestScope
 public class RequestLogger implements IRequestLogger {
 
-    private String request;
+    private String requestPattern;
+    private Object argument1;
+    private Object argument2;
+    private long startNanos;
 
     @Override
     public void logRequest(String request) {
-        this.request = request;
-        log.info("Request : '" + request + "'");
+        logRequest("{}", request, null);
+    }
+
+    @Override
+    public void logRequest(String requestPattern, Object argument) {
+        logRequest(requestPattern, argument, null);
+    }
+
+    @Override
+    public void logRequest(String requestPattern, Object argument1, Object argument2) {
+        this.requestPattern = requestPattern;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+        this.startNanos = System.nanoTime();
+        if (log.isInfoEnabled()) {
+            log.info("event=request request=\"{}\"", request());
+        }
     }
 
     @Override
     public void logResponseSuccess(HttpStatus httpStatus, String response) {
-        log.info("SUCCES ! Response to request : '" + this.request + "' : " + response);
+        if (log.isInfoEnabled()) {
+            log.info("event=response outcome=success status={} request=\"{}\" durationMicros={} response=\"{}\"",
+                    httpStatus.value(), request(), elapsedMicros(), response == null ? "" : response);
+        }
     }
 
     @Override
     public void logResponseFailure(HttpStatus httpStatus,String response) {
-        log.error("FAILURE ! Response to request : '" + this.request + "' : " + response);
+        if (log.isErrorEnabled()) {
+            log.error("event=response outcome=failure status={} request=\"{}\" durationMicros={} response=\"{}\"",
+                    httpStatus.value(), request(), elapsedMicros(), response == null ? "" : response);
+        }
+    }
+
+    private String request() {
+        return ParameterizedMessage.format(requestPattern, new Object[]{argument1, argument2});
+    }
+
+    private long elapsedMicros() {
+        return (System.nanoTime() - startNanos) / 1000;
     }
 }
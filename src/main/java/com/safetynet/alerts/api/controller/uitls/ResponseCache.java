@@ -0,0 +1,254 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.view.IDataVersions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link IResponseCache} : least recently used responses are evicted once the cached bodies
+ * exceed a given size.
+ *
+ * Each response is tagged with the addresses, stations, cities and names it depends on. A mutation invalidates the
+ * responses tagged with what it touches, before the mutation returns : the address, city and name of a person
+ * and the station of its address, the address and station of a fire station mapping, the name of a medical record
+ * and the addresses and stations of the persons it belongs to (ages change).
+ * Responses are put along with the generation of the data ({@link IDataVersions}) they have been computed from : a
+ * response computed before a mutation is not cached once the mutation has invalidated the cache.
+ * Responses holding ages are only valid for the day they have been computed : the whole cache is cleared when the
+ * calendar day rolls over.
+ */
+@Component
+@ConditionalOnProperty(name = "api.response.cache.enabled", havingValue = "true")
+@Log4j2
+public class ResponseCache implements IResponseCache, MeterBinder {
+
+    /*Estimated memory of an entry besides its body*/
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final IPersonDao personDao;
+    private final IFireStationDao fireStationDao;
+    private final IDataVersions dataVersions;
+    private final long maxBytes;
+
+    /*Guarded by the cache monitor*/
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private long bytes;
+    private long endOfDayMillis = endOfDayMillis(LocalDate.now());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxBytes size of the cached bodies above which least recently used responses are evicted.
+     */
+    @Autowired
+    public ResponseCache(IPersonDao personDao, IFireStationDao fireStationDao, IDataVersions dataVersions,
+                         @Value("${api.response.cache.max-bytes:67108864}") long maxBytes) {
+        this.personDao = personDao;
+        this.fireStationDao = fireStationDao;
+        this.dataVersions = dataVersions;
+        this.maxBytes = maxBytes;
+    }
+
+    public static String addressTag(String address) {
+        return "address:" + fold(address);
+    }
+
+    public static String stationTag(Integer stationNumber) {
+        return "station:" + stationNumber;
+    }
+
+    public static String cityTag(String city) {
+        return "city:" + fold(city);
+    }
+
+    public static String nameTag(String firstName, String lastName) {
+        return "name:" + fold(firstName) + "\0" + fold(lastName);
+    }
+
+    private static String fold(String value) {
+        return value == null ? "\0" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public long getGeneration() {
+        return dataVersions.getGeneration();
+    }
+
+    @Override
+    public synchronized Optional<CachedResponse> get(String key) {
+        rollOver();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.response);
+    }
+
+    @Override
+    public synchronized void put(String key, CachedResponse response, Set<String> tags, long generation) {
+        long size = (long) response.getBody().length + ENTRY_OVERHEAD_BYTES;
+        if (generation != dataVersions.getGeneration() || size > maxBytes) {
+            return;
+        }
+        rollOver();
+        remove(key);
+        entries.put(key, new Entry(response, tags, size));
+        for (String tag : tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        bytes += size;
+        Iterator<Map.Entry<String, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (bytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Map.Entry<String, Entry> evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            forget(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    /**
+     * Invalidate the responses depending on the data touched by a mutation. The generation of the data has already
+     * been incremented by the mutation.
+     *
+     * @param event the mutation.
+     */
+    @EventListener
+    public void onDataMutation(DataMutationEvent event) {
+        Set<String> tags = new HashSet<>();
+        addTags(event.getEntity(), tags);
+        addTags(event.getPreviousEntity(), tags);
+        invalidate(tags);
+    }
+
+    private void addTags(Object entity, Set<String> tags) {
+        if (entity instanceof Person) {
+            Person person = (Person) entity;
+            tags.add(cityTag(person.getCity()));
+            tags.add(nameTag(person.getFirstName(), person.getLastName()));
+            addAddressTags(person.getAddress(), tags);
+        } else if (entity instanceof FireStation) {
+            FireStation fireStation = (FireStation) entity;
+            tags.add(addressTag(fireStation.getAddress()));
+            tags.add(stationTag(fireStation.getStation()));
+        } else if (entity instanceof MedicalRecord) {
+            MedicalRecord medicalRecord = (MedicalRecord) entity;
+            tags.add(nameTag(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+            for (Person person : personDao.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName())) {
+                addAddressTags(person.getAddress(), tags);
+            }
+        }
+    }
+
+    /*Tags of an address and of the stations covering it*/
+    private void addAddressTags(String address, Set<String> tags) {
+        tags.add(addressTag(address));
+        for (FireStation fireStation : fireStationDao.getFireStations(address)) {
+            tags.add(stationTag(fireStation.getStation()));
+        }
+    }
+
+    private synchronized void invalidate(Set<String> tags) {
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                for (String key : new HashSet<>(keys)) {
+                    remove(key);
+                }
+            }
+        }
+    }
+
+    /*Clear the cache once the calendar day the cached ages have been computed for is over*/
+    private void rollOver() {
+        if (System.currentTimeMillis() >= endOfDayMillis) {
+            entries.clear();
+            keysByTag.clear();
+            bytes = 0;
+            endOfDayMillis = endOfDayMillis(LocalDate.now());
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            forget(key, entry);
+        }
+    }
+
+    /*Forget the tags and size of an entry removed from the entries*/
+    private void forget(String key, Entry entry) {
+        bytes -= entry.size;
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private static long endOfDayMillis(LocalDate day) {
+        return day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("alerts.cache.requests", hits, LongAdder::sum)
+                .description("Cache reads that found (hit) or not (miss) the value")
+                .tags("cache", "response", "result", "hit").register(registry);
+        FunctionCounter.builder("alerts.cache.requests", misses, LongAdder::sum)
+                .description("Cache reads that found (hit) or not (miss) the value")
+                .tags("cache", "response", "result", "miss").register(registry);
+        Gauge.builder("alerts.cache.size", this, cache -> {
+                    synchronized (cache) {
+                        return cache.bytes;
+                    }
+                })
+                .description("Size of the cached responses")
+                .baseUnit("bytes")
+                .tags("cache", "response").register(registry);
+    }
+
+    /**
+     * Cached response, its tags and estimated size.
+     */
+    private static class Entry {
+        private final CachedResponse response;
+        private final Set<String> tags;
+        private final long size;
+
+        Entry(CachedResponse response, Set<String> tags, long size) {
+            this.response = response;
+            this.tags = tags;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Serve the GET alert endpoints from the {@link IResponseCache}, and answer "304-Not Modified" to requests
+ * whose If-None-Match header holds the entity tag of the response.
+ *
+ * Requests are keyed by endpoint and parameters, parameters being sorted by name, trimmed and lower cased
+ * as the datasource compares them case insensitively. A response computed for a miss is buffered, up to a given size,
+ * then cached and sent with its entity tag ; a larger response is sent as it is written and not cached.
+ * Asynchronous requests (see {@link AsyncHandlerAdapter}) are cached once their last dispatch completes.
+ */
+@Component
+@ConditionalOnProperty(name = "api.response.cache.enabled", havingValue = "true")
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /*Tags of the data each cached endpoint depends on, from its parameters*/
+    private static final Map<String, Function<HttpServletRequest, Set<String>>> ENDPOINTS = Map.of(
+            "/fire", request -> Set.of(ResponseCache.addressTag(request.getParameter("address"))),
+            "/childAlert", request -> Set.of(ResponseCache.addressTag(request.getParameter("address"))),
+            "/personInfo", request -> Set.of(ResponseCache.nameTag(request.getParameter("firstName"), request.getParameter("lastName"))),
+            "/communityEmail", request -> Set.of(ResponseCache.cityTag(request.getParameter("city"))),
+            "/phoneAlert", request -> stationTags(request, "firestation"),
+            "/firestation", request -> stationTags(request, "stationNumber"),
+            "/flood/stations", request -> stationTags(request, "stations"));
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final IResponseCache responseCache;
+
+    /*Size of the responses above which they are not cached*/
+    private final int maxEntryBytes;
+
+    @Autowired
+    public ResponseCacheFilter(IResponseCache responseCache,
+                               @Value("${api.response.cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.responseCache = responseCache;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !ENDPOINTS.containsKey(URL_PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        String key = key(path, request);
+
+        BufferingResponseWrapper bufferingResponse = WebUtils.getNativeResponse(response, BufferingResponseWrapper.class);
+        if (bufferingResponse == null) {
+            /*first dispatch of the request*/
+            Optional<IResponseCache.CachedResponse> cachedResponse = responseCache.get(key);
+            if (cachedResponse.isPresent()) {
+                send(request, response, cachedResponse.get());
+                return;
+            }
+            bufferingResponse = new BufferingResponseWrapper(response, maxEntryBytes, responseCache.getGeneration());
+        }
+
+        filterChain.doFilter(request, bufferingResponse);
+
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        /*on an asynchronous dispatch, the response given is the wrapper*/
+        HttpServletResponse wrappedResponse = (HttpServletResponse) bufferingResponse.getResponse();
+        byte[] body = bufferingResponse.getBufferedBody();
+        if (body == null) {
+            /*response larger than the buffer, already sent*/
+            return;
+        }
+        if (bufferingResponse.getStatus() == HttpServletResponse.SC_OK) {
+            IResponseCache.CachedResponse computedResponse = new IResponseCache.CachedResponse(body, bufferingResponse.getContentType(),
+                    "\"0" + DigestUtils.md5DigestAsHex(body) + "\"");
+            responseCache.put(key, computedResponse, ENDPOINTS.get(path).apply(request), bufferingResponse.getGeneration());
+            send(request, wrappedResponse, computedResponse);
+        } else if (body.length > 0) {
+            wrappedResponse.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Send a response, or "304-Not Modified" if the client already holds it.
+     */
+    private static void send(HttpServletRequest request, HttpServletResponse response, IResponseCache.CachedResponse cachedResponse) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cachedResponse.getETag());
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cachedResponse.getETag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cachedResponse.getContentType());
+        response.setContentLength(cachedResponse.getBody().length);
+        response.getOutputStream().write(cachedResponse.getBody());
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String requestedETag : ifNoneMatch.split(",")) {
+            requestedETag = requestedETag.trim();
+            if (requestedETag.equals("*") || requestedETag.equals(eTag) || requestedETag.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the key of a request : its endpoint and its parameters, normalized.
+     */
+    private static String key(String path, HttpServletRequest request) {
+        Map<String, String> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, normalize(values)));
+        StringBuilder key = new StringBuilder(path);
+        parameters.forEach((name, value) -> key.append('\0').append(name).append('=').append(value));
+        return key.toString();
+    }
+
+    private static String normalize(String[] values) {
+        StringBuilder normalized = new StringBuilder();
+        for (String value : values) {
+            normalized.append(value.trim().toLowerCase(Locale.ROOT)).append('\0');
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Tags of the stations of a request, given as a parameter holding comma separated numbers, possibly repeated.
+     */
+    private static Set<String> stationTags(HttpServletRequest request, String parameter) {
+        Set<String> tags = new HashSet<>();
+        String[] values = request.getParameterValues(parameter);
+        if (values != null) {
+            Arrays.stream(values)
+                    .flatMap(value -> Arrays.stream(value.split(",")))
+                    .map(String::trim)
+                    .forEach(stationNumber -> {
+                        try {
+                            tags.add(ResponseCache.stationTag(Integer.valueOf(stationNumber)));
+                        } catch (NumberFormatException e) {
+                            /*request answered "400-Bad Request", not cached*/
+                        }
+                    });
+        }
+        return tags;
+    }
+}
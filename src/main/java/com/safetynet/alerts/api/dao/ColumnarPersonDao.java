@@ -0,0 +1,740 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.LockFreeList;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.Person;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Columnar implementation of {@link IPersonDao}, enabled by "datasource.person.storage=columnar".
+ *
+ * Persons are not stored as objects but as rows of parallel columns :
+ *  - first name, last name, address, city and zip as int codes of a dictionary of their values,
+ *  - phone and email as string columns, their values being mostly distinct,
+ *  - case folded address and city as int codes, the columns lookups filter on,
+ *  - the version of the mutation that removed the row, 0 while the row is live.
+ * A Person is only built when a read projects its row. Rows are appended, never overwritten : an update appends the
+ * updated row and removes the previous one, a delete only removes its row. Removed rows are dropped by a compaction
+ * once they are the majority.
+ *  - persons of a city are found by scanning the folded city codes column, a tight loop over an int array.
+ *  - persons of an address are found through the rows of its code : an address holds a handful of persons and the
+ *    services look addresses up one by one, a scan per address would make their loops quadratic.
+ *  - persons of a name are found through the rows of their case folded name.
+ *
+ * Once built, the columns replace the persons list of the datasource by a read only view of the columns :
+ * snapshots and the journal compaction read the persons from it.
+ * Reads do not lock : each mutation publishes the row count and its version once its rows are written, readers read
+ * them once and only see the rows written and not removed as of that version. Mutations hold the DAO monitor.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.person.storage", havingValue = "columnar")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ColumnarPersonDao implements IPersonDao, IIndexedDao {
+
+    private final IAlertsDataSource dataSource;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /*Key of null values*/
+    private static final String NULL_KEY = "\0";
+
+    /*Dictionary code of null values*/
+    private static final int NULL_CODE = -1;
+
+    /*Row count under which removed rows are never compacted*/
+    private static final int COMPACTION_MIN_ROWS = 1024;
+
+    /*Columns of the persons of the datasource, (re)built when the datasource persons list changes or is compacted*/
+    private volatile PersonColumns columns;
+
+    /*View of the columns installed as the datasource persons list*/
+    private final PersonList view = new PersonList();
+
+    /**
+     * Get a person from a datasource.
+     *
+     * @param firstName first name of the person to get.
+     * @param lastName last name of the person to get.
+     * @return the person if found.
+     */
+    @Override
+    public Optional<Person> getPerson(final String firstName, final String lastName) {
+        PersonColumns personColumns = getColumns();
+        Rows rows = personColumns.rows;
+        int row = personColumns.firstRowOfName(rows, nameKey(firstName, lastName));
+        return row < 0 ? Optional.empty() : Optional.of(rows.person(row));
+    }
+
+    /**
+     * Delete a person from a datasource.
+     *
+     * @param firstName first name of the person to delete.
+     * @param lastName last name of the person to delete.
+     * @throws DataNotFoundException if the person does not exist in the datasource. (No person with
+     * given firstName and lastName has been found).
+     *
+     */
+    @Override
+    public void deletePerson(final String firstName, final String lastName) throws DataNotFoundException {
+        MutationChunk<Person> chunk;
+        synchronized (this) {
+            PersonColumns personColumns = getColumns();
+            chunk = newChunk(personColumns);
+            delete(personColumns, firstName, lastName, chunk);
+            compactIfSparse(personColumns);
+        }
+        chunk.await();
+    }
+
+    /**
+     * Update an existing person into a datasource.
+     *
+     * @param personToUpdate person to update.
+     * @return updated person.
+     * @throws DataNotFoundException if the person does not exist in the datasource. (No person with
+     * same firstName and lastName has been found).
+     *
+     */
+    @Override
+    public Person updatePerson(Person personToUpdate) throws DataNotFoundException {
+        Person person;
+        MutationChunk<Person> chunk;
+        synchronized (this) {
+            PersonColumns personColumns = getColumns();
+            chunk = newChunk(personColumns);
+            person = update(personColumns, personToUpdate, chunk);
+            compactIfSparse(personColumns);
+        }
+        chunk.await();
+        return person;
+    }
+
+    /**
+     * Add a new a person into a datasource.
+     *
+     * @param personToCreate person to add.
+     * @return added person.
+     * @throws DataAlreadyExistsException if the person already exist in the datasource. (person with
+     * same firstName and lastName has been found).
+     *
+     */
+    @Override
+    public Person createPerson(Person personToCreate) throws DataAlreadyExistsException {
+        Person person;
+        MutationChunk<Person> chunk;
+        synchronized (this) {
+            PersonColumns personColumns = getColumns();
+            chunk = newChunk(personColumns);
+            person = create(personColumns, personToCreate, chunk);
+        }
+        chunk.await();
+        return person;
+    }
+
+    /**
+     * Create, update or delete a chunk of persons while holding the DAO monitor once.
+     * Mutations are committed together once the monitor has been released.
+     *
+     * @param operation the mutation to apply to each person.
+     * @param persons persons to create or update, persons to delete (only their names are used).
+     * @return for each person, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutatePersons(DataMutationEvent.Operation operation, List<Person> persons) {
+        List<Optional<ServiceException>> results = new ArrayList<>(persons.size());
+        MutationChunk<Person> chunk;
+        synchronized (this) {
+            PersonColumns personColumns = getColumns();
+            chunk = newChunk(personColumns);
+            for (Person person : persons) {
+                try {
+                    switch (operation) {
+                        case CREATE:
+                            create(personColumns, person, chunk);
+                            break;
+                        case UPDATE:
+                            update(personColumns, person, chunk);
+                            break;
+                        default:
+                            delete(personColumns, person.getFirstName(), person.getLastName(), chunk);
+                    }
+                    results.add(Optional.empty());
+                } catch (DataNotFoundException | DataAlreadyExistsException e) {
+                    results.add(Optional.of(e));
+                }
+                chunk.next();
+            }
+            compactIfSparse(personColumns);
+        }
+        chunk.await(results);
+        return results;
+    }
+
+    /*Mutations, to be called while holding the DAO monitor : they are published through 'chunk'*/
+
+    private void delete(PersonColumns personColumns, String firstName, String lastName, MutationChunk<Person> chunk) throws DataNotFoundException {
+        Rows rows = personColumns.rows;
+        int row = personColumns.firstRowOfName(rows, nameKey(firstName, lastName));
+        if (row >= 0) {
+            Person deletedPerson = rows.person(row);
+            personColumns.remove(row);
+            personColumns.publish();
+            chunk.publish(DataMutationEvent.Operation.DELETE, deletedPerson, deletedPerson, dataName(deletedPerson));
+        } else {
+            throw new DataNotFoundException("Person " + firstName + " " + lastName);
+        }
+    }
+
+    private Person update(PersonColumns personColumns, Person personToUpdate, MutationChunk<Person> chunk) throws DataNotFoundException {
+        Rows rows = personColumns.rows;
+        int row = personColumns.firstRowOfName(rows, nameKey(personToUpdate.getFirstName(), personToUpdate.getLastName()));
+        if (row >= 0) {
+            Person previousPerson = rows.person(row);
+            Person person = new Person(previousPerson);
+            person.setAddress(personToUpdate.getAddress());
+            person.setCity(personToUpdate.getCity());
+            person.setZip(personToUpdate.getZip());
+            person.setEmail(personToUpdate.getEmail());
+            person.setPhone(personToUpdate.getPhone());
+            personColumns.replace(row, person);
+            personColumns.publish();
+            chunk.publish(DataMutationEvent.Operation.UPDATE, person, previousPerson, dataName(person));
+            return person;
+        } else {
+            throw new DataNotFoundException("Person " + personToUpdate.getFirstName() + " " + personToUpdate.getLastName());
+        }
+    }
+
+    private Person create(PersonColumns personColumns, Person personToCreate, MutationChunk<Person> chunk) throws DataAlreadyExistsException {
+        if (personColumns.firstRowOfName(personColumns.rows, nameKey(personToCreate.getFirstName(), personToCreate.getLastName())) < 0) {
+            Person person = new Person(personToCreate);
+            personColumns.add(person);
+            personColumns.publish();
+            chunk.publish(DataMutationEvent.Operation.CREATE, person, null, dataName(person));
+            return person;
+        } else {
+            throw new DataAlreadyExistsException("Person " + personToCreate.getFirstName() + " " + personToCreate.getLastName());
+        }
+    }
+
+    /**
+     * Get a list of persons that live to a given address.
+     *
+     * @param address the address.
+     * @return list of Person object.
+     */
+    @Override
+    public List<Person> getPersonsByAddress(String address) {
+        return getColumns().getRowsOfAddress(fold(address));
+    }
+
+    /**
+     * Get a list of persons that live in a given city.
+     *
+     * @param city the city name.
+     * @return list of Person object.
+     */
+    @Override
+    public List<Person> getPersonsByCity(String city) {
+        return getColumns().scanCity(fold(city));
+    }
+
+    /**
+     * Get all persons named 'firstName' 'lastName' from a datasource.
+     *
+     * @param firstName first name of the person to get.
+     * @param lastName  last name of the person to get.
+     * @return a list of person
+     */
+    @Override
+    public List<Person> getPersons(String firstName, String lastName) {
+        return getColumns().getRowsOfName(nameKey(firstName, lastName));
+    }
+
+    /**
+     * Start the mutations of a chunk of persons, shall be called while holding the DAO monitor.
+     * A mutation that can not be published is undone by the inverse mutation of the rows, published at once.
+     */
+    private MutationChunk<Person> newChunk(PersonColumns personColumns) {
+        return new MutationChunk<>(this, eventPublisher, Person::new, mutation -> {
+            Person person = mutation.getEntity();
+            int row = personColumns.firstRowOfName(personColumns.rows, nameKey(person.getFirstName(), person.getLastName()));
+            switch (mutation.getOperation()) {
+                case CREATE:
+                    personColumns.remove(row);
+                    break;
+                case UPDATE:
+                    personColumns.replace(row, mutation.getPreviousEntity());
+                    break;
+                default:
+                    personColumns.add(person);
+            }
+            personColumns.publish();
+        });
+    }
+
+    private static String dataName(Person person) {
+        return "Person " + person.getFirstName() + " " + person.getLastName();
+    }
+
+    /**
+     * Build the columns of the data currently held by the datasource, if not already built.
+     */
+    @Override
+    public void buildIndex() {
+        getColumns();
+    }
+
+    /**
+     * Get the columns of the persons currently held by the datasource.
+     * Columns are rebuilt when the datasource persons list has been replaced (data (re)loaded).
+     *
+     * @return the person columns.
+     */
+    private PersonColumns getColumns() {
+        PersonColumns personColumns = columns;
+        if (personColumns == null || dataSource.getData().getPersons() != view) {
+            personColumns = rebuildColumns();
+        }
+        return personColumns;
+    }
+
+    private synchronized PersonColumns rebuildColumns() {
+        IAlertsDataSource.Data data = dataSource.getData();
+        if (columns == null || data.getPersons() != view) {
+            PersonColumns personColumns = new PersonColumns(data.getPersons().size());
+            data.getPersons().forEach(personColumns::add);
+            personColumns.publish();
+            columns = personColumns;
+            /*the datasource no longer holds the person objects*/
+            data.setPersons(view);
+        }
+        return columns;
+    }
+
+    /**
+     * Copy the live rows to new columns once most of the rows are removed, shall be called while holding the DAO monitor.
+     */
+    private void compactIfSparse(PersonColumns personColumns) {
+        Rows rows = personColumns.rows;
+        if (rows.size >= COMPACTION_MIN_ROWS && rows.size - rows.live > rows.size / 2) {
+            PersonColumns compactedColumns = new PersonColumns(rows.live);
+            for (int row = 0; row < rows.size; row++) {
+                if (rows.isLive(row)) {
+                    compactedColumns.add(rows.person(row));
+                }
+            }
+            compactedColumns.publish();
+            columns = compactedColumns;
+        }
+    }
+
+    /**
+     * Case fold a value so that it can be used as a dictionary or index key.
+     *
+     * @param value value to fold, may be null.
+     * @return the folded value.
+     */
+    private static String fold(String value) {
+        return value == null ? NULL_KEY : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return fold(firstName) + '\n' + fold(lastName);
+    }
+
+    /**
+     * Rows published by a mutation : the columns, the number of rows written and the version of the mutation.
+     * Columns are shared with the rows published later : rows are only appended past the row count, and removed rows
+     * are marked with the version of the removing mutation, so that the published rows never change.
+     */
+    private static class Rows {
+        private final int size;
+        private final int version;
+        /*Rows not removed*/
+        private final int live;
+        /*Dictionary values, by code*/
+        private final String[] values;
+        private final int[] firstNames;
+        private final int[] lastNames;
+        private final int[] addresses;
+        private final int[] cities;
+        private final int[] zips;
+        private final String[] phones;
+        private final String[] emails;
+        private final int[] cityKeys;
+        private final int[] removedAt;
+
+        Rows(PersonColumns personColumns, int version) {
+            this.size = personColumns.size;
+            this.version = version;
+            this.live = personColumns.size - personColumns.removed;
+            this.values = personColumns.values;
+            this.firstNames = personColumns.firstNames;
+            this.lastNames = personColumns.lastNames;
+            this.addresses = personColumns.addresses;
+            this.cities = personColumns.cities;
+            this.zips = personColumns.zips;
+            this.phones = personColumns.phones;
+            this.emails = personColumns.emails;
+            this.cityKeys = personColumns.cityKeys;
+            this.removedAt = personColumns.removedAt;
+        }
+
+        boolean isLive(int row) {
+            if (row >= size) {
+                return false;
+            }
+            int removedVersion = removedAt[row];
+            return removedVersion == 0 || removedVersion > version;
+        }
+
+        /**
+         * Project a row.
+         */
+        Person person(int row) {
+            Person person = new Person();
+            person.setFirstName(value(firstNames[row]));
+            person.setLastName(value(lastNames[row]));
+            person.setAddress(value(addresses[row]));
+            person.setCity(value(cities[row]));
+            person.setZip(value(zips[row]));
+            person.setPhone(phones[row]);
+            person.setEmail(emails[row]);
+            return person;
+        }
+
+        /*Persons of the live rows*/
+        List<Person> persons(int[] rowsToGet) {
+            List<Person> result = new ArrayList<>(rowsToGet.length);
+            for (int row : rowsToGet) {
+                if (isLive(row)) {
+                    result.add(person(row));
+                }
+            }
+            return result;
+        }
+
+        private String value(int code) {
+            return code == NULL_CODE ? null : values[code];
+        }
+    }
+
+    /**
+     * Columns of the persons, and the rows of addresses and names. Written while holding the DAO monitor, read through
+     * the last published {@link Rows}. Columns are replaced by larger copies when full.
+     */
+    private static class PersonColumns {
+        private String[] values;
+        private int valueCount;
+        private int[] firstNames;
+        private int[] lastNames;
+        private int[] addresses;
+        private int[] cities;
+        private int[] zips;
+        private String[] phones;
+        private String[] emails;
+        private int[] addressKeys;
+        private int[] cityKeys;
+        private int[] removedAt;
+        private int size;
+        private int removed;
+        private int version;
+
+        /*Last published rows*/
+        private volatile Rows rows;
+
+        /*Codes of the values, codes of the folded addresses and cities : codes are never reused*/
+        private final Map<String, Integer> valueCodes = new HashMap<>();
+        private final Map<String, Integer> addressDictionary = new ConcurrentHashMap<>();
+        private final Map<String, Integer> cityDictionary = new ConcurrentHashMap<>();
+        /*Rows of each address code, rows of each folded name, removed rows included : arrays copied on write*/
+        private volatile int[][] rowsByAddressKey = new int[16][];
+        private final Map<String, int[]> rowsByName = new ConcurrentHashMap<>();
+
+        PersonColumns(int rowCount) {
+            int capacity = Math.max(16, rowCount + rowCount / 4);
+            values = new String[Math.max(16, rowCount)];
+            firstNames = new int[capacity];
+            lastNames = new int[capacity];
+            addresses = new int[capacity];
+            cities = new int[capacity];
+            zips = new int[capacity];
+            phones = new String[capacity];
+            emails = new String[capacity];
+            addressKeys = new int[capacity];
+            cityKeys = new int[capacity];
+            removedAt = new int[capacity];
+            rows = new Rows(this, 0);
+        }
+
+        /**
+         * Publish the rows written and removed since the last publication.
+         */
+        void publish() {
+            version++;
+            rows = new Rows(this, version);
+        }
+
+        /**
+         * Append the row of a person, added after the current rows of its address and name.
+         *
+         * @return the appended row.
+         */
+        int add(Person person) {
+            int row = write(person);
+            addRowOfAddress(addressKeys[row], row);
+            rowsByName.merge(nameKey(person.getFirstName(), person.getLastName()), new int[] {row}, ColumnarPersonDao::concat);
+            return row;
+        }
+
+        /**
+         * Append the row of an updated person and remove the row it replaces. The appended row takes the place of the
+         * replaced one in the rows of its name, and of its address if unchanged.
+         */
+        void replace(int row, Person person) {
+            int newRow = write(person);
+            int addressKey = addressKeys[newRow];
+            if (addressKey == addressKeys[row]) {
+                int[][] addressRows = rowsByAddressKey;
+                addressRows[addressKey] = insertAfter(addressRows[addressKey], row, newRow);
+                rowsByAddressKey = addressRows;
+            } else {
+                addRowOfAddress(addressKey, newRow);
+            }
+            rowsByName.computeIfPresent(nameKey(person.getFirstName(), person.getLastName()), (key, nameRows) -> insertAfter(nameRows, row, newRow));
+            remove(row);
+        }
+
+        /**
+         * Remove a row as of the next publication : rows published before still hold it.
+         */
+        void remove(int row) {
+            removedAt[row] = version + 1;
+            removed++;
+        }
+
+        int firstRowOfName(Rows publishedRows, String nameKey) {
+            int[] nameRows = rowsByName.get(nameKey);
+            if (nameRows != null) {
+                for (int row : nameRows) {
+                    if (publishedRows.isLive(row)) {
+                        return row;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        List<Person> getRowsOfName(String nameKey) {
+            Rows publishedRows = rows;
+            int[] nameRows = rowsByName.get(nameKey);
+            return nameRows == null ? new ArrayList<>() : publishedRows.persons(nameRows);
+        }
+
+        List<Person> getRowsOfAddress(String folded) {
+            Rows publishedRows = rows;
+            Integer addressKey = addressDictionary.get(folded);
+            int[][] addressRows = rowsByAddressKey;
+            if (addressKey == null || addressKey >= addressRows.length || addressRows[addressKey] == null) {
+                return new ArrayList<>();
+            }
+            return publishedRows.persons(addressRows[addressKey]);
+        }
+
+        /**
+         * Scan the folded city codes column for the rows of a city : a first loop only compares codes and collects the
+         * matching rows, the live rows are then projected.
+         */
+        List<Person> scanCity(String folded) {
+            Rows publishedRows = rows;
+            Integer cityKey = cityDictionary.get(folded);
+            if (cityKey == null) {
+                return new ArrayList<>();
+            }
+            int key = cityKey;
+            int[] keys = publishedRows.cityKeys;
+            int rowCount = publishedRows.size;
+            int[] matchingRows = new int[64];
+            int matchCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (keys[row] == key) {
+                    if (matchCount == matchingRows.length) {
+                        matchingRows = Arrays.copyOf(matchingRows, matchCount * 2);
+                    }
+                    matchingRows[matchCount++] = row;
+                }
+            }
+            return publishedRows.persons(Arrays.copyOf(matchingRows, matchCount));
+        }
+
+        /*Write the columns of a new row, not published*/
+        private int write(Person person) {
+            int row = size;
+            if (row == firstNames.length) {
+                grow();
+            }
+            firstNames[row] = code(person.getFirstName());
+            lastNames[row] = code(person.getLastName());
+            addresses[row] = code(person.getAddress());
+            cities[row] = code(person.getCity());
+            zips[row] = code(person.getZip());
+            phones[row] = person.getPhone();
+            emails[row] = person.getEmail();
+            addressKeys[row] = key(addressDictionary, fold(person.getAddress()));
+            cityKeys[row] = key(cityDictionary, fold(person.getCity()));
+            size = row + 1;
+            return row;
+        }
+
+        /*Columns are copied : the published rows keep the previous columns*/
+        private void grow() {
+            int capacity = firstNames.length * 2;
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+            cities = Arrays.copyOf(cities, capacity);
+            zips = Arrays.copyOf(zips, capacity);
+            phones = Arrays.copyOf(phones, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            addressKeys = Arrays.copyOf(addressKeys, capacity);
+            cityKeys = Arrays.copyOf(cityKeys, capacity);
+            removedAt = Arrays.copyOf(removedAt, capacity);
+        }
+
+        private int code(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = valueCodes.get(value);
+            if (code == null) {
+                code = valueCount;
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = value;
+                valueCount++;
+                valueCodes.put(value, code);
+            }
+            return code;
+        }
+
+        private void addRowOfAddress(int addressKey, int row) {
+            int[][] addressRows = rowsByAddressKey;
+            if (addressKey >= addressRows.length) {
+                addressRows = Arrays.copyOf(addressRows, Math.max(addressKey + 1, addressRows.length * 2));
+            }
+            int[] keyRows = addressRows[addressKey];
+            addressRows[addressKey] = keyRows == null ? new int[] {row} : concat(keyRows, new int[] {row});
+            rowsByAddressKey = addressRows;
+        }
+
+        private static int key(Map<String, Integer> dictionary, String folded) {
+            Integer key = dictionary.get(folded);
+            if (key == null) {
+                key = dictionary.size();
+                dictionary.put(folded, key);
+            }
+            return key;
+        }
+    }
+
+    private static int[] concat(int[] rows, int[] otherRows) {
+        int[] allRows = Arrays.copyOf(rows, rows.length + otherRows.length);
+        System.arraycopy(otherRows, 0, allRows, rows.length, otherRows.length);
+        return allRows;
+    }
+
+    /*Copy of rows with a row inserted after another one*/
+    private static int[] insertAfter(int[] rows, int row, int newRow) {
+        int[] allRows = new int[rows.length + 1];
+        int count = 0;
+        for (int r : rows) {
+            allRows[count++] = r;
+            if (r == row) {
+                allRows[count++] = newRow;
+            }
+        }
+        return count == allRows.length ? allRows : concat(Arrays.copyOf(allRows, count), new int[] {newRow});
+    }
+
+    /**
+     * Read only view of the live rows of the current columns, in row order, held by the datasource.
+     */
+    private class PersonList extends AbstractList<Person> implements LockFreeList<Person> {
+
+        @Override
+        public Person get(int index) {
+            Rows rows = columns.rows;
+            if (rows.live == rows.size) {
+                if (index < 0 || index >= rows.size) {
+                    throw new IndexOutOfBoundsException("Index " + index);
+                }
+                return rows.person(index);
+            }
+            int remaining = index;
+            for (int row = 0; row < rows.size; row++) {
+                if (rows.isLive(row) && remaining-- == 0) {
+                    return rows.person(row);
+                }
+            }
+            throw new IndexOutOfBoundsException("Index " + index);
+        }
+
+        @Override
+        public int size() {
+            PersonColumns personColumns = columns;
+            return personColumns == null ? 0 : personColumns.rows.live;
+        }
+
+        @Override
+        public Iterator<Person> iterator() {
+            Rows rows = columns.rows;
+            return new Iterator<>() {
+                private int row = next(0);
+
+                private int next(int from) {
+                    int nextRow = from;
+                    while (nextRow < rows.size && !rows.isLive(nextRow)) {
+                        nextRow++;
+                    }
+                    return nextRow;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return row < rows.size;
+                }
+
+                @Override
+                public Person next() {
+                    if (row >= rows.size) {
+                        throw new NoSuchElementException();
+                    }
+                    Person person = rows.person(row);
+                    row = next(row + 1);
+                    return person;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.safetynet.alerts.api.dao;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event published by DAOs each time they mutate the datasource.
+ *
+ * Event is published while the DAO still holds its index lock : listeners receive the mutations of an
+ * entity type in the order they have been applied, they shall not block.
+ * Listeners that commit the mutation asynchronously (e.g. the mutation journal) register a commit that the
+ * DAO awaits once its lock has been released.
+ * A mutation that a listener fails to accept (e.g. it can not be journaled) is rolled back by the DAO, which then
+ * publishes the inverse mutation as a rollback : listeners keeping state derived from the data refresh it, listeners
+ * committing mutations ignore it.
+ */
+public class DataMutationEvent extends ApplicationEvent {
+
+    public enum Operation { CREATE, UPDATE, DELETE }
+
+    /**
+     * Commit of a mutation by a listener.
+     */
+    @FunctionalInterface
+    public interface Commit {
+        /**
+         * Wait until the mutation is committed.
+         *
+         * @throws IOException if the mutation could not be committed.
+         */
+        void await() throws IOException;
+    }
+
+    private final Operation operation;
+    private final Object entity;
+    private final Object previousEntity;
+    private final boolean rollback;
+    private final List<Commit> commits = new ArrayList<>(1);
+
+    /**
+     * @param source DAO that mutated the datasource.
+     * @param operation the mutation.
+     * @param entity copy of the entity once created or updated, copy of the deleted entity.
+     * @param previousEntity copy of the entity before update or delete, null on create.
+     */
+    public DataMutationEvent(Object source, Operation operation, Object entity, Object previousEntity) {
+        this(source, operation, entity, previousEntity, false);
+    }
+
+    /**
+     * @param source DAO that mutated the datasource.
+     * @param operation the mutation.
+     * @param entity copy of the entity once created or updated, copy of the deleted entity.
+     * @param previousEntity copy of the entity before update or delete, null on create.
+     * @param rollback true if the mutation undoes a mutation that could not be published.
+     */
+    public DataMutationEvent(Object source, Operation operation, Object entity, Object previousEntity, boolean rollback) {
+        super(source);
+        this.operation = operation;
+        this.entity = entity;
+        this.previousEntity = previousEntity;
+        this.rollback = rollback;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+
+    public Object getPreviousEntity() {
+        return previousEntity;
+    }
+
+    public boolean isRollback() {
+        return rollback;
+    }
+
+    /**
+     * Register a commit of the mutation, to be awaited by the DAO.
+     *
+     * @param commit the commit.
+     */
+    public void addCommit(Commit commit) {
+        commits.add(commit);
+    }
+
+    /**
+     * Wait until every listener has committed the mutation.
+     *
+     * @throws UncheckedIOException if the mutation could not be committed.
+     */
+    public void awaitCommits() {
+        for (Commit commit : commits) {
+            try {
+                commit.await();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Mutation " + operation + " of " + entity.getClass().getSimpleName() + " not committed", e);
+            }
+        }
+    }
+}
@@ -4,19 +4,36 @@ import com.safetynet.alerts.api.datasource.IAlertsDataSource;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Component
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
-public class FireStationDao implements IFireStationDao{
+public class FireStationDao implements IFireStationDao, IIndexedDao {
 
     private final IAlertsDataSource dataSource;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    /*Index key of a null address*/
+    private static final String NULL_KEY = "\0";
+
+    /*Station <-> address indexes on the fire stations of the datasource, (re)built when the fire stations list changes*/
+    private volatile FireStationIndex index;
+
     /**
      * Get a fire station mapping from a datasource.
      *
@@ -25,11 +42,18 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public Optional<FireStation> getFireStation(String address) {
-        List<FireStation> fireStations = dataSource.getData().getFirestations();
-        Optional<FireStation> firesStationResult = fireStations.stream()
-                .filter(f -> f.getAddress().equalsIgnoreCase(address))
-                .findFirst();
-        return firesStationResult;
+        return getIndex().getFireStation(address);
+    }
+
+    /**
+     * Get every fire station mapping of an address.
+     *
+     * @param address address to which the fire stations are mapped.
+     * @return the fire station mappings, in insertion order, may be empty.
+     */
+    @Override
+    public List<FireStation> getFireStations(String address) {
+        return getIndex().getFireStations(address);
     }
 
     /**
@@ -41,11 +65,7 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public  List<String> getAddresses(Integer stationNumber){
-        List<FireStation> fireStations = dataSource.getData().getFirestations();
-        return fireStations.stream()
-                .filter(f -> stationNumber.equals(f.getStation()))
-                .map(f -> f.getAddress())
-                .collect(Collectors.toList());
+        return getIndex().getAddresses(stationNumber);
     }
 
     /**
@@ -57,14 +77,14 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public void deleteFireStation(String address) throws DataNotFoundException {
-        FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(address);
-        if(firesStationResult.isPresent()){
-            fireStation = firesStationResult.get();
-            dataSource.getData().getFirestations().remove(fireStation);
-        } else {
-            throw new DataNotFoundException("Fire station at " + address);
+        MutationChunk<FireStation> chunk;
+        FireStationIndex fireStationIndex = getIndex();
+        synchronized (fireStationIndex) {
+            chunk = newChunk(fireStationIndex);
+            delete(fireStationIndex, address, chunk);
+            applyPending(fireStationIndex, chunk);
         }
+        chunk.await();
     }
     /**
      * Update a fire station into a datasource.
@@ -76,14 +96,15 @@ public class FireStationDao implements IFireStationDao{
     @Override
     public FireStation updateFireStation(FireStation fireStationToUpdate) throws DataNotFoundException {
         FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(fireStationToUpdate.getAddress());
-        if (firesStationResult.isPresent()) {
-            fireStation = firesStationResult.get();
-            fireStation.setStation(fireStationToUpdate.getStation());
-            return fireStation;
-        } else {
-            throw new DataNotFoundException("Fire station at " + fireStationToUpdate.getAddress());
+        MutationChunk<FireStation> chunk;
+        FireStationIndex fireStationIndex = getIndex();
+        synchronized (fireStationIndex) {
+            chunk = newChunk(fireStationIndex);
+            fireStation = update(fireStationIndex, fireStationToUpdate, chunk);
+            applyPending(fireStationIndex, chunk);
         }
+        chunk.await();
+        return fireStation;
     }
 
     /**
@@ -95,16 +116,135 @@ public class FireStationDao implements IFireStationDao{
      */
     public FireStation createFireStation(FireStation fireStationToCreate) throws DataAlreadyExistsException {
         FireStation fireStation;
-        Optional<FireStation> firesStationResult = getFireStation(fireStationToCreate.getAddress());
+        MutationChunk<FireStation> chunk;
+        FireStationIndex fireStationIndex = getIndex();
+        synchronized (fireStationIndex) {
+            chunk = newChunk(fireStationIndex);
+            fireStation = create(fireStationIndex, fireStationToCreate, chunk);
+        }
+        chunk.await();
+        return fireStation;
+    }
+
+    /**
+     * Create, update or delete a chunk of fire station mappings while holding the index lock once.
+     * Mutations are committed together once the lock has been released.
+     *
+     * @param operation the mutation to apply to each fire station.
+     * @param fireStations fire stations to create or update, fire stations to delete (only their address is used).
+     * @return for each fire station, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutateFireStations(DataMutationEvent.Operation operation, List<FireStation> fireStations) {
+        List<Optional<ServiceException>> results = new ArrayList<>(fireStations.size());
+        MutationChunk<FireStation> chunk;
+        FireStationIndex fireStationIndex = getIndex();
+        synchronized (fireStationIndex) {
+            chunk = newChunk(fireStationIndex);
+            for (FireStation fireStation : fireStations) {
+                try {
+                    switch (operation) {
+                        case CREATE:
+                            create(fireStationIndex, fireStation, chunk);
+                            break;
+                        case UPDATE:
+                            update(fireStationIndex, fireStation, chunk);
+                            break;
+                        default:
+                            delete(fireStationIndex, fireStation.getAddress(), chunk);
+                    }
+                    results.add(Optional.empty());
+                } catch (DataNotFoundException | DataAlreadyExistsException e) {
+                    results.add(Optional.of(e));
+                }
+                chunk.next();
+            }
+            applyPending(fireStationIndex, chunk);
+        }
+        chunk.await(results);
+        return results;
+    }
+
+    /*Mutations, to be called while holding the index lock : they are published through 'chunk'*/
+
+    /*Deleted mappings are removed from the index, then from the datasource list by applyPending*/
+    private void delete(FireStationIndex fireStationIndex, String address, MutationChunk<FireStation> chunk) throws DataNotFoundException {
+        Optional<Mapping> mappingResult = fireStationIndex.getMapping(address);
+        if (mappingResult.isPresent()) {
+            fireStationIndex.remove(mappingResult.get());
+            chunk.deleted(mappingResult.get().fireStation, dataName(mappingResult.get().address));
+        } else {
+            throw new DataNotFoundException("Fire station at " + address);
+        }
+    }
+
+    /*Updated mappings are replaced in the index, then in the datasource list by applyPending*/
+    private FireStation update(FireStationIndex fireStationIndex, FireStation fireStationToUpdate, MutationChunk<FireStation> chunk) throws DataNotFoundException {
+        Optional<Mapping> mappingResult = fireStationIndex.getMapping(fireStationToUpdate.getAddress());
+        if (mappingResult.isPresent()) {
+            FireStation previousFireStation = mappingResult.get().fireStation;
+            /*fire stations are read without locking : the updated fire station is a copy replacing the previous one*/
+            FireStation fireStation = new FireStation(previousFireStation);
+            fireStation.setStation(fireStationToUpdate.getStation());
+            fireStationIndex.replace(mappingResult.get(), fireStation);
+            chunk.updated(previousFireStation, fireStation, dataName(mappingResult.get().address));
+            return fireStation;
+        } else {
+            throw new DataNotFoundException("Fire station at " + fireStationToUpdate.getAddress());
+        }
+    }
+
+    private FireStation create(FireStationIndex fireStationIndex, FireStation fireStationToCreate, MutationChunk<FireStation> chunk) throws DataAlreadyExistsException {
+        Optional<FireStation> firesStationResult = fireStationIndex.getFireStation(fireStationToCreate.getAddress());
         if (firesStationResult.isEmpty()) {
-            fireStation = new FireStation(fireStationToCreate);
+            FireStation fireStation = new FireStation(fireStationToCreate);
+            dataSource.canonicalize(fireStation);
             dataSource.getData().getFirestations().add(fireStation);
+            fireStationIndex.add(fireStation);
+            chunk.publish(DataMutationEvent.Operation.CREATE, fireStation, null, dataName(fireStation.getAddress()));
             return fireStation;
         } else {
             throw new DataAlreadyExistsException("Fire station at " + fireStationToCreate.getAddress());
         }
     }
 
+    /*Replace updated fire stations and remove deleted fire stations from the datasource list in one copy, by identity, then publish them in order*/
+    private void applyPending(FireStationIndex fireStationIndex, MutationChunk<FireStation> chunk) {
+        if (chunk.hasUpdates()) {
+            fireStationIndex.fireStations.replaceAll(chunk::latest);
+        }
+        if (chunk.hasDeletions()) {
+            dataSource.getData().getFirestations().removeIf(chunk::isDeleted);
+        }
+        chunk.publishPending();
+    }
+
+    /**
+     * Start the mutations of a chunk of fire stations, shall be called while holding the index lock.
+     * A mutation that can not be published is undone in the index and in the datasource list.
+     */
+    private MutationChunk<FireStation> newChunk(FireStationIndex fireStationIndex) {
+        return new MutationChunk<>(this, eventPublisher, FireStation::new, mutation -> {
+            FireStation fireStation = mutation.getEntity();
+            switch (mutation.getOperation()) {
+                case CREATE:
+                    fireStationIndex.remove(fireStationIndex.getMapping(fireStation));
+                    fireStationIndex.fireStations.removeIf(f -> f == fireStation);
+                    break;
+                case UPDATE:
+                    fireStationIndex.replace(fireStationIndex.getMapping(fireStation), mutation.getPreviousEntity());
+                    fireStationIndex.fireStations.replaceAll(f -> f == fireStation ? mutation.getPreviousEntity() : f);
+                    break;
+                default:
+                    fireStationIndex.add(fireStation);
+                    fireStationIndex.fireStations.add(fireStation);
+            }
+        });
+    }
+
+    private static String dataName(String address) {
+        return "Fire station at " + address;
+    }
 
     /**
      * Get a fire station number by address.
@@ -115,12 +255,207 @@ public class FireStationDao implements IFireStationDao{
      */
     @Override
     public int getFireStationNumber(String address) throws DataNotFoundException {
-        Optional<FireStation> fireStationResult = this.getFireStation(address);
-        if(fireStationResult.isPresent()){
-            return fireStationResult.get().getStation();
+        Optional<Integer> stationResult = getIndex().getStation(address);
+        if(stationResult.isPresent()){
+            return stationResult.get();
         } else {
             throw new DataNotFoundException("Fire station at address " + address);
         }
     }
 
+    /**
+     * Build the indexes of the data currently held by the datasource, if not already built.
+     */
+    @Override
+    public void buildIndex() {
+        getIndex();
+    }
+
+    /**
+     * Get the indexes of the fire stations currently held by the datasource.
+     * Indexes are rebuilt when the datasource fire stations list has been replaced (data (re)loaded).
+     *
+     * @return the fire station indexes.
+     */
+    private FireStationIndex getIndex() {
+        List<FireStation> fireStations = dataSource.getData().getFirestations();
+        FireStationIndex fireStationIndex = index;
+        if (fireStationIndex == null || fireStationIndex.fireStations != fireStations) {
+            fireStationIndex = rebuildIndex(fireStations);
+        }
+        return fireStationIndex;
+    }
+
+    private synchronized FireStationIndex rebuildIndex(List<FireStation> fireStations) {
+        if (index == null || index.fireStations != fireStations) {
+            index = new FireStationIndex(fireStations);
+        }
+        return index;
+    }
+
+    /**
+     * Case fold an address so that it can be used as an index key.
+     *
+     * @param address address to fold, may be null.
+     * @return the folded address.
+     */
+    private static String fold(String address) {
+        return address == null ? NULL_KEY : address.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Bidirectional station <-> address index, built from every mapping of the datasource :
+     *  - a case insensitive address -> mappings multimap, the first mapping of an address being the one
+     *    returned by {@link #getFireStation(String)} (an address may be covered by several stations).
+     *  - a station -> mappings multimap, mappings being kept in insertion order.
+     * Maps are read without locking, writers hold the index monitor. The address map holds immutable lists, replaced
+     * by updated copies. A station covers a large share of the addresses : its mappings are a sorted map on the
+     * sequence of the mappings, so that a mapping is replaced or removed without copying them.
+     * A mapping is replaced by one put per map, so that readers never miss a mapped address.
+     */
+    private static class FireStationIndex {
+        private final List<FireStation> fireStations;
+        private final Map<String, List<Mapping>> byAddress = new ConcurrentHashMap<>();
+        private final Map<Integer, ConcurrentNavigableMap<Long, Mapping>> byStation = new ConcurrentHashMap<>();
+        private long nextSequence;
+
+        FireStationIndex(List<FireStation> fireStations) {
+            this.fireStations = fireStations;
+            for (FireStation fireStation : fireStations) {
+                add(fireStation);
+            }
+        }
+
+        Optional<Mapping> getMapping(String address) {
+            List<Mapping> mappings = byAddress.get(fold(address));
+            return mappings == null ? Optional.empty() : Optional.of(mappings.get(0));
+        }
+
+        /**
+         * @return the mapping of a fire station held by the index, found by identity.
+         */
+        Mapping getMapping(FireStation fireStation) {
+            for (Mapping mapping : byAddress.getOrDefault(fold(fireStation.getAddress()), Collections.emptyList())) {
+                if (mapping.fireStation == fireStation) {
+                    return mapping;
+                }
+            }
+            throw new IllegalStateException("Fire station not indexed : " + fireStation.getAddress());
+        }
+
+        Optional<FireStation> getFireStation(String address) {
+            return getMapping(address).map(mapping -> mapping.fireStation);
+        }
+
+        Optional<Integer> getStation(String address) {
+            return getMapping(address).map(mapping -> mapping.station);
+        }
+
+        List<FireStation> getFireStations(String address) {
+            List<Mapping> mappings = byAddress.getOrDefault(fold(address), Collections.emptyList());
+            List<FireStation> addressFireStations = new ArrayList<>(mappings.size());
+            for (Mapping mapping : mappings) {
+                addressFireStations.add(mapping.fireStation);
+            }
+            return addressFireStations;
+        }
+
+        List<String> getAddresses(Integer station) {
+            Map<Long, Mapping> mappings = byStation.get(station);
+            if (mappings == null) {
+                return new ArrayList<>();
+            }
+            List<String> addresses = new ArrayList<>(mappings.size());
+            for (Mapping mapping : mappings.values()) {
+                addresses.add(mapping.address);
+            }
+            return addresses;
+        }
+
+        /**
+         * Add a mapping of an address to a station, after the mappings already held.
+         */
+        synchronized void add(FireStation fireStation) {
+            Mapping mapping = new Mapping(fireStation, nextSequence++);
+            byAddress.put(fold(mapping.address), with(byAddress.get(fold(mapping.address)), mapping));
+            addToStation(mapping);
+        }
+
+        /**
+         * Replace a mapping by the current values of a fire station, keeping its rank among the mappings of its address.
+         * The address is added to its new station before being removed from its previous one.
+         */
+        synchronized void replace(Mapping previousMapping, FireStation fireStation) {
+            boolean sameStation = previousMapping.station == fireStation.getStation();
+            Mapping mapping = new Mapping(fireStation, sameStation ? previousMapping.sequence : nextSequence++);
+            byAddress.put(fold(mapping.address), replaced(byAddress.get(fold(previousMapping.address)), previousMapping, mapping));
+            addToStation(mapping);
+            if (!sameStation) {
+                removeFromStation(previousMapping);
+            }
+        }
+
+        synchronized void remove(Mapping mapping) {
+            putOrRemove(byAddress, fold(mapping.address), without(byAddress.get(fold(mapping.address)), mapping));
+            removeFromStation(mapping);
+        }
+
+        private void addToStation(Mapping mapping) {
+            byStation.computeIfAbsent(mapping.station, station -> new ConcurrentSkipListMap<>()).put(mapping.sequence, mapping);
+        }
+
+        private void removeFromStation(Mapping mapping) {
+            Map<Long, Mapping> mappings = byStation.get(mapping.station);
+            if (mappings != null) {
+                mappings.remove(mapping.sequence);
+                if (mappings.isEmpty()) {
+                    byStation.remove(mapping.station);
+                }
+            }
+        }
+
+        private static <K> void putOrRemove(Map<K, List<Mapping>> map, K key, List<Mapping> mappings) {
+            if (mappings.isEmpty()) {
+                map.remove(key);
+            } else {
+                map.put(key, mappings);
+            }
+        }
+
+        private static List<Mapping> with(List<Mapping> mappings, Mapping mapping) {
+            List<Mapping> copy = mappings == null ? new ArrayList<>(1) : new ArrayList<>(mappings);
+            copy.add(mapping);
+            return Collections.unmodifiableList(copy);
+        }
+
+        private static List<Mapping> without(List<Mapping> mappings, Mapping mapping) {
+            List<Mapping> copy = new ArrayList<>(mappings);
+            copy.removeIf(m -> m == mapping);
+            return Collections.unmodifiableList(copy);
+        }
+
+        private static List<Mapping> replaced(List<Mapping> mappings, Mapping previousMapping, Mapping mapping) {
+            List<Mapping> copy = new ArrayList<>(mappings);
+            copy.replaceAll(m -> m == previousMapping ? mapping : m);
+            return Collections.unmodifiableList(copy);
+        }
+    }
+
+    /**
+     * Mapping of an address to a station, with the values it has been indexed with.
+     */
+    private static class Mapping {
+        private final String address;
+        private final int station;
+        private final FireStation fireStation;
+        /*Rank of the mapping in its station*/
+        private final long sequence;
+
+        Mapping(FireStation fireStation, long sequence) {
+            this.address = fireStation.getAddress();
+            this.station = fireStation.getStation();
+            this.fireStation = fireStation;
+            this.sequence = sequence;
+        }
+    }
 }
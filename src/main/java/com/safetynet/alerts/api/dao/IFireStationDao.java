@@ -3,6 +3,7 @@ package com.safetynet.alerts.api.dao;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +17,14 @@ public interface IFireStationDao {
      */
     public Optional<FireStation> getFireStation(final String address);
 
+    /**
+     * Get every fire station mapping of an address : an address may be covered by several fire stations.
+     *
+     * @param address address to which the fire stations are mapped.
+     * @return the fire station mappings, the first one being the mapping returned by {@link #getFireStation(String)}.
+     */
+    List<FireStation> getFireStations(String address);
+
     /**
      * Get the list of addresses covered by one fire station.
      *
@@ -48,6 +57,15 @@ public interface IFireStationDao {
      *  @throws DataAlreadyExistsException if fire station to create already exists at the given address.
      */
     public FireStation createFireStation(FireStation fireStationToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of fire station mappings at once.
+     *
+     * @param operation the mutation to apply to each fire station.
+     * @param fireStations fire stations to create or update, fire stations to delete (only their address is used).
+     * @return for each fire station, in the same order, the reason why it has not been mutated
+     * ({@link DataAlreadyExistsException} or {@link DataNotFoundException}), empty if it has been.
+     */
+    List<Optional<ServiceException>> mutateFireStations(DataMutationEvent.Operation operation, List<FireStation> fireStations);
     /**
      * Get a fire station number by address.
      *
@@ -0,0 +1,9 @@
+package com.safetynet.alerts.api.dao;
+
+public interface IIndexedDao {
+    /**
+     * Build the indexes of the data currently held by the datasource, if not already built.
+     * Called once data have been loaded so that the first requests do not pay for index building.
+     */
+    void buildIndex();
+}
@@ -2,9 +2,12 @@ package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface IMedicalRecordDao {
@@ -16,6 +19,13 @@ public interface IMedicalRecordDao {
      * @return the medical record if found.
      */
     public Optional<MedicalRecord> getMedicalRecord(final String firstName, final String lastName);
+    /**
+     * Get the medical records of several persons from a datasource.
+     *
+     * @param persons persons whose medical record is wanted.
+     * @return for each person, in the same order, its medical record if found.
+     */
+    public List<Optional<MedicalRecord>> getMedicalRecords(List<Person> persons);
     /**
      * Delete a person's medical record from a datasource.
      *
@@ -43,6 +53,15 @@ public interface IMedicalRecordDao {
      * @throws DataAlreadyExistsException if medical record already exists in datasource
      */
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of medical records at once.
+     *
+     * @param operation the mutation to apply to each medical record.
+     * @param medicalRecords medical records to create or update, medical records to delete (only their names are used).
+     * @return for each medical record, in the same order, the reason why it has not been mutated
+     * ({@link DataAlreadyExistsException} or {@link DataNotFoundException}), empty if it has been.
+     */
+    List<Optional<ServiceException>> mutateMedicalRecords(DataMutationEvent.Operation operation, List<MedicalRecord> medicalRecords);
     /**
      * Get the birthdate of a person.
      *
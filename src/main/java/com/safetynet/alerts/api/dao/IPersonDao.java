@@ -2,6 +2,7 @@ package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 
 import java.util.List;
@@ -46,6 +47,15 @@ public interface IPersonDao {
      *
      */
     Person createPerson(Person personToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of persons at once.
+     *
+     * @param operation the mutation to apply to each person.
+     * @param persons persons to create or update, persons to delete (only their names are used).
+     * @return for each person, in the same order, the reason why it has not been mutated
+     * ({@link DataAlreadyExistsException} or {@link DataNotFoundException}), empty if it has been.
+     */
+    List<Optional<ServiceException>> mutatePersons(DataMutationEvent.Operation operation, List<Person> persons);
     /**
      * Get a list of persons that live at a given address.
      *
@@ -1,26 +1,44 @@
 package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.SnapshotList;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataIllegalValueException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Component
+@ConditionalOnProperty(name = "datasource.medicalrecord.storage", havingValue = "heap", matchIfMissing = true)
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
-public class MedicalRecordDao implements IMedicalRecordDao{
+public class MedicalRecordDao implements IMedicalRecordDao, IIndexedDao {
 
     private final IAlertsDataSource dataSource;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    /*Index key of null values*/
+    private static final String NULL_KEY = "\0";
+
+    /*Name index on the medical records of the datasource, (re)built when the medical records list changes*/
+    private volatile MedicalRecordIndex index;
+
     /**
      * Get a person's medical record from a datasource.
      *
@@ -30,13 +48,23 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     @Override
     public Optional<MedicalRecord> getMedicalRecord(String firstName, String lastName) {
-        List<MedicalRecord> medicalRecords = dataSource.getData().getMedicalrecords();
-        Optional<MedicalRecord> medicalRecordResult =
-                medicalRecords.stream()
-                        .filter(m -> m.getFirstName().equalsIgnoreCase(firstName) &&
-                                m.getLastName().equalsIgnoreCase(lastName))
-                        .findFirst();
-        return medicalRecordResult;
+        return Optional.ofNullable(getIndex().get(firstName, lastName));
+    }
+
+    /**
+     * Get the medical records of several persons in one pass over the name index.
+     *
+     * @param persons persons whose medical record is wanted.
+     * @return for each person, in the same order, its medical record if found.
+     */
+    @Override
+    public List<Optional<MedicalRecord>> getMedicalRecords(List<Person> persons) {
+        MedicalRecordIndex medicalRecordIndex = getIndex();
+        List<Optional<MedicalRecord>> medicalRecords = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            medicalRecords.add(Optional.ofNullable(medicalRecordIndex.get(person.getFirstName(), person.getLastName())));
+        }
+        return medicalRecords;
     }
     /**
      * Delete a person's medical record from a datasource.
@@ -49,14 +77,14 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     @Override
     public void deleteMedicalRecord(String firstName, String lastName) throws DataNotFoundException {
-        MedicalRecord medicalRecord;
-        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(firstName, lastName);
-        if(medicalRecordResult.isPresent()){
-            medicalRecord = medicalRecordResult.get();
-            dataSource.getData().getMedicalrecords().remove(medicalRecord);
-        } else {
-            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
+        MutationChunk<MedicalRecord> chunk;
+        MedicalRecordIndex medicalRecordIndex = getIndex();
+        synchronized (medicalRecordIndex) {
+            chunk = newChunk(medicalRecordIndex);
+            delete(medicalRecordIndex, firstName, lastName, chunk);
+            applyPending(chunk);
         }
+        chunk.await();
     }
     /**
      * Update an existing person's medical record into a datasource.
@@ -68,15 +96,14 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     public MedicalRecord updateMedicalRecord(MedicalRecord medicalRecordToUpdate) throws DataNotFoundException {
         MedicalRecord medicalRecord;
-        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(medicalRecordToUpdate.getFirstName(), medicalRecordToUpdate.getLastName());
-        if(medicalRecordResult.isPresent()){
-            medicalRecord = medicalRecordResult.get();
-            medicalRecord.setBirthdate(medicalRecordToUpdate.getBirthdate());
-            medicalRecord.setMedications(medicalRecordToUpdate.getMedications());
-            medicalRecord.setAllergies(medicalRecordToUpdate.getAllergies());
-        } else {
-            throw new DataNotFoundException("Medical record of " + medicalRecordToUpdate.getFirstName() + " " + medicalRecordToUpdate.getLastName());
+        MutationChunk<MedicalRecord> chunk;
+        MedicalRecordIndex medicalRecordIndex = getIndex();
+        synchronized (medicalRecordIndex) {
+            chunk = newChunk(medicalRecordIndex);
+            medicalRecord = update(medicalRecordIndex, medicalRecordToUpdate, chunk);
+            applyPending(chunk);
         }
+        chunk.await();
         return medicalRecord;
     }
     /**
@@ -88,14 +115,139 @@ public class MedicalRecordDao implements IMedicalRecordDao{
      */
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException {
         MedicalRecord medicalRecord;
+        MutationChunk<MedicalRecord> chunk;
+        MedicalRecordIndex medicalRecordIndex = getIndex();
+        synchronized (medicalRecordIndex) {
+            chunk = newChunk(medicalRecordIndex);
+            medicalRecord = create(medicalRecordIndex, medicalRecordToCreate, chunk);
+        }
+        chunk.await();
+        return medicalRecord;
+    }
+
+    /**
+     * Create, update or delete a chunk of medical records while holding the index lock once.
+     * Mutations are committed together once the lock has been released.
+     *
+     * @param operation the mutation to apply to each medical record.
+     * @param medicalRecords medical records to create or update, medical records to delete (only their names are used).
+     * @return for each medical record, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutateMedicalRecords(DataMutationEvent.Operation operation, List<MedicalRecord> medicalRecords) {
+        List<Optional<ServiceException>> results = new ArrayList<>(medicalRecords.size());
+        MutationChunk<MedicalRecord> chunk;
+        MedicalRecordIndex medicalRecordIndex = getIndex();
+        synchronized (medicalRecordIndex) {
+            chunk = newChunk(medicalRecordIndex);
+            for (MedicalRecord medicalRecord : medicalRecords) {
+                try {
+                    switch (operation) {
+                        case CREATE:
+                            create(medicalRecordIndex, medicalRecord, chunk);
+                            break;
+                        case UPDATE:
+                            update(medicalRecordIndex, medicalRecord, chunk);
+                            break;
+                        default:
+                            delete(medicalRecordIndex, medicalRecord.getFirstName(), medicalRecord.getLastName(), chunk);
+                    }
+                    results.add(Optional.empty());
+                } catch (DataNotFoundException | DataAlreadyExistsException e) {
+                    results.add(Optional.of(e));
+                }
+                chunk.next();
+            }
+            applyPending(chunk);
+        }
+        chunk.await(results);
+        return results;
+    }
+
+    /*Mutations, to be called while holding the index lock : they are published through 'chunk'*/
+
+    /*Deleted medical records are removed from the index, then from the datasource list by applyPending*/
+    private void delete(MedicalRecordIndex medicalRecordIndex, String firstName, String lastName, MutationChunk<MedicalRecord> chunk) throws DataNotFoundException {
+        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(firstName, lastName);
+        if(medicalRecordResult.isPresent()){
+            MedicalRecord medicalRecord = medicalRecordResult.get();
+            medicalRecordIndex.remove(medicalRecord);
+            chunk.deleted(medicalRecord, dataName(medicalRecord));
+        } else {
+            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
+        }
+    }
+
+    /*Updated medical records are replaced in the index, then in the datasource list by applyPending*/
+    private MedicalRecord update(MedicalRecordIndex medicalRecordIndex, MedicalRecord medicalRecordToUpdate, MutationChunk<MedicalRecord> chunk) throws DataNotFoundException {
+        Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(medicalRecordToUpdate.getFirstName(), medicalRecordToUpdate.getLastName());
+        if(medicalRecordResult.isPresent()){
+            MedicalRecord previousMedicalRecord = medicalRecordResult.get();
+            /*medical records are read without locking : the updated medical record is a copy replacing the previous one*/
+            MedicalRecord medicalRecord = new MedicalRecord(previousMedicalRecord);
+            medicalRecord.setBirthdate(medicalRecordToUpdate.getBirthdate());
+            medicalRecord.setMedications(medicalRecordToUpdate.getMedications());
+            medicalRecord.setAllergies(medicalRecordToUpdate.getAllergies());
+            dataSource.canonicalize(medicalRecord);
+            medicalRecordIndex.replace(previousMedicalRecord, medicalRecord);
+            chunk.updated(previousMedicalRecord, medicalRecord, dataName(medicalRecord));
+            return medicalRecord;
+        } else {
+            throw new DataNotFoundException("Medical record of " + medicalRecordToUpdate.getFirstName() + " " + medicalRecordToUpdate.getLastName());
+        }
+    }
+
+    private MedicalRecord create(MedicalRecordIndex medicalRecordIndex, MedicalRecord medicalRecordToCreate, MutationChunk<MedicalRecord> chunk) throws DataAlreadyExistsException {
         Optional<MedicalRecord> medicalRecordResult = getMedicalRecord(medicalRecordToCreate.getFirstName(), medicalRecordToCreate.getLastName());
         if (medicalRecordResult.isEmpty()) {
-            medicalRecord = new MedicalRecord(medicalRecordToCreate);
+            MedicalRecord medicalRecord = new MedicalRecord(medicalRecordToCreate);
+            dataSource.canonicalize(medicalRecord);
             dataSource.getData().getMedicalrecords().add(medicalRecord);
+            medicalRecordIndex.add(medicalRecord);
+            chunk.publish(DataMutationEvent.Operation.CREATE, medicalRecord, null, dataName(medicalRecord));
+            return medicalRecord;
         } else {
             throw new DataAlreadyExistsException("Medical record of " + medicalRecordToCreate.getFirstName() + " " + medicalRecordToCreate.getLastName());
         }
-        return medicalRecord;
+    }
+
+    /*Replace updated medical records and remove deleted medical records from the datasource list in one copy, by identity, then publish them in order*/
+    private void applyPending(MutationChunk<MedicalRecord> chunk) {
+        if (chunk.hasUpdates()) {
+            dataSource.getData().getMedicalrecords().replaceAll(chunk::latest);
+        }
+        if (chunk.hasDeletions()) {
+            dataSource.getData().getMedicalrecords().removeIf(chunk::isDeleted);
+        }
+        chunk.publishPending();
+    }
+
+    /**
+     * Start the mutations of a chunk of medical records, shall be called while holding the index lock.
+     * A mutation that can not be published is undone in the index and in the datasource list.
+     */
+    private MutationChunk<MedicalRecord> newChunk(MedicalRecordIndex medicalRecordIndex) {
+        return new MutationChunk<>(this, eventPublisher, MedicalRecord::new, mutation -> {
+            List<MedicalRecord> medicalRecords = dataSource.getData().getMedicalrecords();
+            MedicalRecord medicalRecord = mutation.getEntity();
+            switch (mutation.getOperation()) {
+                case CREATE:
+                    medicalRecordIndex.remove(medicalRecord);
+                    medicalRecords.removeIf(m -> m == medicalRecord);
+                    break;
+                case UPDATE:
+                    medicalRecordIndex.replace(medicalRecord, mutation.getPreviousEntity());
+                    medicalRecords.replaceAll(m -> m == medicalRecord ? mutation.getPreviousEntity() : m);
+                    break;
+                default:
+                    medicalRecordIndex.add(medicalRecord);
+                    medicalRecords.add(medicalRecord);
+            }
+        });
+    }
+
+    private static String dataName(MedicalRecord medicalRecord) {
+        return "Medical record of " + medicalRecord.getFirstName() + " " + medicalRecord.getLastName();
     }
 
     /**
@@ -117,4 +269,84 @@ public class MedicalRecordDao implements IMedicalRecordDao{
         }
     }
 
+    /**
+     * Build the index of the data currently held by the datasource, if not already built.
+     */
+    @Override
+    public void buildIndex() {
+        getIndex();
+    }
+
+    /**
+     * Get the name index of the medical records currently held by the datasource.
+     * Index is rebuilt when the datasource medical records list has been replaced (data (re)loaded).
+     *
+     * @return the medical record index.
+     */
+    private MedicalRecordIndex getIndex() {
+        List<MedicalRecord> medicalRecords = dataSource.getData().getMedicalrecords();
+        MedicalRecordIndex medicalRecordIndex = index;
+        if (medicalRecordIndex == null || medicalRecordIndex.medicalRecords != medicalRecords) {
+            medicalRecordIndex = rebuildIndex(medicalRecords);
+        }
+        return medicalRecordIndex;
+    }
+
+    private synchronized MedicalRecordIndex rebuildIndex(List<MedicalRecord> medicalRecords) {
+        if (index == null || index.medicalRecords != medicalRecords) {
+            index = new MedicalRecordIndex(medicalRecords);
+        }
+        return index;
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return fold(firstName) + '\n' + fold(lastName);
+    }
+
+    private static String fold(String value) {
+        return value == null ? NULL_KEY : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Case folded (firstName,lastName) hash index on medical records.
+     * Buckets are {@link SnapshotList}, keeping the medical records of a name in insertion order : the first one is the
+     * medical record of the name, the next one takes its place once it is deleted.
+     * Index is read without locking, writers hold the index monitor.
+     */
+    private static class MedicalRecordIndex {
+        private final List<MedicalRecord> medicalRecords;
+        private final Map<String, List<MedicalRecord>> byName = new ConcurrentHashMap<>();
+
+        MedicalRecordIndex(List<MedicalRecord> medicalRecords) {
+            this.medicalRecords = medicalRecords;
+            medicalRecords.forEach(this::add);
+        }
+
+        MedicalRecord get(String firstName, String lastName) {
+            List<MedicalRecord> bucket = byName.get(nameKey(firstName, lastName));
+            return bucket == null ? null : bucket.stream().findFirst().orElse(null);
+        }
+
+        synchronized void add(MedicalRecord medicalRecord) {
+            byName.computeIfAbsent(nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()), k -> new SnapshotList<>()).add(medicalRecord);
+        }
+
+        synchronized void replace(MedicalRecord previousMedicalRecord, MedicalRecord medicalRecord) {
+            List<MedicalRecord> bucket = byName.get(nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+            if (bucket != null) {
+                bucket.replaceAll(m -> m == previousMedicalRecord ? medicalRecord : m);
+            }
+        }
+
+        synchronized void remove(MedicalRecord medicalRecord) {
+            String nameKey = nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName());
+            List<MedicalRecord> bucket = byName.get(nameKey);
+            if (bucket != null) {
+                bucket.removeIf(m -> m == medicalRecord);
+                if (bucket.isEmpty()) {
+                    byName.remove(nameKey);
+                }
+            }
+        }
+    }
 }
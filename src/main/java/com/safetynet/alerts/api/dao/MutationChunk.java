@@ -0,0 +1,244 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.exception.DataNotCommittedException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mutations applied by a DAO to a chunk of entities (or to a single entity) while holding its lock.
+ *
+ *  - mutations are published to the datasource listeners once applied : at once, or once the whole chunk has been
+ *    applied for the updates and deletions that the DAO replaces or removes from the datasource list in one copy.
+ *  - a mutation that can not be published (a listener, e.g. the mutation journal, failed to accept it) is rolled back
+ *    by the DAO along with the following mutations of the chunk, then reported as not committed. The inverse
+ *    mutations are published as rollbacks.
+ *  - commits of the published mutations are awaited once the DAO lock has been released : a mutation whose commit
+ *    failed is reported as not committed, it is kept in memory as the mutations committed after it may depend on it.
+ *
+ * @param <T> type of the mutated entities.
+ */
+@Log4j2
+class MutationChunk<T> {
+
+    /**
+     * Mutation of an entity of the chunk.
+     */
+    static final class Mutation<T> {
+        private final int item;
+        private final DataMutationEvent.Operation operation;
+        private final T entity;
+        private final T previousEntity;
+        private final String dataName;
+
+        private Mutation(int item, DataMutationEvent.Operation operation, T entity, T previousEntity, String dataName) {
+            this.item = item;
+            this.operation = operation;
+            this.entity = entity;
+            this.previousEntity = previousEntity;
+            this.dataName = dataName;
+        }
+
+        DataMutationEvent.Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return the entity as held by the DAO once created or updated, the deleted entity.
+         */
+        T getEntity() {
+            return entity;
+        }
+
+        /**
+         * @return the entity as held by the DAO before update or delete, null on create.
+         */
+        T getPreviousEntity() {
+            return previousEntity;
+        }
+    }
+
+    private final Object source;
+    private final ApplicationEventPublisher eventPublisher;
+    /*Copy of an entity held by the DAO, published to the listeners*/
+    private final UnaryOperator<T> copy;
+    /*Undo a mutation applied by the DAO*/
+    private final Consumer<Mutation<T>> rollback;
+
+    /*Item of the chunk being mutated*/
+    private int item;
+
+    /*Updates and deletions applied to the DAO index, to be applied to the datasource list then published*/
+    private final List<Mutation<T>> pending = new ArrayList<>();
+    private final Map<T, T> replacements = new IdentityHashMap<>();
+    private final Set<T> deleted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final List<DataMutationEvent> events = new ArrayList<>();
+    private final List<Mutation<T>> publishedMutations = new ArrayList<>();
+    private final List<Mutation<T>> rolledBackMutations = new ArrayList<>();
+    private UncheckedIOException failure;
+
+    /**
+     * @param source DAO that mutates the datasource.
+     * @param eventPublisher publisher of the mutations.
+     * @param copy copy of an entity held by the DAO.
+     * @param rollback undo of a mutation applied by the DAO, called while holding its lock.
+     */
+    MutationChunk(Object source, ApplicationEventPublisher eventPublisher, UnaryOperator<T> copy, Consumer<Mutation<T>> rollback) {
+        this.source = source;
+        this.eventPublisher = eventPublisher;
+        this.copy = copy;
+        this.rollback = rollback;
+    }
+
+    /**
+     * Move to the next item of the chunk.
+     */
+    void next() {
+        item++;
+    }
+
+    /**
+     * Publish a mutation applied to the DAO, rolled back if it can not be published.
+     */
+    void publish(DataMutationEvent.Operation operation, T entity, T previousEntity, String dataName) {
+        publish(List.of(new Mutation<>(item, operation, entity, previousEntity, dataName)));
+    }
+
+    /**
+     * Record an update applied to the DAO index, published by {@link #publishPending()}.
+     */
+    void updated(T previousEntity, T entity, String dataName) {
+        replacements.put(previousEntity, entity);
+        pending.add(new Mutation<>(item, DataMutationEvent.Operation.UPDATE, entity, previousEntity, dataName));
+    }
+
+    /**
+     * Record a deletion applied to the DAO index, published by {@link #publishPending()}.
+     */
+    void deleted(T entity, String dataName) {
+        deleted.add(entity);
+        pending.add(new Mutation<>(item, DataMutationEvent.Operation.DELETE, entity, entity, dataName));
+    }
+
+    boolean hasUpdates() {
+        return !replacements.isEmpty();
+    }
+
+    boolean hasDeletions() {
+        return !deleted.isEmpty();
+    }
+
+    /**
+     * @return the last update of an entity, the entity itself if not updated : an entity may be updated several times.
+     */
+    T latest(T entity) {
+        T latestEntity = entity;
+        for (T updatedEntity = replacements.get(entity); updatedEntity != null; updatedEntity = replacements.get(updatedEntity)) {
+            latestEntity = updatedEntity;
+        }
+        return latestEntity;
+    }
+
+    boolean isDeleted(T entity) {
+        return deleted.contains(entity);
+    }
+
+    /**
+     * Publish the recorded updates and deletions, once applied to the datasource list.
+     */
+    void publishPending() {
+        publish(pending);
+    }
+
+    /**
+     * Wait until the published mutation of a single entity is committed, shall be called once the DAO lock has been
+     * released.
+     *
+     * @throws UncheckedIOException if the mutation has been rolled back or could not be committed.
+     */
+    void await() {
+        if (failure != null) {
+            throw failure;
+        }
+        events.forEach(DataMutationEvent::awaitCommits);
+    }
+
+    /**
+     * Wait until the published mutations of the chunk are committed, shall be called once the DAO lock has been
+     * released.
+     *
+     * @param results results of the items of the chunk : the result of an item whose mutation has been rolled back
+     *                or could not be committed is replaced by a {@link DataNotCommittedException}.
+     */
+    void await(List<Optional<ServiceException>> results) {
+        for (Mutation<T> mutation : rolledBackMutations) {
+            results.set(mutation.item, Optional.of(new DataNotCommittedException(mutation.dataName)));
+        }
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                events.get(i).awaitCommits();
+            } catch (UncheckedIOException e) {
+                Mutation<T> mutation = publishedMutations.get(i);
+                log.error("Mutation of " + mutation.dataName + " not committed", e);
+                results.set(mutation.item, Optional.of(new DataNotCommittedException(mutation.dataName)));
+            }
+        }
+    }
+
+    /**
+     * Publish mutations in order. From the first one that can not be published, mutations are rolled back in reverse
+     * order.
+     */
+    private void publish(List<Mutation<T>> mutations) {
+        for (int i = 0; i < mutations.size(); i++) {
+            Mutation<T> mutation = mutations.get(i);
+            T entity = copy.apply(mutation.entity);
+            T previousEntity = mutation.operation == DataMutationEvent.Operation.DELETE ? entity
+                    : mutation.previousEntity == null ? null : copy.apply(mutation.previousEntity);
+            DataMutationEvent event = new DataMutationEvent(source, mutation.operation, entity, previousEntity);
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (UncheckedIOException e) {
+                rollBack(mutations.subList(i, mutations.size()), e);
+                return;
+            }
+            events.add(event);
+            publishedMutations.add(mutation);
+        }
+    }
+
+    private void rollBack(List<Mutation<T>> mutations, UncheckedIOException cause) {
+        if (failure == null) {
+            failure = cause;
+            log.error("Mutations rolled back : they could not be published", cause);
+        }
+        for (int i = mutations.size() - 1; i >= 0; i--) {
+            Mutation<T> mutation = mutations.get(i);
+            rollback.accept(mutation);
+            T entity = copy.apply(mutation.entity);
+            switch (mutation.operation) {
+                case CREATE:
+                    eventPublisher.publishEvent(new DataMutationEvent(source, DataMutationEvent.Operation.DELETE, entity, entity, true));
+                    break;
+                case UPDATE:
+                    eventPublisher.publishEvent(new DataMutationEvent(source, DataMutationEvent.Operation.UPDATE, copy.apply(mutation.previousEntity), entity, true));
+                    break;
+                default:
+                    eventPublisher.publishEvent(new DataMutationEvent(source, DataMutationEvent.Operation.CREATE, entity, null, true));
+            }
+            rolledBackMutations.add(mutation);
+        }
+    }
+}
@@ -0,0 +1,841 @@
+package com.safetynet.alerts.api.dao;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.LockFreeList;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * Off-heap implementation of {@link IMedicalRecordDao}, enabled by "datasource.medicalrecord.storage=offheap".
+ *
+ * Medical records are encoded into a direct buffer, out of the reach of the garbage collector :
+ *  - record layout : byte length, birthdate as its UTC epoch day (the Json date format is parsed in UTC),
+ *    first name and last name, then medications and allergies as a count followed by the strings.
+ *    Strings are stored as their UTF-8 byte length followed by their bytes, -1 stands for null.
+ *  - records are appended, never overwritten : an update appends the new record, a delete only drops the position
+ *    of the record. Replaced records are dropped by a compaction once they take more than half of the buffer.
+ *  - records are found through an open addressing table of the hashes of their case folded names, whose hits are
+ *    verified against the names of the record. Every record of a name is in the table : the first one (lowest
+ *    position) is the record of the name, the next one takes its place once it is deleted.
+ * Medical records read are decoded on each read : names and birthdate at once, medications and allergies lazily,
+ * only once an endpoint projects them (e.g. GET /fire, but not GET /childAlert).
+ *
+ * Once built, the store replaces the medical records list of the datasource by a read only view of the store :
+ * snapshots and the journal compaction read the records from it.
+ * Reads do not lock : each mutation publishes the buffer, the offsets and the record count it wrote at once, readers
+ * read them once so that offsets are always read from the buffer they were written to. Mutations hold the DAO monitor.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.medicalrecord.storage", havingValue = "offheap")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OffHeapMedicalRecordDao implements IMedicalRecordDao, IIndexedDao {
+
+    private final IAlertsDataSource dataSource;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /*Key of null values*/
+    private static final String NULL_KEY = "\0";
+
+    /*Count stored for null lists and strings, epoch day stored for a null birthdate*/
+    private static final int NULL_COUNT = -1;
+    private static final int NULL_EPOCH_DAY = Integer.MIN_VALUE;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /*Offsets of the records are stored by pages of PAGE_SIZE positions*/
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /*Size of the store under which replaced records are never compacted*/
+    private static final int COMPACTION_MIN_BYTES = 1 << 20;
+
+    /*Medical records of the datasource, (re)built when the datasource medical records list changes or is compacted*/
+    private volatile RecordStore store;
+
+    /*View of the store installed as the datasource medical records list*/
+    private final MedicalRecordList view = new MedicalRecordList();
+
+    /**
+     * Get a person's medical record from a datasource.
+     *
+     * @param firstName first name of the person.
+     * @param lastName last name of the person.
+     * @return the medical record if found.
+     */
+    @Override
+    public Optional<MedicalRecord> getMedicalRecord(String firstName, String lastName) {
+        Records records = getStore().records;
+        return Optional.ofNullable(records.decode(records.find(nameKey(firstName, lastName))));
+    }
+
+    /**
+     * Get the medical records of several persons.
+     *
+     * @param persons persons whose medical record is wanted.
+     * @return for each person, in the same order, its medical record if found.
+     */
+    @Override
+    public List<Optional<MedicalRecord>> getMedicalRecords(List<Person> persons) {
+        Records records = getStore().records;
+        List<Optional<MedicalRecord>> medicalRecords = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            medicalRecords.add(Optional.ofNullable(records.decode(records.find(nameKey(person.getFirstName(), person.getLastName())))));
+        }
+        return medicalRecords;
+    }
+
+    /**
+     * Delete a person's medical record from a datasource.
+     *
+     * @param firstName first name of the person.
+     * @param lastName last name of the person.
+     * @throws DataNotFoundException if medical record does not exist in the datasource. (No medical record
+     * belonging to the given person has been found).
+     *
+     */
+    @Override
+    public void deleteMedicalRecord(String firstName, String lastName) throws DataNotFoundException {
+        MutationChunk<MedicalRecord> chunk;
+        synchronized (this) {
+            RecordStore recordStore = getStore();
+            chunk = newChunk(recordStore);
+            delete(recordStore, firstName, lastName, chunk);
+            compactIfSparse(recordStore);
+        }
+        chunk.await();
+    }
+
+    /**
+     * Update an existing person's medical record into a datasource.
+     *
+     * @param medicalRecordToUpdate medical record to update.
+     * @return updated medical record
+     * @throws DataNotFoundException if medical record does not exist in the datasource. (No medical record
+     *           belonging to the given person has been found).
+     */
+    @Override
+    public MedicalRecord updateMedicalRecord(MedicalRecord medicalRecordToUpdate) throws DataNotFoundException {
+        MedicalRecord medicalRecord;
+        MutationChunk<MedicalRecord> chunk;
+        synchronized (this) {
+            RecordStore recordStore = getStore();
+            chunk = newChunk(recordStore);
+            medicalRecord = update(recordStore, medicalRecordToUpdate, chunk);
+            compactIfSparse(recordStore);
+        }
+        chunk.await();
+        return medicalRecord;
+    }
+
+    /**
+     * Create a person's medical record into a datasource.
+     *
+     * @param medicalRecordToCreate medical record to create.
+     * @return created medical record.
+     * @throws DataAlreadyExistsException if medical record already exists in datasource.
+     */
+    @Override
+    public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException {
+        MedicalRecord medicalRecord;
+        MutationChunk<MedicalRecord> chunk;
+        synchronized (this) {
+            RecordStore recordStore = getStore();
+            chunk = newChunk(recordStore);
+            medicalRecord = create(recordStore, medicalRecordToCreate, chunk);
+        }
+        chunk.await();
+        return medicalRecord;
+    }
+
+    /**
+     * Create, update or delete a chunk of medical records while holding the DAO monitor once.
+     * Mutations are committed together once the monitor has been released.
+     *
+     * @param operation the mutation to apply to each medical record.
+     * @param medicalRecords medical records to create or update, medical records to delete (only their names are used).
+     * @return for each medical record, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutateMedicalRecords(DataMutationEvent.Operation operation, List<MedicalRecord> medicalRecords) {
+        List<Optional<ServiceException>> results = new ArrayList<>(medicalRecords.size());
+        MutationChunk<MedicalRecord> chunk;
+        synchronized (this) {
+            RecordStore recordStore = getStore();
+            chunk = newChunk(recordStore);
+            for (MedicalRecord medicalRecord : medicalRecords) {
+                try {
+                    switch (operation) {
+                        case CREATE:
+                            create(recordStore, medicalRecord, chunk);
+                            break;
+                        case UPDATE:
+                            update(recordStore, medicalRecord, chunk);
+                            break;
+                        default:
+                            delete(recordStore, medicalRecord.getFirstName(), medicalRecord.getLastName(), chunk);
+                    }
+                    results.add(Optional.empty());
+                } catch (DataNotFoundException | DataAlreadyExistsException e) {
+                    results.add(Optional.of(e));
+                }
+                chunk.next();
+            }
+            compactIfSparse(recordStore);
+        }
+        chunk.await(results);
+        return results;
+    }
+
+    /*Mutations, to be called while holding the DAO monitor : they are published through 'chunk'*/
+
+    private void delete(RecordStore recordStore, String firstName, String lastName, MutationChunk<MedicalRecord> chunk) throws DataNotFoundException {
+        int position = recordStore.records.find(nameKey(firstName, lastName));
+        if (position >= 0) {
+            MedicalRecord deletedMedicalRecord = recordStore.records.decode(position);
+            recordStore.delete(position);
+            chunk.publish(DataMutationEvent.Operation.DELETE, deletedMedicalRecord, deletedMedicalRecord, dataName(deletedMedicalRecord));
+        } else {
+            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
+        }
+    }
+
+    private MedicalRecord update(RecordStore recordStore, MedicalRecord medicalRecordToUpdate, MutationChunk<MedicalRecord> chunk) throws DataNotFoundException {
+        int position = recordStore.records.find(nameKey(medicalRecordToUpdate.getFirstName(), medicalRecordToUpdate.getLastName()));
+        if (position >= 0) {
+            MedicalRecord previousMedicalRecord = recordStore.records.decode(position);
+            MedicalRecord medicalRecord = new MedicalRecord(medicalRecordToUpdate);
+            /*names are kept as stored*/
+            medicalRecord.setFirstName(previousMedicalRecord.getFirstName());
+            medicalRecord.setLastName(previousMedicalRecord.getLastName());
+            recordStore.replace(position, medicalRecord);
+            MedicalRecord updatedMedicalRecord = recordStore.records.decode(position);
+            chunk.publish(DataMutationEvent.Operation.UPDATE, updatedMedicalRecord, previousMedicalRecord, dataName(updatedMedicalRecord));
+            return updatedMedicalRecord;
+        } else {
+            throw new DataNotFoundException("Medical record of " + medicalRecordToUpdate.getFirstName() + " " + medicalRecordToUpdate.getLastName());
+        }
+    }
+
+    private MedicalRecord create(RecordStore recordStore, MedicalRecord medicalRecordToCreate, MutationChunk<MedicalRecord> chunk) throws DataAlreadyExistsException {
+        if (recordStore.records.find(nameKey(medicalRecordToCreate.getFirstName(), medicalRecordToCreate.getLastName())) < 0) {
+            int position = recordStore.append(medicalRecordToCreate);
+            recordStore.publish();
+            MedicalRecord medicalRecord = recordStore.records.decode(position);
+            chunk.publish(DataMutationEvent.Operation.CREATE, medicalRecord, null, dataName(medicalRecord));
+            return medicalRecord;
+        } else {
+            throw new DataAlreadyExistsException("Medical record of " + medicalRecordToCreate.getFirstName() + " " + medicalRecordToCreate.getLastName());
+        }
+    }
+
+    /**
+     * Get the birthdate of a person.
+     *
+     * @param firstName first name of the person.
+     * @param lastName last name of the person.
+     * @return birthdate the person
+     * @throws DataNotFoundException if medical record of the person does not exist in the datasource,
+     */
+    @Override
+    public Date getPersonBirthdate(String firstName, String lastName) throws DataNotFoundException {
+        Optional<MedicalRecord> medicalRecordResult = this.getMedicalRecord(firstName, lastName);
+        if (medicalRecordResult.isPresent()) {
+            return medicalRecordResult.get().getBirthdate();
+        } else {
+            throw new DataNotFoundException("Medical record of " + firstName + " " + lastName);
+        }
+    }
+
+    /**
+     * Start the mutations of a chunk of medical records, shall be called while holding the DAO monitor.
+     * A mutation that can not be published is undone by the inverse mutation of the store, published at once.
+     * Records are decoded for each mutation : they are published without being copied.
+     */
+    private MutationChunk<MedicalRecord> newChunk(RecordStore recordStore) {
+        return new MutationChunk<>(this, eventPublisher, UnaryOperator.identity(), mutation -> {
+            MedicalRecord medicalRecord = mutation.getEntity();
+            int position = recordStore.records.find(nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+            switch (mutation.getOperation()) {
+                case CREATE:
+                    recordStore.delete(position);
+                    break;
+                case UPDATE:
+                    recordStore.replace(position, mutation.getPreviousEntity());
+                    break;
+                default:
+                    recordStore.append(medicalRecord);
+                    recordStore.publish();
+            }
+        });
+    }
+
+    private static String dataName(MedicalRecord medicalRecord) {
+        return "Medical record of " + medicalRecord.getFirstName() + " " + medicalRecord.getLastName();
+    }
+
+    /**
+     * Build the store of the data currently held by the datasource, if not already built.
+     */
+    @Override
+    public void buildIndex() {
+        getStore();
+    }
+
+    /**
+     * Get the store of the medical records currently held by the datasource.
+     * Store is rebuilt when the datasource medical records list has been replaced (data (re)loaded).
+     *
+     * @return the medical record store.
+     */
+    private RecordStore getStore() {
+        RecordStore recordStore = store;
+        if (recordStore == null || dataSource.getData().getMedicalrecords() != view) {
+            recordStore = rebuildStore();
+        }
+        return recordStore;
+    }
+
+    private synchronized RecordStore rebuildStore() {
+        IAlertsDataSource.Data data = dataSource.getData();
+        if (store == null || data.getMedicalrecords() != view) {
+            RecordStore recordStore = new RecordStore(Math.max(1024, data.getMedicalrecords().size() * 2));
+            data.getMedicalrecords().forEach(recordStore::append);
+            recordStore.publish();
+            store = recordStore;
+            /*the datasource no longer holds the decoded records*/
+            data.setMedicalrecords(view);
+        }
+        return store;
+    }
+
+    /**
+     * Copy the live records to a new store once replaced or deleted records take more than half of the store,
+     * shall be called while holding the DAO monitor.
+     */
+    private void compactIfSparse(RecordStore recordStore) {
+        if (recordStore.used >= COMPACTION_MIN_BYTES && recordStore.garbage > recordStore.used / 2) {
+            RecordStore compactedStore = new RecordStore(recordStore.capacity());
+            int count = recordStore.count;
+            for (int position = 0; position < count; position++) {
+                if (recordStore.offset(position) >= 0) {
+                    compactedStore.copy(recordStore, position);
+                }
+            }
+            compactedStore.publish();
+            store = compactedStore;
+        }
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return fold(firstName) + '\n' + fold(lastName);
+    }
+
+    private static String fold(String value) {
+        return value == null ? NULL_KEY : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records published by a mutation : the buffer, the offsets of the records in that buffer and the record count.
+     * Offsets are paged and a page is copied before one of its offsets is overwritten, offsets appended past the record
+     * count are not read : published offsets never change. Removals from the name table are seen at once, a record
+     * being deleted is then not found.
+     */
+    private static class Records {
+        private final ByteBuffer buffer;
+        private final int[][] offsetPages;
+        private final int count;
+        private final int deleted;
+        private final NameTable table;
+
+        Records(RecordStore recordStore) {
+            this.buffer = recordStore.buffer;
+            this.offsetPages = recordStore.offsetPages;
+            this.count = recordStore.count;
+            this.deleted = recordStore.deleted;
+            this.table = recordStore.table;
+        }
+
+        /**
+         * @return the offset of the record of a position, -1 once deleted.
+         */
+        int offset(int position) {
+            return offsetPages[position >>> PAGE_BITS][position & PAGE_MASK];
+        }
+
+        /**
+         * Records of a name are not stored in position order along the probe sequence (removed slots are reused) :
+         * the whole probe sequence is scanned.
+         *
+         * @return the position of the first record of a case folded name, -1 if none.
+         */
+        int find(String nameKey) {
+            int hash = RecordStore.hash(nameKey);
+            int mask = table.positions.length - 1;
+            int firstPosition = -1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int slotPosition = table.positions[slot];
+                if (slotPosition == NameTable.FREE) {
+                    return firstPosition;
+                }
+                if (slotPosition > 0 && table.hashes[slot] == hash) {
+                    int position = slotPosition - 1;
+                    if (position < count && (firstPosition < 0 || position < firstPosition) && offset(position) >= 0
+                            && RecordStore.nameKey(buffer, offset(position)).equals(nameKey)) {
+                        firstPosition = position;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Decode a record : names and birthdate, medications and allergies being decoded on first access.
+         *
+         * @return the record at the given position, null if position is -1 or the record has been deleted.
+         */
+        MedicalRecord decode(int position) {
+            if (position < 0) {
+                return null;
+            }
+            int offset = offset(position);
+            if (offset < 0) {
+                return null;
+            }
+            ByteBuffer reader = buffer.duplicate();
+            reader.position(offset + Integer.BYTES);
+            MedicalRecord medicalRecord = new MedicalRecord();
+            int epochDay = reader.getInt();
+            medicalRecord.setBirthdate(epochDay == NULL_EPOCH_DAY ? null : new Date(epochDay * MILLIS_PER_DAY));
+            medicalRecord.setFirstName(RecordStore.readString(reader));
+            medicalRecord.setLastName(RecordStore.readString(reader));
+            medicalRecord.setMedications(RecordStore.readList(buffer, reader));
+            medicalRecord.setAllergies(RecordStore.readList(buffer, reader));
+            return medicalRecord;
+        }
+    }
+
+    /**
+     * Medical records encoded into a direct buffer, their positions in insertion order and the name hash table.
+     * Written while holding the DAO monitor, read through the last published {@link Records}. The buffer is replaced
+     * by a larger copy when full.
+     */
+    private static class RecordStore {
+        private ByteBuffer buffer;
+        /*Bytes written, bytes of replaced or deleted records*/
+        private int used;
+        private int garbage;
+
+        /*Offset of the record of each position, -1 once deleted*/
+        private int[][] offsetPages = new int[16][];
+        /*Positions written*/
+        private int count;
+        private int deleted;
+
+        private NameTable table = new NameTable(16);
+
+        /*Last published records*/
+        private volatile Records records;
+
+        RecordStore(int capacity) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+            records = new Records(this);
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        int offset(int position) {
+            return offsetPages[position >>> PAGE_BITS][position & PAGE_MASK];
+        }
+
+        /**
+         * Append a record, published by the next {@link #publish()}.
+         *
+         * @return the position of the appended record.
+         */
+        int append(MedicalRecord medicalRecord) {
+            int position = count;
+            appendOffset(position, encode(medicalRecord));
+            insert(hash(OffHeapMedicalRecordDao.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName())), position);
+            count = position + 1;
+            return position;
+        }
+
+        void replace(int position, MedicalRecord medicalRecord) {
+            int offset = offset(position);
+            int newOffset = encode(medicalRecord);
+            garbage += buffer.getInt(offset);
+            overwriteOffset(position, newOffset);
+            publish();
+        }
+
+        void delete(int position) {
+            int offset = offset(position);
+            String nameKey = nameKey(buffer, offset);
+            garbage += buffer.getInt(offset);
+            overwriteOffset(position, -1);
+            deleted++;
+            table.remove(hash(nameKey), position);
+            publish();
+        }
+
+        /**
+         * Append the bytes of the record of another store, published by the next {@link #publish()}.
+         */
+        void copy(RecordStore source, int position) {
+            int sourceOffset = source.offset(position);
+            int length = source.buffer.getInt(sourceOffset);
+            ensureCapacity(length);
+            ByteBuffer bytes = source.buffer.duplicate();
+            bytes.position(sourceOffset).limit(sourceOffset + length);
+            ByteBuffer writer = buffer.duplicate();
+            writer.position(used);
+            writer.put(bytes);
+            int newPosition = count;
+            appendOffset(newPosition, used);
+            insert(hash(nameKey(buffer, used)), newPosition);
+            used += length;
+            count = newPosition + 1;
+        }
+
+        /*Volatile write of the records : readers reading them see the store written before*/
+        void publish() {
+            records = new Records(this);
+        }
+
+        /*Offsets past the published count are not read : they are written in place*/
+        private void appendOffset(int position, int offset) {
+            int page = position >>> PAGE_BITS;
+            if (page == offsetPages.length) {
+                offsetPages = Arrays.copyOf(offsetPages, page * 2);
+            }
+            if (offsetPages[page] == null) {
+                offsetPages[page] = new int[PAGE_SIZE];
+            }
+            offsetPages[page][position & PAGE_MASK] = offset;
+        }
+
+        /*Published offsets are read : their page and the page table are copied*/
+        private void overwriteOffset(int position, int offset) {
+            int page = position >>> PAGE_BITS;
+            int[][] pages = offsetPages.clone();
+            pages[page] = pages[page].clone();
+            pages[page][position & PAGE_MASK] = offset;
+            offsetPages = pages;
+        }
+
+        private void insert(int hash, int position) {
+            NameTable nameTable = table;
+            if ((nameTable.usedSlots + 1) * 2 > nameTable.positions.length) {
+                nameTable = nameTable.resized(count - deleted + 1);
+            }
+            nameTable.insert(hash, position);
+            table = nameTable;
+        }
+
+        /**
+         * @return the offset of the encoded record.
+         */
+        private int encode(MedicalRecord medicalRecord) {
+            byte[] firstName = bytes(medicalRecord.getFirstName());
+            byte[] lastName = bytes(medicalRecord.getLastName());
+            List<byte[]> medications = bytes(medicalRecord.getMedications());
+            List<byte[]> allergies = bytes(medicalRecord.getAllergies());
+            int length = Integer.BYTES * 2 + size(firstName) + size(lastName) + size(medications) + size(allergies);
+            ensureCapacity(length);
+            ByteBuffer writer = buffer.duplicate();
+            int offset = used;
+            writer.position(offset);
+            writer.putInt(length);
+            Date birthdate = medicalRecord.getBirthdate();
+            writer.putInt(birthdate == null ? NULL_EPOCH_DAY : (int) Math.floorDiv(birthdate.getTime(), MILLIS_PER_DAY));
+            writeString(writer, firstName);
+            writeString(writer, lastName);
+            writeList(writer, medications);
+            writeList(writer, allergies);
+            used += length;
+            return offset;
+        }
+
+        private void ensureCapacity(int length) {
+            if ((long) used + length > buffer.capacity()) {
+                long capacity = Math.max((long) buffer.capacity() * 2, (long) used + length);
+                if (capacity > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Off-heap medical record store full : " + used + " bytes used");
+                }
+                ByteBuffer grownBuffer = ByteBuffer.allocateDirect((int) capacity);
+                ByteBuffer bytes = buffer.duplicate();
+                bytes.position(0).limit(used);
+                grownBuffer.put(bytes);
+                buffer = grownBuffer;
+            }
+        }
+
+        private static String nameKey(ByteBuffer recordBuffer, int offset) {
+            ByteBuffer reader = recordBuffer.duplicate();
+            reader.position(offset + Integer.BYTES * 2);
+            return OffHeapMedicalRecordDao.nameKey(readString(reader), readString(reader));
+        }
+
+        private static int hash(String nameKey) {
+            int hash = nameKey.hashCode();
+            return hash ^ (hash >>> 16);
+        }
+
+        private static byte[] bytes(String value) {
+            return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static List<byte[]> bytes(List<String> values) {
+            if (values == null) {
+                return null;
+            }
+            List<byte[]> bytes = new ArrayList<>(values.size());
+            for (String value : values) {
+                bytes.add(bytes(value));
+            }
+            return bytes;
+        }
+
+        private static int size(byte[] value) {
+            return Integer.BYTES + (value == null ? 0 : value.length);
+        }
+
+        private static int size(List<byte[]> values) {
+            int size = Integer.BYTES;
+            if (values != null) {
+                for (byte[] value : values) {
+                    size += size(value);
+                }
+            }
+            return size;
+        }
+
+        private static void writeString(ByteBuffer writer, byte[] value) {
+            if (value == null) {
+                writer.putInt(NULL_COUNT);
+            } else {
+                writer.putInt(value.length);
+                writer.put(value);
+            }
+        }
+
+        private static void writeList(ByteBuffer writer, List<byte[]> values) {
+            if (values == null) {
+                writer.putInt(NULL_COUNT);
+                return;
+            }
+            writer.putInt(values.size());
+            for (byte[] value : values) {
+                writeString(writer, value);
+            }
+        }
+
+        private static String readString(ByteBuffer reader) {
+            int length = reader.getInt();
+            if (length == NULL_COUNT) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            reader.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read a list lazily : its strings are skipped, to be decoded on first access.
+         */
+        private static List<String> readList(ByteBuffer recordBuffer, ByteBuffer reader) {
+            int offset = reader.position();
+            int size = reader.getInt();
+            if (size == NULL_COUNT) {
+                return null;
+            }
+            for (int i = 0; i < size; i++) {
+                int length = reader.getInt();
+                if (length != NULL_COUNT) {
+                    reader.position(reader.position() + length);
+                }
+            }
+            return new EncodedStringList(recordBuffer, offset, size);
+        }
+    }
+
+    /**
+     * Open addressing table of the positions of the records by hash of their case folded name.
+     * Slots hold the position + 1, {@link #FREE} or {@link #REMOVED}. Tables are grown by copy.
+     */
+    private static class NameTable {
+        private static final int FREE = 0;
+        private static final int REMOVED = -1;
+
+        private final int[] hashes;
+        private final int[] positions;
+        /*Slots not free, removed ones included*/
+        private int usedSlots;
+
+        NameTable(int capacity) {
+            hashes = new int[capacity];
+            positions = new int[capacity];
+        }
+
+        void insert(int hash, int position) {
+            int mask = positions.length - 1;
+            int slot = hash & mask;
+            while (positions[slot] != FREE && positions[slot] != REMOVED) {
+                slot = (slot + 1) & mask;
+            }
+            if (positions[slot] == FREE) {
+                usedSlots++;
+            }
+            hashes[slot] = hash;
+            positions[slot] = position + 1;
+        }
+
+        void remove(int hash, int position) {
+            int mask = positions.length - 1;
+            for (int slot = hash & mask; positions[slot] != FREE; slot = (slot + 1) & mask) {
+                if (positions[slot] == position + 1) {
+                    positions[slot] = REMOVED;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return a copy of the table without its removed slots, large enough for the given number of records.
+         */
+        NameTable resized(int recordCount) {
+            NameTable nameTable = new NameTable(Math.max(16, Integer.highestOneBit(recordCount * 4 - 1) << 1));
+            for (int slot = 0; slot < positions.length; slot++) {
+                if (positions[slot] > 0) {
+                    nameTable.insert(hashes[slot], positions[slot] - 1);
+                }
+            }
+            return nameTable;
+        }
+    }
+
+    /**
+     * Strings of an encoded list, decoded on first access.
+     */
+    private static class EncodedStringList extends AbstractList<String> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int size;
+        private volatile String[] values;
+
+        EncodedStringList(ByteBuffer buffer, int offset, int size) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public String get(int index) {
+            String[] decodedValues = values;
+            if (decodedValues == null) {
+                ByteBuffer reader = buffer.duplicate();
+                reader.position(offset + Integer.BYTES);
+                decodedValues = new String[size];
+                for (int i = 0; i < size; i++) {
+                    decodedValues[i] = RecordStore.readString(reader);
+                }
+                values = decodedValues;
+            }
+            return decodedValues[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Read only view of the records of the current store, in insertion order, held by the datasource.
+     */
+    private class MedicalRecordList extends AbstractList<MedicalRecord> implements LockFreeList<MedicalRecord> {
+
+        @Override
+        public MedicalRecord get(int index) {
+            Records records = store.records;
+            if (records.deleted == 0) {
+                if (index < 0 || index >= records.count) {
+                    throw new IndexOutOfBoundsException("Index " + index);
+                }
+                return records.decode(index);
+            }
+            int remaining = index;
+            for (int position = 0; position < records.count; position++) {
+                if (records.offset(position) >= 0 && remaining-- == 0) {
+                    return records.decode(position);
+                }
+            }
+            throw new IndexOutOfBoundsException("Index " + index);
+        }
+
+        @Override
+        public int size() {
+            RecordStore recordStore = store;
+            if (recordStore == null) {
+                return 0;
+            }
+            Records records = recordStore.records;
+            return records.count - records.deleted;
+        }
+
+        @Override
+        public Iterator<MedicalRecord> iterator() {
+            Records records = store.records;
+            return new Iterator<>() {
+                private int position = next(0);
+
+                private int next(int from) {
+                    int nextPosition = from;
+                    while (nextPosition < records.count && records.offset(nextPosition) < 0) {
+                        nextPosition++;
+                    }
+                    return nextPosition;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return position < records.count;
+                }
+
+                @Override
+                public MedicalRecord next() {
+                    if (position >= records.count) {
+                        throw new NoSuchElementException();
+                    }
+                    MedicalRecord medicalRecord = records.decode(position);
+                    position = next(position + 1);
+                    return medicalRecord;
+                }
+            };
+        }
+    }
+}
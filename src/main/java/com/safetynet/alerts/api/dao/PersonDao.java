@@ -1,23 +1,43 @@
 package com.safetynet.alerts.api.dao;
 
 import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.datasource.SnapshotList;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Component
+@ConditionalOnProperty(name = "datasource.person.storage", havingValue = "index", matchIfMissing = true)
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
-public class PersonDao implements IPersonDao{
+public class PersonDao implements IPersonDao, IIndexedDao {
 
     private final IAlertsDataSource dataSource;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    /*Index key of null values*/
+    private static final String NULL_KEY = "\0";
+
+    /*Hash indexes on the persons of the datasource, (re)built when the persons list changes*/
+    private volatile PersonIndex index;
+
     /**
      * Get a person from a datasource.
      *
@@ -27,12 +47,8 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public Optional<Person> getPerson(final String firstName, final String lastName){
-        List<Person> persons = dataSource.getData().getPersons();
-        Optional<Person> personResult = persons.stream()
-                .filter(p -> p.getFirstName().equalsIgnoreCase(firstName) &&
-                        p.getLastName().equalsIgnoreCase(lastName))
-                .findFirst();
-        return personResult;
+        List<Person> persons = getIndex().byName.getOrDefault(nameKey(firstName, lastName), Collections.emptyList());
+        return persons.stream().findFirst();
     }
     /**
      * Delete a person from a datasource.
@@ -45,14 +61,14 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public void deletePerson(final String firstName, final String lastName) throws DataNotFoundException {
-        Person person;
-        Optional<Person> personResult = getPerson(firstName, lastName);
-        if(personResult.isPresent()){
-            person = personResult.get();
-            dataSource.getData().getPersons().remove(person);
-        } else {
-            throw new DataNotFoundException("Person " + firstName + " " + lastName);
+        MutationChunk<Person> chunk;
+        PersonIndex personIndex = getIndex();
+        synchronized (personIndex) {
+            chunk = newChunk(personIndex);
+            delete(personIndex, firstName, lastName, chunk);
+            applyPending(chunk);
         }
+        chunk.await();
     }
     /**
      * Update an existing person into a datasource.
@@ -66,17 +82,14 @@ public class PersonDao implements IPersonDao{
     @Override
     public Person updatePerson(Person personToUpdate) throws DataNotFoundException {
         Person person;
-        Optional<Person> personResult = getPerson(personToUpdate.getFirstName(), personToUpdate.getLastName());
-        if(personResult.isPresent()){
-            person = personResult.get();
-            person.setAddress(personToUpdate.getAddress());
-            person.setCity(personToUpdate.getCity());
-            person.setZip(personToUpdate.getZip());
-            person.setEmail(personToUpdate.getEmail());
-            person.setPhone(personToUpdate.getPhone());
-        } else {
-            throw new DataNotFoundException("Person " + personToUpdate.getFirstName() + " " + personToUpdate.getLastName());
+        MutationChunk<Person> chunk;
+        PersonIndex personIndex = getIndex();
+        synchronized (personIndex) {
+            chunk = newChunk(personIndex);
+            person = update(personIndex, personToUpdate, chunk);
+            applyPending(chunk);
         }
+        chunk.await();
         return person;
     }
 
@@ -92,14 +105,141 @@ public class PersonDao implements IPersonDao{
     @Override
     public Person createPerson(Person personToCreate) throws DataAlreadyExistsException {
         Person person;
+        MutationChunk<Person> chunk;
+        PersonIndex personIndex = getIndex();
+        synchronized (personIndex) {
+            chunk = newChunk(personIndex);
+            person = create(personIndex, personToCreate, chunk);
+        }
+        chunk.await();
+        return person;
+    }
+
+    /**
+     * Create, update or delete a chunk of persons while holding the index lock once.
+     * Mutations are committed together once the lock has been released.
+     *
+     * @param operation the mutation to apply to each person.
+     * @param persons persons to create or update, persons to delete (only their names are used).
+     * @return for each person, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutatePersons(DataMutationEvent.Operation operation, List<Person> persons) {
+        List<Optional<ServiceException>> results = new ArrayList<>(persons.size());
+        MutationChunk<Person> chunk;
+        PersonIndex personIndex = getIndex();
+        synchronized (personIndex) {
+            chunk = newChunk(personIndex);
+            for (Person person : persons) {
+                try {
+                    switch (operation) {
+                        case CREATE:
+                            create(personIndex, person, chunk);
+                            break;
+                        case UPDATE:
+                            update(personIndex, person, chunk);
+                            break;
+                        default:
+                            delete(personIndex, person.getFirstName(), person.getLastName(), chunk);
+                    }
+                    results.add(Optional.empty());
+                } catch (DataNotFoundException | DataAlreadyExistsException e) {
+                    results.add(Optional.of(e));
+                }
+                chunk.next();
+            }
+            applyPending(chunk);
+        }
+        chunk.await(results);
+        return results;
+    }
+
+    /*Mutations, to be called while holding the index lock : they are published through 'chunk'*/
+
+    /*Deleted persons are removed from the index, then from the datasource list by applyPending*/
+    private void delete(PersonIndex personIndex, String firstName, String lastName, MutationChunk<Person> chunk) throws DataNotFoundException {
+        Optional<Person> personResult = getPerson(firstName, lastName);
+        if(personResult.isPresent()){
+            Person person = personResult.get();
+            personIndex.remove(person);
+            chunk.deleted(person, dataName(person));
+        } else {
+            throw new DataNotFoundException("Person " + firstName + " " + lastName);
+        }
+    }
+
+    /*Updated persons are replaced in the index, then in the datasource list by applyPending*/
+    private Person update(PersonIndex personIndex, Person personToUpdate, MutationChunk<Person> chunk) throws DataNotFoundException {
+        Optional<Person> personResult = getPerson(personToUpdate.getFirstName(), personToUpdate.getLastName());
+        if(personResult.isPresent()){
+            Person previousPerson = personResult.get();
+            /*persons are read without locking : the updated person is a copy replacing the previous one*/
+            Person person = new Person(previousPerson);
+            person.setAddress(personToUpdate.getAddress());
+            person.setCity(personToUpdate.getCity());
+            person.setZip(personToUpdate.getZip());
+            person.setEmail(personToUpdate.getEmail());
+            person.setPhone(personToUpdate.getPhone());
+            dataSource.canonicalize(person);
+            personIndex.replace(previousPerson, person);
+            chunk.updated(previousPerson, person, dataName(person));
+            return person;
+        } else {
+            throw new DataNotFoundException("Person " + personToUpdate.getFirstName() + " " + personToUpdate.getLastName());
+        }
+    }
+
+    private Person create(PersonIndex personIndex, Person personToCreate, MutationChunk<Person> chunk) throws DataAlreadyExistsException {
         Optional<Person> personResult = getPerson(personToCreate.getFirstName(), personToCreate.getLastName());
         if(personResult.isEmpty()){
-            person = new Person(personToCreate);
+            Person person = new Person(personToCreate);
+            dataSource.canonicalize(person);
             dataSource.getData().getPersons().add(person);
+            personIndex.add(person);
+            chunk.publish(DataMutationEvent.Operation.CREATE, person, null, dataName(person));
+            return person;
         } else {
             throw new DataAlreadyExistsException("Person " + personToCreate.getFirstName() + " " + personToCreate.getLastName());
         }
-        return person;
+    }
+
+    /*Replace updated persons and remove deleted persons from the datasource list in one copy, by identity, then publish them in order*/
+    private void applyPending(MutationChunk<Person> chunk) {
+        if (chunk.hasUpdates()) {
+            dataSource.getData().getPersons().replaceAll(chunk::latest);
+        }
+        if (chunk.hasDeletions()) {
+            dataSource.getData().getPersons().removeIf(chunk::isDeleted);
+        }
+        chunk.publishPending();
+    }
+
+    /**
+     * Start the mutations of a chunk of persons, shall be called while holding the index lock.
+     * A mutation that can not be published is undone in the index and in the datasource list.
+     */
+    private MutationChunk<Person> newChunk(PersonIndex personIndex) {
+        return new MutationChunk<>(this, eventPublisher, Person::new, mutation -> {
+            List<Person> persons = dataSource.getData().getPersons();
+            Person person = mutation.getEntity();
+            switch (mutation.getOperation()) {
+                case CREATE:
+                    personIndex.remove(person);
+                    persons.removeIf(p -> p == person);
+                    break;
+                case UPDATE:
+                    personIndex.replace(person, mutation.getPreviousEntity());
+                    persons.replaceAll(p -> p == person ? mutation.getPreviousEntity() : p);
+                    break;
+                default:
+                    personIndex.add(person);
+                    persons.add(person);
+            }
+        });
+    }
+
+    private static String dataName(Person person) {
+        return "Person " + person.getFirstName() + " " + person.getLastName();
     }
 
     /**
@@ -110,10 +250,7 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersonsByAddress(String address){
-        List<Person> persons = dataSource.getData().getPersons();
-        return persons.stream()
-                .filter(p -> p.getAddress().equalsIgnoreCase(address))
-                .collect(Collectors.toList());
+        return new ArrayList<>(getIndex().byAddress.getOrDefault(fold(address), Collections.emptyList()));
     }
     /**
      * Get a list of persons that live in a given city.
@@ -123,10 +260,8 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersonsByCity(String city){
-        List<Person> persons = dataSource.getData().getPersons();
-        return persons.stream()
-                .filter(p -> p.getCity().equalsIgnoreCase(city))
-                .collect(Collectors.toList());
+        Map<Long, Person> bucket = getIndex().byCity.get(fold(city));
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
     }
 
     /**
@@ -138,10 +273,138 @@ public class PersonDao implements IPersonDao{
      */
     @Override
     public List<Person> getPersons(String firstName, String lastName) {
+        return new ArrayList<>(getIndex().byName.getOrDefault(nameKey(firstName, lastName), Collections.emptyList()));
+    }
+
+    /**
+     * Build the indexes of the data currently held by the datasource, if not already built.
+     */
+    @Override
+    public void buildIndex() {
+        getIndex();
+    }
+
+    /**
+     * Get the indexes of the persons currently held by the datasource.
+     * Indexes are rebuilt when the datasource persons list has been replaced (data (re)loaded).
+     *
+     * @return the person indexes.
+     */
+    private PersonIndex getIndex() {
         List<Person> persons = dataSource.getData().getPersons();
-        return  persons
-                .stream()
-                .filter(p -> p.getFirstName().equalsIgnoreCase(firstName) && p.getLastName().equalsIgnoreCase(lastName))
-                .collect(Collectors.toList());
+        PersonIndex personIndex = index;
+        if (personIndex == null || personIndex.persons != persons) {
+            personIndex = rebuildIndex(persons);
+        }
+        return personIndex;
+    }
+
+    private synchronized PersonIndex rebuildIndex(List<Person> persons) {
+        if (index == null || index.persons != persons) {
+            index = new PersonIndex(persons);
+        }
+        return index;
+    }
+
+    /**
+     * Case fold a value so that it can be used as an index key.
+     *
+     * @param value value to fold, may be null.
+     * @return the folded value.
+     */
+    private static String fold(String value) {
+        return value == null ? NULL_KEY : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return fold(firstName) + '\n' + fold(lastName);
+    }
+
+    /**
+     * Case folded hash indexes on person (firstName,lastName), address and city.
+     * Buckets are {@link SnapshotList}, keeping persons in insertion order :
+     * indexes are read without locking while writers hold the index monitor.
+     * A city holds a large share of the persons : its bucket is a sorted map on the sequence of the persons, their
+     * rank in the datasource list, so that a person is replaced or removed without copying the bucket.
+     */
+    private static class PersonIndex {
+        private final List<Person> persons;
+        private final Map<String, List<Person>> byName = new ConcurrentHashMap<>();
+        private final Map<String, List<Person>> byAddress = new ConcurrentHashMap<>();
+        private final Map<String, ConcurrentNavigableMap<Long, Person>> byCity = new ConcurrentHashMap<>();
+        /*Sequence of each indexed person, an updated person keeping the sequence of the person it replaces*/
+        private final Map<Person, Long> sequences = new IdentityHashMap<>();
+        private long nextSequence;
+
+        PersonIndex(List<Person> persons) {
+            this.persons = persons;
+            persons.forEach(this::add);
+        }
+
+        synchronized void add(Person person) {
+            addTo(byName, nameKey(person.getFirstName(), person.getLastName()), person);
+            addTo(byAddress, fold(person.getAddress()), person);
+            long sequence = nextSequence++;
+            sequences.put(person, sequence);
+            byCity.computeIfAbsent(fold(person.getCity()), k -> new ConcurrentSkipListMap<>()).put(sequence, person);
+        }
+
+        synchronized void remove(Person person) {
+            removeFrom(byName, nameKey(person.getFirstName(), person.getLastName()), person);
+            removeFrom(byAddress, fold(person.getAddress()), person);
+            removeFromCity(fold(person.getCity()), sequences.remove(person));
+        }
+
+        /**
+         * Replace a person by its updated copy in its buckets, moving it to the buckets of its new address and city.
+         * The person is added to its new buckets before being removed from the old ones.
+         */
+        synchronized void replace(Person previousPerson, Person person) {
+            replaceIn(byName, nameKey(previousPerson.getFirstName(), previousPerson.getLastName()),
+                    nameKey(person.getFirstName(), person.getLastName()), previousPerson, person);
+            replaceIn(byAddress, fold(previousPerson.getAddress()), fold(person.getAddress()), previousPerson, person);
+            long sequence = sequences.remove(previousPerson);
+            sequences.put(person, sequence);
+            byCity.computeIfAbsent(fold(person.getCity()), k -> new ConcurrentSkipListMap<>()).put(sequence, person);
+            if (!fold(previousPerson.getCity()).equals(fold(person.getCity()))) {
+                removeFromCity(fold(previousPerson.getCity()), sequence);
+            }
+        }
+
+        private void removeFromCity(String city, long sequence) {
+            Map<Long, Person> bucket = byCity.get(city);
+            if (bucket != null) {
+                bucket.remove(sequence);
+                if (bucket.isEmpty()) {
+                    byCity.remove(city);
+                }
+            }
+        }
+
+        private static void replaceIn(Map<String, List<Person>> bucketsByKey, String previousKey, String key, Person previousPerson, Person person) {
+            if (previousKey.equals(key)) {
+                List<Person> bucket = bucketsByKey.get(key);
+                if (bucket != null) {
+                    bucket.replaceAll(p -> p == previousPerson ? person : p);
+                }
+            } else {
+                addTo(bucketsByKey, key, person);
+                removeFrom(bucketsByKey, previousKey, previousPerson);
+            }
+        }
+
+        private static void addTo(Map<String, List<Person>> bucketsByKey, String key, Person person) {
+            bucketsByKey.computeIfAbsent(key, k -> new SnapshotList<>()).add(person);
+        }
+
+        private static void removeFrom(Map<String, List<Person>> bucketsByKey, String key, Person person) {
+            List<Person> bucket = bucketsByKey.get(key);
+            if (bucket != null) {
+                bucket.removeIf(p -> p == person);
+                if (bucket.isEmpty()) {
+                    bucketsByKey.remove(key);
+                }
+            }
+        }
     }
 }
@@ -1,39 +1,78 @@
 package com.safetynet.alerts.api.datasource;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import com.safetynet.alerts.api.model.Person;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 /**
  * AlertsDataSource class enables to
  *  - load SafetyNet Alerts data from Json file by calling load method.
  *  - give access to that loaded data
+ *
+ * Values repeated across entities (addresses, cities, zips, medications, allergies) are dictionary encoded :
+ * equal values share a single canonical String instance, whatever the entities are loaded from or created by.
  */
 @Component
+@Log4j2
 public class AlertsDataSource implements IAlertsDataSource {
 
-    private Data data;
+    /*Sections of the data Json object*/
+    private static final Set<String> SECTIONS = Set.of("persons", "firestations", "medicalrecords");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private volatile Data data;
 
     /**
      * Load SafetyNet Alerts data from Json file given in parameter.
-     * Shall be called first before accessing to data through getData method
+     * Shall be called first before accessing to data through getData method.
+     *
+     * The file is read as a stream of Json tokens : persons, fire stations and medical records
+     * are deserialized one by one and appended to the datasource lists, the whole file is never
+     * held in memory.
      *
-     * @param dataSourceFilePath path to the json data file.
+     * @param dataSourceFilePath path to the json data file : a file system path or, if no such
+     *                           file exists, a class path resource.
      */
     public void load(String dataSourceFilePath) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        File resource = new ClassPathResource(dataSourceFilePath).getFile();
-        data = mapper.readValue(resource, Data.class);
+        try (InputStream inputStream = open(dataSourceFilePath);
+             JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+            data = read(parser);
+        }
+        log.info("Data loaded from " + dataSourceFilePath + " : " + data.getPersons().size() + " persons, "
+                + data.getFirestations().size() + " fire stations, " + data.getMedicalrecords().size() + " medical records");
     }
 
     /**
@@ -45,5 +84,243 @@ public class AlertsDataSource implements IAlertsDataSource {
         return data;
     }
 
+    @Override
+    public void canonicalize(Person person) {
+        person.setAddress(dictionary.canonical(person.getAddress()));
+        person.setCity(dictionary.canonical(person.getCity()));
+        person.setZip(dictionary.canonical(person.getZip()));
+    }
+
+    @Override
+    public void canonicalize(FireStation fireStation) {
+        fireStation.setAddress(dictionary.canonical(fireStation.getAddress()));
+    }
+
+    @Override
+    public void canonicalize(MedicalRecord medicalRecord) {
+        medicalRecord.setMedications(dictionary.canonical(medicalRecord.getMedications()));
+        medicalRecord.setAllergies(dictionary.canonical(medicalRecord.getAllergies()));
+    }
+
+    /**
+     * Open a data file.
+     *
+     * @param dataSourceFilePath a file system path or a class path resource.
+     * @return input stream on the file content.
+     * @throws IOException if the file can not be found nor opened.
+     */
+    static InputStream open(String dataSourceFilePath) throws IOException {
+        return resource(dataSourceFilePath).getInputStream();
+    }
+
+    /**
+     * Resolve a data file.
+     *
+     * @param dataSourceFilePath a file system path or a class path resource.
+     * @return the file system resource if such a file exists, else the class path resource.
+     */
+    static Resource resource(String dataSourceFilePath) {
+        Path path = Paths.get(dataSourceFilePath);
+        if (Files.isRegularFile(path)) {
+            return new FileSystemResource(path);
+        }
+        return new ClassPathResource(dataSourceFilePath);
+    }
+
+    /**
+     * Load SafetyNet Alerts data from Json file given in parameter, the persons, fire stations and
+     * medical records sections being deserialized in parallel by the given executor.
+     *
+     * The file is streamed twice and never held in memory : a first pass only locates the sections,
+     * each section is then deserialized by its own task from its own channel on the file, positioned at the
+     * section offset. Data files that are not on the file system (class path resources packaged in a jar)
+     * can not be read at an offset : they are loaded sequentially.
+     *
+     * @param dataSourceFilePath path to the json data file : a file system path or, if no such
+     *                           file exists, a class path resource.
+     * @param executor executor running the section loading tasks.
+     */
+    public void load(String dataSourceFilePath, Executor executor) throws IOException {
+        Resource resource = resource(dataSourceFilePath);
+        if (!resource.isFile()) {
+            load(dataSourceFilePath);
+            return;
+        }
+        Path path = resource.getFile().toPath();
+        Data dataRead = newData();
+        List<CompletableFuture<Void>> sectionLoads = new ArrayList<>();
+        for (Map.Entry<String, Long> section : locateSections(path).entrySet()) {
+            sectionLoads.add(CompletableFuture.runAsync(() -> {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                     JsonParser parser = mapper.getFactory().createParser(Channels.newInputStream(channel.position(section.getValue())))) {
+                    parser.nextToken();
+                    readSection(parser, section.getKey(), dataRead);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(sectionLoads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        data = dataRead;
+        log.info("Data loaded from " + dataSourceFilePath + " : " + data.getPersons().size() + " persons, "
+                + data.getFirestations().size() + " fire stations, " + data.getMedicalrecords().size() + " medical records");
+    }
+
+    /**
+     * Load SafetyNet Alerts data from a binary snapshot written by writeSnapshot.
+     *
+     * @param snapshotFilePath path of the snapshot file.
+     * @param dataSourceFilePath path of the json data file the snapshot shall have been written from.
+     * @return true if data have been loaded, false if the snapshot does not exist or is stale : it has been
+     * written from another version of the json data file or in a format older than the journal (data are left unchanged).
+     * @throws IOException if the json data file can not be found or the snapshot, holding no journaled mutations, is corrupted.
+     * @throws IllegalStateException if the snapshot may hold journaled mutations and can not be loaded : it can not be
+     * read, has an unknown format, is corrupted or the json data file has changed.
+     */
+    public boolean loadSnapshot(String snapshotFilePath, String dataSourceFilePath) throws IOException {
+        long start = System.nanoTime();
+        Data dataRead = DataSnapshot.read(Paths.get(snapshotFilePath), sourceStamp(dataSourceFilePath));
+        if (dataRead == null) {
+            log.info("No up to date snapshot " + snapshotFilePath + " for " + dataSourceFilePath);
+            return false;
+        }
+        /*strings are shared within the snapshot : they become the canonical instances*/
+        dataRead.getPersons().forEach(this::canonicalize);
+        dataRead.getFirestations().forEach(this::canonicalize);
+        dataRead.getMedicalrecords().forEach(this::canonicalize);
+        data = dataRead;
+        log.info("Data loaded from snapshot " + snapshotFilePath + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms : "
+                + data.getPersons().size() + " persons, " + data.getFirestations().size() + " fire stations, "
+                + data.getMedicalrecords().size() + " medical records");
+        return true;
+    }
+
+    /**
+     * Write a binary snapshot of the loaded SafetyNet Alerts data, replacing the existing snapshot if any.
+     *
+     * @param snapshotFilePath path of the snapshot file.
+     * @param dataSourceFilePath path of the json data file data have been loaded from.
+     * @param journaled true if data hold journaled mutations that are not in the json data file.
+     */
+    public void writeSnapshot(String snapshotFilePath, String dataSourceFilePath, boolean journaled) throws IOException {
+        long start = System.nanoTime();
+        DataSnapshot.write(data, sourceStamp(dataSourceFilePath), Paths.get(snapshotFilePath), journaled);
+        log.info("Snapshot " + snapshotFilePath + " written in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private static DataSnapshot.SourceStamp sourceStamp(String dataSourceFilePath) throws IOException {
+        Resource resource = resource(dataSourceFilePath);
+        return new DataSnapshot.SourceStamp(resource.contentLength(), resource.lastModified());
+    }
+
+    /**
+     * Read the data Json object from a parser.
+     *
+     * @param parser parser positioned before the data Json object.
+     * @return the data read.
+     * @throws IOException if the content is not a valid data Json object.
+     */
+    private Data read(JsonParser parser) throws IOException {
+        Data dataRead = newData();
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String section = parser.getCurrentName();
+            parser.nextToken();
+            readSection(parser, section, dataRead);
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+        return dataRead;
+    }
+
+    /**
+     * Locate the sections of the data Json object, without deserializing them.
+     *
+     * @param path the data file.
+     * @return byte offset of the known sections in the file, by section name.
+     * @throws IOException if the content is not a valid data Json object.
+     */
+    private Map<String, Long> locateSections(Path path) throws IOException {
+        Map<String, Long> sections = new LinkedHashMap<>();
+        try (InputStream inputStream = Files.newInputStream(path);
+             JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.getCurrentName();
+                parser.nextToken();
+                long offset = parser.getTokenLocation().getByteOffset();
+                parser.skipChildren();
+                if (SECTIONS.contains(section) && sections.put(section, offset) != null) {
+                    throw new IOException("Invalid data file : duplicate section " + section);
+                }
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+        }
+        return sections;
+    }
+
+    /**
+     * Read a section of the data Json object into data.
+     *
+     * @param parser parser positioned on the section value.
+     * @param section name of the section, unknown sections are skipped.
+     * @param dataRead data into which the section is read.
+     */
+    private void readSection(JsonParser parser, String section, Data dataRead) throws IOException {
+        long start = System.nanoTime();
+        switch (section) {
+            case "persons":
+                readArray(parser, mapper.readerFor(Person.class), dataRead.getPersons(), this::canonicalize);
+                break;
+            case "firestations":
+                readArray(parser, mapper.readerFor(FireStation.class), dataRead.getFirestations(), this::canonicalize);
+                break;
+            case "medicalrecords":
+                readArray(parser, mapper.readerFor(MedicalRecord.class), dataRead.getMedicalrecords(), this::canonicalize);
+                break;
+            default:
+                parser.skipChildren();
+                return;
+        }
+        log.info("Section " + section + " loaded in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
 
+    private static Data newData() {
+        Data dataRead = new Data();
+        dataRead.setPersons(new SnapshotList<>());
+        dataRead.setFirestations(new SnapshotList<>());
+        dataRead.setMedicalrecords(new SnapshotList<>());
+        return dataRead;
+    }
+
+    /**
+     * Read a Json array element by element.
+     *
+     * @param parser parser positioned on the START_ARRAY token.
+     * @param reader reader of one element.
+     * @param elements list to which read elements are appended.
+     * @param canonicalizer replaces the repeated values of an element by their canonical instances, as soon as
+     *                      it is read : the duplicates deserialized by Jackson are garbage right away.
+     */
+    static <T> void readArray(JsonParser parser, ObjectReader reader, List<T> elements, Consumer<T> canonicalizer) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            T element = reader.readValue(parser);
+            canonicalizer.accept(element);
+            elements.add(element);
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expectedToken) throws IOException {
+        if (token != expectedToken) {
+            throw new IOException("Invalid data file at " + parser.getCurrentLocation() + " : " + expectedToken + " expected, " + token + " found");
+        }
+    }
 }
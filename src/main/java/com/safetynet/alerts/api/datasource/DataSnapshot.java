@@ -0,0 +1,335 @@
+package com.safetynet.alerts.api.datasource;
+
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of SafetyNet Alerts data.
+ *
+ * Snapshot layout (big endian) :
+ *  - header : magic, format version, length and last modification time of the Json file the data come from,
+ *    journaled flag (1 if data hold compacted journal mutations, else 0), offset of the string table.
+ *  - persons : count, then firstName, lastName, address, city, zip, phone and email references.
+ *  - fire stations : count, then address reference and station number.
+ *  - medical records : count, then firstName and lastName references, birthdate in milliseconds
+ *    ({@link Long#MIN_VALUE} for null), medications and allergies as a count (-1 for null) followed by references.
+ *  - string table : count, then each string as its UTF-8 byte length followed by its bytes.
+ *    Every string of the data is stored once and referenced by its index in the table (-1 for null).
+ *
+ * Snapshot is written in one pass over the entities, each value being read once : strings are added to the table
+ * as entities reference them, the table is written last. Entities are shared with lock-free readers and writers,
+ * a value read twice could have been updated in between.
+ * Snapshot is read through a memory mapped file, strings are decoded once and shared by all the entities.
+ *
+ * A snapshot written by journal compaction holds mutations no longer journaled : it can not be discarded as stale
+ * when the Json file changes, reading it then fails instead. So does reading a snapshot that may be journaled but can
+ * not be read (file not readable, unknown format, corrupted journaled snapshot) : it would be replaced by a snapshot
+ * of the Json file. Snapshots of the first format version predate the journal, they are discarded.
+ */
+class DataSnapshot {
+
+    private static final int MAGIC = 0x53414C44;
+    private static final int VERSION = 2;
+    /*Format versions written before the journal existed*/
+    private static final int LAST_UNJOURNALED_VERSION = 1;
+    /*Byte offset of the string table offset in the header*/
+    private static final int STRING_TABLE_OFFSET_POSITION = 28;
+    private static final int HEADER_SIZE = 36;
+    private static final int NULL_REFERENCE = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private DataSnapshot() {}
+
+    /**
+     * Stamp of the Json file data come from, used to detect stale snapshots.
+     */
+    static class SourceStamp {
+        private final long length;
+        private final long lastModified;
+
+        SourceStamp(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SourceStamp)) return false;
+            SourceStamp that = (SourceStamp) o;
+            return length == that.length && lastModified == that.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(length) * 31 + Long.hashCode(lastModified);
+        }
+
+        @Override
+        public String toString() {
+            return "length " + length + ", last modified " + lastModified;
+        }
+    }
+
+    /**
+     * Write a snapshot of data. The snapshot file is replaced atomically.
+     *
+     * @param data data to write.
+     * @param sourceStamp stamp of the Json file data come from.
+     * @param snapshotFile path of the snapshot file.
+     * @param journaled true if data hold journaled mutations that are not in the Json file.
+     */
+    static void write(IAlertsDataSource.Data data, SourceStamp sourceStamp, Path snapshotFile, boolean journaled) throws IOException {
+        List<Person> persons = new ArrayList<>(data.getPersons());
+        List<FireStation> fireStations = new ArrayList<>(data.getFirestations());
+        List<MedicalRecord> medicalRecords = new ArrayList<>(data.getMedicalrecords());
+        StringTable strings = new StringTable();
+
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            long stringTableOffset;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceStamp.length);
+                out.writeLong(sourceStamp.lastModified);
+                out.writeInt(journaled ? 1 : 0);
+                /*string table offset, written once known*/
+                out.writeLong(0L);
+
+                out.writeInt(persons.size());
+                for (Person person : persons) {
+                    out.writeInt(strings.reference(person.getFirstName()));
+                    out.writeInt(strings.reference(person.getLastName()));
+                    out.writeInt(strings.reference(person.getAddress()));
+                    out.writeInt(strings.reference(person.getCity()));
+                    out.writeInt(strings.reference(person.getZip()));
+                    out.writeInt(strings.reference(person.getPhone()));
+                    out.writeInt(strings.reference(person.getEmail()));
+                }
+
+                out.writeInt(fireStations.size());
+                for (FireStation fireStation : fireStations) {
+                    out.writeInt(strings.reference(fireStation.getAddress()));
+                    out.writeInt(fireStation.getStation());
+                }
+
+                out.writeInt(medicalRecords.size());
+                for (MedicalRecord medicalRecord : medicalRecords) {
+                    out.writeInt(strings.reference(medicalRecord.getFirstName()));
+                    out.writeInt(strings.reference(medicalRecord.getLastName()));
+                    Date birthdate = medicalRecord.getBirthdate();
+                    out.writeLong(birthdate == null ? NULL_DATE : birthdate.getTime());
+                    writeReferences(out, strings, medicalRecord.getMedications());
+                    writeReferences(out, strings, medicalRecord.getAllergies());
+                }
+
+                /*size saturates at Integer.MAX_VALUE, larger snapshots can not be memory mapped anyway*/
+                if (out.size() == Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot too large for " + snapshotFile);
+                }
+                stringTableOffset = out.size();
+                out.writeInt(strings.values.size());
+                for (String value : strings.values) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, stringTableOffset), STRING_TABLE_OFFSET_POSITION);
+                channel.force(false);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Read a snapshot of data.
+     *
+     * @param snapshotFile path of the snapshot file.
+     * @param sourceStamp stamp of the Json file data shall come from.
+     * @return data read, or null if the snapshot file does not exist, has a format version older than the journal
+     * or has been written from another Json file (stale snapshot).
+     * @throws IOException if the snapshot does not hold journaled mutations and is corrupted.
+     * @throws IllegalStateException if the snapshot may hold journaled mutations and can not be loaded : it can not
+     * be read, has an unknown format, is corrupted, or has been written from another Json file. Discarding it would
+     * lose the mutations.
+     */
+    static IAlertsDataSource.Data read(Path snapshotFile, SourceStamp sourceStamp) throws IOException {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw unreadable(snapshotFile, "can not be read", e);
+        }
+        boolean journaled = true;
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw unreadable(snapshotFile, "is not a snapshot", null);
+            }
+            int version = buffer.getInt();
+            if (version <= LAST_UNJOURNALED_VERSION) {
+                return null;
+            }
+            if (version != VERSION) {
+                throw unreadable(snapshotFile, "has an unknown format version " + version, null);
+            }
+            SourceStamp snapshotStamp = new SourceStamp(buffer.getLong(), buffer.getLong());
+            journaled = buffer.getInt() != 0;
+            if (!sourceStamp.equals(snapshotStamp)) {
+                if (journaled) {
+                    throw new IllegalStateException("Snapshot " + snapshotFile + " holds compacted journal mutations but the Json file"
+                            + " it was written from has changed (" + snapshotStamp + ", now " + sourceStamp + ") : restore the Json file,"
+                            + " or remove the snapshot and the journal to start from the new Json file");
+                }
+                return null;
+            }
+            long stringTableOffset = buffer.getLong();
+            if (stringTableOffset < HEADER_SIZE || stringTableOffset > buffer.limit()) {
+                throw new IndexOutOfBoundsException("String table offset " + stringTableOffset);
+            }
+
+            buffer.position((int) stringTableOffset);
+            String[] strings = new String[buffer.getInt()];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            buffer.position(HEADER_SIZE);
+
+            Person[] persons = new Person[buffer.getInt()];
+            for (int i = 0; i < persons.length; i++) {
+                Person person = new Person();
+                person.setFirstName(string(strings, buffer.getInt()));
+                person.setLastName(string(strings, buffer.getInt()));
+                person.setAddress(string(strings, buffer.getInt()));
+                person.setCity(string(strings, buffer.getInt()));
+                person.setZip(string(strings, buffer.getInt()));
+                person.setPhone(string(strings, buffer.getInt()));
+                person.setEmail(string(strings, buffer.getInt()));
+                persons[i] = person;
+            }
+
+            FireStation[] fireStations = new FireStation[buffer.getInt()];
+            for (int i = 0; i < fireStations.length; i++) {
+                FireStation fireStation = new FireStation();
+                fireStation.setAddress(string(strings, buffer.getInt()));
+                fireStation.setStation(buffer.getInt());
+                fireStations[i] = fireStation;
+            }
+
+            MedicalRecord[] medicalRecords = new MedicalRecord[buffer.getInt()];
+            for (int i = 0; i < medicalRecords.length; i++) {
+                MedicalRecord medicalRecord = new MedicalRecord();
+                medicalRecord.setFirstName(string(strings, buffer.getInt()));
+                medicalRecord.setLastName(string(strings, buffer.getInt()));
+                long birthdate = buffer.getLong();
+                medicalRecord.setBirthdate(birthdate == NULL_DATE ? null : new Date(birthdate));
+                medicalRecord.setMedications(readReferences(buffer, strings));
+                medicalRecord.setAllergies(readReferences(buffer, strings));
+                medicalRecords[i] = medicalRecord;
+            }
+
+            IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+            data.setPersons(Arrays.asList(persons));
+            data.setFirestations(Arrays.asList(fireStations));
+            data.setMedicalrecords(Arrays.asList(medicalRecords));
+            return data;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            if (journaled) {
+                throw unreadable(snapshotFile, "is corrupted", e);
+            }
+            throw new IOException("Corrupted snapshot file " + snapshotFile, e);
+        }
+    }
+
+    private static IllegalStateException unreadable(Path snapshotFile, String reason, Exception cause) {
+        return new IllegalStateException("Snapshot " + snapshotFile + " may hold compacted journal mutations but " + reason
+                + " : restore the snapshot, or remove the snapshot and the journal to start from the Json file", cause);
+    }
+
+    private static void writeReferences(DataOutputStream out, StringTable strings, List<String> list) throws IOException {
+        if (list == null) {
+            out.writeInt(NULL_REFERENCE);
+            return;
+        }
+        /*count and references of the same values*/
+        List<String> values = new ArrayList<>(list);
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(strings.reference(value));
+        }
+    }
+
+    private static List<String> readReferences(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        if (count == NULL_REFERENCE) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(string(strings, buffer.getInt()));
+        }
+        return values;
+    }
+
+    private static String string(String[] strings, int reference) {
+        return reference == NULL_REFERENCE ? null : strings[reference];
+    }
+
+    /**
+     * Table of the distinct strings of the data, in order of first reference.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> references = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        /**
+         * @return the reference of a value, added to the table if not already held.
+         */
+        int reference(String value) {
+            if (value == null) {
+                return NULL_REFERENCE;
+            }
+            Integer reference = references.putIfAbsent(value, values.size());
+            if (reference == null) {
+                values.add(value);
+                return values.size() - 1;
+            }
+            return reference;
+        }
+    }
+}
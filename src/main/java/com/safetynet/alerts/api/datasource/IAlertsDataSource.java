@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A data source to:
@@ -19,10 +20,32 @@ public interface IAlertsDataSource {
     /**
      * Load SafetyNet Alerts data from Json file defined by
      * "datasource.filepath" application property. Shall be called
-     * first before accessing to data through getData method
+     * first before accessing to data through getData method.
+     * The path is a file system path or, if no such file exists, a class path resource.
      */
     void load(String dataSourceFilePath) throws IOException;
 
+    /**
+     * Load SafetyNet Alerts data from Json file, the persons, fire stations and medical
+     * records sections being deserialized in parallel by the given executor.
+     * Returns once all sections have been loaded.
+     */
+    void load(String dataSourceFilePath, Executor executor) throws IOException;
+
+    /**
+     * Load SafetyNet Alerts data from a binary snapshot, if it is up to date with the Json file.
+     *
+     * @return true if data have been loaded, false if the snapshot is missing or stale.
+     * @throws IllegalStateException if the snapshot holds journaled mutations and the Json file has changed.
+     */
+    boolean loadSnapshot(String snapshotFilePath, String dataSourceFilePath) throws IOException;
+
+    /**
+     * Write a binary snapshot of the loaded SafetyNet Alerts data, to be loaded on next start
+     * instead of the Json file. A journaled snapshot holds mutations that are not in the Json file.
+     */
+    void writeSnapshot(String snapshotFilePath, String dataSourceFilePath, boolean journaled) throws IOException;
+
     /**
      * Get SafetyNet Alerts data loaded from Json file.
      *
@@ -31,7 +54,27 @@ public interface IAlertsDataSource {
     Data getData();
 
     /**
-     * AlertsDataSource Data class holds persons, fire stations and medical records
+     * Replace the values of a person repeated across persons (address, city, zip) by their canonical instances,
+     * shared by the loaded data. Called by DAOs on the persons they create or update.
+     * Implementations without a dictionary leave the person unchanged.
+     */
+    default void canonicalize(Person person) {}
+
+    /**
+     * Replace the address of a fire station mapping by its canonical instance, shared by the loaded data.
+     */
+    default void canonicalize(FireStation fireStation) {}
+
+    /**
+     * Replace the medications and allergies of a medical record by their canonical instances, shared by the loaded data.
+     * The medications and allergies lists are replaced, not modified.
+     */
+    default void canonicalize(MedicalRecord medicalRecord) {}
+
+    /**
+     * AlertsDataSource Data class holds persons, fire stations and medical records.
+     * Each list is a {@link LockFreeList} : it can be read (iterated, streamed) by any thread
+     * without locking while being modified by others. Other lists are copied into a {@link SnapshotList}.
      */
     class Data {
         @JsonProperty(value = "persons")
@@ -46,7 +89,7 @@ public interface IAlertsDataSource {
         }
 
         public void setPersons(List<Person> persons) {
-            this.persons = persons;
+            this.persons = persons == null || persons instanceof LockFreeList ? persons : new SnapshotList<>(persons);
         }
 
         public List<FireStation> getFirestations() {
@@ -54,7 +97,7 @@ public interface IAlertsDataSource {
         }
 
         public void setFirestations(List<FireStation> firestations) {
-            this.firestations = firestations;
+            this.firestations = firestations == null || firestations instanceof LockFreeList ? firestations : new SnapshotList<>(firestations);
         }
 
         public List<MedicalRecord> getMedicalrecords() {
@@ -62,7 +105,7 @@ public interface IAlertsDataSource {
         }
 
         public void setMedicalrecords(List<MedicalRecord> medicalrecords) {
-            this.medicalrecords = medicalrecords;
+            this.medicalrecords = medicalrecords == null || medicalrecords instanceof LockFreeList ? medicalrecords : new SnapshotList<>(medicalrecords);
         }
     }
 }
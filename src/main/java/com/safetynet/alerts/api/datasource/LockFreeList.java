@@ -0,0 +1,12 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.List;
+
+/**
+ * List that any thread can read (iterate, stream) without locking while it is being modified by others,
+ * without ever throwing ConcurrentModificationException. {@link IAlertsDataSource.Data} holds such lists as they are.
+ *
+ * @param <E> type of the elements.
+ */
+public interface LockFreeList<E> extends List<E> {
+}
@@ -0,0 +1,257 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread safe list giving lock-free reads over immutable snapshots.
+ *  - readers (get, size, iterator, stream...) work on the snapshot published by the last write,
+ *    they never block and never throw ConcurrentModificationException.
+ *  - writers are serialized by the list lock. Appends are amortized O(1) : the new element is written
+ *    past the size of every published snapshot, then a new snapshot is published. Other writes copy
+ *    the elements (copy-on-write).
+ *
+ * @param <E> type of the elements.
+ */
+public class SnapshotList<E> extends AbstractList<E> implements LockFreeList<E>, RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+
+    public SnapshotList() {
+        snapshot = new Snapshot(new Object[DEFAULT_CAPACITY], 0);
+    }
+
+    public SnapshotList(Collection<? extends E> elements) {
+        Object[] array = elements.toArray();
+        snapshot = new Snapshot(Arrays.copyOf(array, Math.max(array.length, DEFAULT_CAPACITY), Object[].class), array.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Snapshot current = snapshot;
+        Objects.checkIndex(index, current.size);
+        return (E) current.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size;
+    }
+
+    @Override
+    public boolean add(E element) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Object[] elements = current.elements;
+            if (current.size == elements.length) {
+                elements = Arrays.copyOf(elements, elements.length + (elements.length >> 1) + 1);
+            }
+            elements[current.size] = element;
+            snapshot = new Snapshot(elements, current.size + 1);
+            modCount++;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection) {
+        Object[] added = collection.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Object[] elements = current.elements;
+            int newSize = current.size + added.length;
+            if (newSize > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(newSize, elements.length + (elements.length >> 1) + 1));
+            }
+            System.arraycopy(added, 0, elements, current.size, added.length);
+            snapshot = new Snapshot(elements, newSize);
+            modCount++;
+            return true;
+        }
+    }
+
+    @Override
+    public void add(int index, E element) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Objects.checkIndex(index, current.size + 1);
+            Object[] elements = new Object[Math.max(current.size + 1, current.elements.length)];
+            System.arraycopy(current.elements, 0, elements, 0, index);
+            elements[index] = element;
+            System.arraycopy(current.elements, index, elements, index + 1, current.size - index);
+            snapshot = new Snapshot(elements, current.size + 1);
+            modCount++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Objects.checkIndex(index, current.size);
+            Object[] elements = Arrays.copyOf(current.elements, current.elements.length);
+            E previous = (E) elements[index];
+            elements[index] = element;
+            snapshot = new Snapshot(elements, current.size);
+            return previous;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Objects.checkIndex(index, current.size);
+            E previous = (E) current.elements[index];
+            snapshot = current.without(index);
+            modCount++;
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            for (int i = 0; i < current.size; i++) {
+                if (Objects.equals(element, current.elements[i])) {
+                    snapshot = current.without(i);
+                    modCount++;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super E> filter) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Object[] elements = new Object[current.elements.length];
+            int size = 0;
+            for (int i = 0; i < current.size; i++) {
+                if (!filter.test((E) current.elements[i])) {
+                    elements[size++] = current.elements[i];
+                }
+            }
+            if (size == current.size) {
+                return false;
+            }
+            snapshot = new Snapshot(elements, size);
+            modCount++;
+            return true;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<E> operator) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            Object[] elements = new Object[current.elements.length];
+            for (int i = 0; i < current.size; i++) {
+                elements[i] = operator.apply((E) current.elements[i]);
+            }
+            snapshot = new Snapshot(elements, current.size);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            snapshot = new Snapshot(new Object[DEFAULT_CAPACITY], 0);
+            modCount++;
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator<>(snapshot);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        Snapshot current = snapshot;
+        return Spliterators.spliterator(current.elements, 0, current.size, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Snapshot current = snapshot;
+        for (int i = 0; i < current.size; i++) {
+            action.accept((E) current.elements[i]);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        Snapshot current = snapshot;
+        return Arrays.copyOf(current.elements, current.size);
+    }
+
+    /**
+     * Elements of the list at one point in time : the first 'size' elements of the array.
+     * Elements are never modified once published, except past 'size' by appends.
+     */
+    private static final class Snapshot {
+        private final Object[] elements;
+        private final int size;
+
+        Snapshot(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        Snapshot without(int index) {
+            Object[] copy = new Object[elements.length];
+            System.arraycopy(elements, 0, copy, 0, index);
+            System.arraycopy(elements, index + 1, copy, index, size - index - 1);
+            return new Snapshot(copy, size - 1);
+        }
+    }
+
+    private static final class SnapshotIterator<E> implements Iterator<E> {
+        private final Snapshot snapshot;
+        private int cursor;
+
+        SnapshotIterator(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < snapshot.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (cursor >= snapshot.size) {
+                throw new NoSuchElementException();
+            }
+            return (E) snapshot.elements[cursor++];
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.safetynet.alerts.api.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the canonical instances of strings : equal strings are replaced by a single shared instance.
+ *
+ * Used for the values repeated across entities (addresses, cities, zips, medications, allergies) so that the
+ * datasource holds each distinct value once. The dictionary can be used by any thread, it only grows : it holds the
+ * distinct values ever seen, which for these fields is about the size of the data.
+ */
+class StringDictionary {
+
+    private final Map<String, String> canonicals = new ConcurrentHashMap<>();
+
+    /**
+     * @param value a string, possibly null.
+     * @return the canonical instance of the string, the string itself if it is seen for the first time.
+     */
+    String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = canonicals.get(value);
+        if (canonical == null) {
+            canonical = canonicals.putIfAbsent(value, value);
+            if (canonical == null) {
+                canonical = value;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * @param values a list of strings, possibly null.
+     * @return the list itself if its strings are already canonical, else a new list of the canonical instances.
+     */
+    List<String> canonical(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (canonical(values.get(i)) != values.get(i)) {
+                List<String> canonicalValues = new ArrayList<>(values.size());
+                for (String value : values) {
+                    canonicalValues.add(canonical(value));
+                }
+                return canonicalValues;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the number of distinct strings of the dictionary.
+     */
+    int size() {
+        return canonicals.size();
+    }
+}
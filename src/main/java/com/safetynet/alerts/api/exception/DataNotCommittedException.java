@@ -0,0 +1,20 @@
+package com.safetynet.alerts.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception to throw when the mutation of a data could not be committed, e.g. it could not be journaled.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DataNotCommittedException extends ServiceException{
+
+    public DataNotCommittedException(String dataName){
+        super("Mutation of data '" + dataName + "' could not be committed, retry later !");
+    }
+
+    @Override
+    public HttpStatus getHttpStatus() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
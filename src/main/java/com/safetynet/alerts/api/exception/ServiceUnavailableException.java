@@ -0,0 +1,20 @@
+package com.safetynet.alerts.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception to throw when a request can not be handled for now, e.g. too many requests of the same kind are pending.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends ServiceException{
+
+    public ServiceUnavailableException(String serviceName){
+        super("Service '" + serviceName + "' is overloaded, retry later !");
+    }
+
+    @Override
+    public HttpStatus getHttpStatus() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.safetynet.alerts.api.journal;
+
+import java.io.IOException;
+
+/**
+ * An append-only journal of the mutations of the datasource, so that they survive restarts.
+ */
+public interface IMutationJournal {
+    /**
+     * Replay the journaled mutations on the loaded datasource.
+     * Shall be called once data have been loaded, before mutating the datasource.
+     *
+     * @return number of mutations replayed.
+     * @throws IOException if the journal can not be read.
+     */
+    int replay() throws IOException;
+
+    /**
+     * Compact the journal : write a snapshot of the datasource then discard the mutations it holds.
+     *
+     * @throws IOException if the snapshot can not be written.
+     */
+    void compact() throws IOException;
+}
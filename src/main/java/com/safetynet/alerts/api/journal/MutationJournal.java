@@ -0,0 +1,499 @@
+package com.safetynet.alerts.api.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * MutationJournal appends every mutation of the datasource to a journal file before the mutation is acknowledged.
+ *
+ *  - group commit : mutations are appended to an in memory batch while the DAO holds its lock, the first writer
+ *    awaiting its commit then writes and fsyncs the whole batch on behalf of all the writers that joined it.
+ *  - journal is made of numbered segment files : on startup the segments are replayed on top of the loaded data
+ *    (snapshot or json file), new mutations are appended to a new segment.
+ *  - compaction writes a snapshot of the datasource then deletes the segments it holds. The snapshot is flagged as
+ *    journaled : it is never discarded when the json file changes, startup fails instead of losing its mutations.
+ *
+ * A record is the length of its payload, the CRC32 of its payload, then the payload : operation, entity type and
+ * entity as json. Replay stops at the first incomplete or corrupted record of a segment (write interrupted by a crash).
+ * Mutations are journaled with the full state of the entity : replaying a mutation already held by the snapshot
+ * leaves data unchanged or fails and is skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.journal.dirpath")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
+public class MutationJournal implements IMutationJournal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    /*Record header : payload length and CRC32*/
+    private static final int HEADER_SIZE = 8;
+
+    /*Journaled entity types, identified by their ordinal*/
+    private enum EntityType {
+        PERSON(Person.class), FIRE_STATION(FireStation.class), MEDICAL_RECORD(MedicalRecord.class);
+
+        private final Class<?> entityClass;
+
+        EntityType(Class<?> entityClass) {
+            this.entityClass = entityClass;
+        }
+
+        static EntityType of(Object entity) {
+            for (EntityType entityType : values()) {
+                if (entityType.entityClass.isInstance(entity)) {
+                    return entityType;
+                }
+            }
+            throw new IllegalArgumentException("Not a journaled entity : " + entity.getClass());
+        }
+    }
+
+    private final IAlertsDataSource dataSource;
+    private final IPersonDao personDao;
+    private final IFireStationDao fireStationDao;
+    private final IMedicalRecordDao medicalRecordDao;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${datasource.journal.dirpath}")
+    private String journalDirPath;
+
+    @Value("${datasource.snapshot.filepath:}")
+    private String snapshotFilePath;
+
+    @Value("${datasource.filepath}")
+    private String dataSourceFilePath;
+
+    /*Guards the batch, the sequences and the current segment*/
+    private final Object lock = new Object();
+    /*Serializes compactions*/
+    private final Object compactionLock = new Object();
+
+    /*Records appended and not yet written*/
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    /*Sequence of the last record appended, of the last record written and fsynced, of the last record before rotation*/
+    private long appendedSequence;
+    private long durableSequence;
+    private long rotatedSequence;
+    /*true while a writer is writing a batch*/
+    private boolean flushing;
+    /*Write failure : the journal can no longer commit*/
+    private IOException failure;
+    private long segment;
+    private FileChannel channel;
+
+    /*Thread replaying the journal, whose mutations shall not be journaled again*/
+    private volatile Thread replayingThread;
+
+    /**
+     * Append a mutation of the datasource to the journal.
+     * The DAO awaits the commit of the mutation once it has released its lock.
+     * Journal listens first : a mutation that can not be appended is rolled back by the DAO before any other listener
+     * receives it. Rollbacks undo mutations never appended, they are not journaled.
+     *
+     * @param event the mutation.
+     * @throws UncheckedIOException if the mutation can not be appended.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDataMutation(DataMutationEvent event) {
+        if (event.isRollback() || Thread.currentThread() == replayingThread) {
+            return;
+        }
+        try {
+            long sequence = append(encode(event));
+            event.addCommit(() -> awaitDurable(sequence));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Mutation can not be journaled", e);
+        }
+    }
+
+    /**
+     * Replay the journaled mutations on the loaded datasource.
+     *
+     * @return number of mutations replayed.
+     * @throws IOException if the journal can not be read.
+     */
+    @Override
+    public int replay() throws IOException {
+        List<Path> segmentsToReplay;
+        synchronized (lock) {
+            openIfNeeded();
+            segmentsToReplay = segmentsBefore(segment);
+        }
+        int replayed = 0;
+        int skipped = 0;
+        replayingThread = Thread.currentThread();
+        try {
+            for (Path segmentToReplay : segmentsToReplay) {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentToReplay));
+                byte[] payload;
+                while ((payload = nextRecord(buffer, segmentToReplay)) != null) {
+                    if (apply(payload)) {
+                        replayed++;
+                    } else {
+                        skipped++;
+                    }
+                }
+            }
+        } finally {
+            replayingThread = null;
+        }
+        log.info(replayed + " journaled mutations replayed from " + segmentsToReplay.size() + " segments, " + skipped + " skipped");
+        return replayed;
+    }
+
+    /**
+     * Compact the journal : write a snapshot of the datasource then delete the segments it holds.
+     * Mutations appended while the snapshot is written are kept in the journal.
+     *
+     * @throws IOException if the snapshot can not be written.
+     */
+    @Override
+    public void compact() throws IOException {
+        if (snapshotFilePath.isEmpty()) {
+            log.warn("No snapshot file configured, journal can not be compacted");
+            return;
+        }
+        synchronized (compactionLock) {
+            long firstKeptSegment;
+            synchronized (lock) {
+                if (channel == null || (appendedSequence == rotatedSequence && segmentsBefore(segment).isEmpty())) {
+                    return;
+                }
+            }
+            firstKeptSegment = rotate();
+            dataSource.writeSnapshot(snapshotFilePath, dataSourceFilePath, true);
+            for (Path compactedSegment : segmentsBefore(firstKeptSegment)) {
+                Files.delete(compactedSegment);
+            }
+            log.info("Journal compacted into snapshot " + snapshotFilePath);
+        }
+    }
+
+    /**
+     * Periodically compact the journal.
+     */
+    @Scheduled(initialDelayString = "${datasource.journal.compaction.delay:600000}", fixedDelayString = "${datasource.journal.compaction.delay:600000}")
+    public void scheduledCompaction() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal compaction failed", e);
+        }
+    }
+
+    /**
+     * Append a record to the current batch.
+     *
+     * @param payload the record payload.
+     * @return sequence of the record.
+     * @throws IOException if the journal can not be opened or has failed.
+     */
+    private long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(payload.length).putInt((int) crc.getValue());
+        synchronized (lock) {
+            if (failure != null) {
+                throw new IOException("Journal has failed", failure);
+            }
+            openIfNeeded();
+            batch.write(header.array(), 0, HEADER_SIZE);
+            batch.write(payload, 0, payload.length);
+            return ++appendedSequence;
+        }
+    }
+
+    /**
+     * Wait until a record is written and fsynced. If no batch is being written, the caller writes the current batch,
+     * including the records appended by other writers, else it waits for the batch being written.
+     *
+     * @param sequence sequence of the record.
+     * @throws IOException if the record could not be written.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        byte[] records;
+        long batchSequence;
+        FileChannel batchChannel;
+        synchronized (lock) {
+            while (durableSequence < sequence && failure == null && flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for journal commit");
+                }
+            }
+            if (durableSequence >= sequence) {
+                return;
+            }
+            if (failure != null) {
+                throw new IOException("Journal has failed", failure);
+            }
+            flushing = true;
+            records = batch.toByteArray();
+            batch.reset();
+            batchSequence = appendedSequence;
+            batchChannel = channel;
+        }
+        try {
+            write(batchChannel, records);
+        } catch (IOException e) {
+            endFlush(batchSequence, e);
+            throw e;
+        }
+        endFlush(batchSequence, null);
+    }
+
+    /**
+     * Write the current batch and start a new segment.
+     *
+     * @return number of the new segment.
+     * @throws IOException if the batch could not be written or the segment created.
+     */
+    private long rotate() throws IOException {
+        byte[] records;
+        long batchSequence;
+        FileChannel batchChannel;
+        long nextSegment;
+        synchronized (lock) {
+            while (flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for journal commit");
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Journal has failed", failure);
+            }
+            flushing = true;
+            records = batch.toByteArray();
+            batch.reset();
+            batchSequence = appendedSequence;
+            batchChannel = channel;
+            nextSegment = segment + 1;
+        }
+        FileChannel nextChannel;
+        try {
+            write(batchChannel, records);
+            nextChannel = openSegment(nextSegment);
+            batchChannel.close();
+        } catch (IOException e) {
+            endFlush(batchSequence, e);
+            throw e;
+        }
+        synchronized (lock) {
+            channel = nextChannel;
+            segment = nextSegment;
+            rotatedSequence = batchSequence;
+        }
+        endFlush(batchSequence, null);
+        return nextSegment;
+    }
+
+    private void endFlush(long batchSequence, IOException writeFailure) {
+        synchronized (lock) {
+            if (writeFailure == null) {
+                durableSequence = batchSequence;
+            } else {
+                failure = writeFailure;
+                log.error("Journal write failed, mutations can no longer be committed", writeFailure);
+            }
+            flushing = false;
+            lock.notifyAll();
+        }
+    }
+
+    private static void write(FileChannel fileChannel, byte[] records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records);
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        fileChannel.force(false);
+    }
+
+    /**
+     * Open a new segment after the existing ones, if not already opened. Shall be called while holding lock.
+     */
+    private void openIfNeeded() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(Paths.get(journalDirPath));
+            List<Path> segments = segmentsBefore(Long.MAX_VALUE);
+            segment = segments.isEmpty() ? 1 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+            channel = openSegment(segment);
+        }
+    }
+
+    private FileChannel openSegment(long segmentNumber) throws IOException {
+        Path directory = Paths.get(journalDirPath);
+        FileChannel segmentChannel = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        /*fsync the directory so that the new segment survives a crash*/
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            log.debug("Journal directory can not be fsynced", e);
+        }
+        return segmentChannel;
+    }
+
+    /**
+     * @return the segment files numbered before the given segment number, in order.
+     */
+    private List<Path> segmentsBefore(long segmentNumber) throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(journalDirPath))) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .filter(file -> segmentNumber(file) < segmentNumber)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumber(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private byte[] encode(DataMutationEvent event) throws IOException {
+        byte[] entity = mapper.writeValueAsBytes(event.getEntity());
+        byte[] payload = new byte[entity.length + 2];
+        payload[0] = (byte) event.getOperation().ordinal();
+        payload[1] = (byte) EntityType.of(event.getEntity()).ordinal();
+        System.arraycopy(entity, 0, payload, 2, entity.length);
+        return payload;
+    }
+
+    /**
+     * Read the next record of a segment.
+     *
+     * @return the record payload, or null at the end of the segment or at the first incomplete or corrupted record.
+     */
+    private static byte[] nextRecord(ByteBuffer buffer, Path segmentFile) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        if (buffer.remaining() < HEADER_SIZE) {
+            log.warn("Incomplete record at the end of journal segment " + segmentFile);
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length < 2 || length > buffer.remaining()) {
+            log.warn("Incomplete record at the end of journal segment " + segmentFile);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            log.warn("Corrupted record in journal segment " + segmentFile + ", following records are ignored");
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * Apply a journaled mutation to the datasource.
+     *
+     * @return true if applied, false if skipped because it conflicts with the data (already applied).
+     */
+    private boolean apply(byte[] payload) throws IOException {
+        DataMutationEvent.Operation operation = DataMutationEvent.Operation.values()[payload[0]];
+        EntityType entityType = EntityType.values()[payload[1]];
+        Object entity = mapper.readValue(payload, 2, payload.length - 2, entityType.entityClass);
+        try {
+            switch (entityType) {
+                case PERSON:
+                    applyPerson(operation, (Person) entity);
+                    break;
+                case FIRE_STATION:
+                    applyFireStation(operation, (FireStation) entity);
+                    break;
+                default:
+                    applyMedicalRecord(operation, (MedicalRecord) entity);
+            }
+            return true;
+        } catch (ServiceException e) {
+            log.debug("Journaled mutation skipped : " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void applyPerson(DataMutationEvent.Operation operation, Person person) throws ServiceException {
+        switch (operation) {
+            case CREATE:
+                personDao.createPerson(person);
+                break;
+            case UPDATE:
+                personDao.updatePerson(person);
+                break;
+            default:
+                personDao.deletePerson(person.getFirstName(), person.getLastName());
+        }
+    }
+
+    private void applyFireStation(DataMutationEvent.Operation operation, FireStation fireStation) throws ServiceException {
+        switch (operation) {
+            case CREATE:
+                fireStationDao.createFireStation(fireStation);
+                break;
+            case UPDATE:
+                fireStationDao.updateFireStation(fireStation);
+                break;
+            default:
+                fireStationDao.deleteFireStation(fireStation.getAddress());
+        }
+    }
+
+    private void applyMedicalRecord(DataMutationEvent.Operation operation, MedicalRecord medicalRecord) throws ServiceException {
+        switch (operation) {
+            case CREATE:
+                medicalRecordDao.createMedicalRecord(medicalRecord);
+                break;
+            case UPDATE:
+                medicalRecordDao.updateMedicalRecord(medicalRecord);
+                break;
+            default:
+                medicalRecordDao.deleteMedicalRecord(medicalRecord.getFirstName(), medicalRecord.getLastName());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.safetynet.alerts.api.metrics;
+
+import com.safetynet.alerts.api.model.dto.ChildAlertDto;
+import com.safetynet.alerts.api.model.dto.FireDto;
+import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record the metrics of the calls to the methods of a bean, tagged by endpoint ("GET /firestation", "none" outside
+ * of a request) and operation ("FireStationService.getPersons") :
+ *  - {layer} : timer of the calls, with percentile histogram, also tagged by the exception thrown ("none" on success),
+ *  - {layer}.result.size : distribution of the number of items returned (collections, optionals and alert DTOs),
+ *  - {layer}.lookups : for the getters of the DAOs, lookups that found data (result "hit") or not ("miss") in the indexes.
+ */
+class MethodMetricsInterceptor implements MethodInterceptor {
+
+    private static final String NONE = "none";
+
+    private final String layer;
+    private final String className;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final boolean recordLookups;
+
+    /*Meters of each method by endpoint, exceptions excluded*/
+    private final Map<Method, Map<String, MethodMeters>> meters = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    MethodMetricsInterceptor(String layer, String className, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.layer = layer;
+        this.className = className;
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.recordLookups = layer.endsWith(".dao");
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String endpoint = currentEndpoint();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            timer(invocation.getMethod(), endpoint, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        long durationNanos = System.nanoTime() - start;
+
+        MethodMeters methodMeters = meters.computeIfAbsent(invocation.getMethod(), method -> new ConcurrentHashMap<>())
+                .computeIfAbsent(endpoint, e -> new MethodMeters(invocation.getMethod(), e));
+        methodMeters.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        int size = resultSize(result);
+        if (size >= 0) {
+            methodMeters.resultSize.record(size);
+        }
+        if (methodMeters.hits != null) {
+            /*a single value is found unless null*/
+            (size > 0 || size < 0 && result != null ? methodMeters.hits : methodMeters.misses).increment();
+        }
+        return result;
+    }
+
+    /**
+     * Get the endpoint of the request handled by the current thread.
+     */
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NONE : request.getMethod() + " " + pattern;
+    }
+
+    /**
+     * Get the number of items of a result, -1 if it is not a container.
+     */
+    static int resultSize(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        } else if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else if (result != null && result.getClass().isArray()) {
+            return Array.getLength(result);
+        } else if (result instanceof FireStationPersonsDto) {
+            return size(((FireStationPersonsDto) result).getPersons());
+        } else if (result instanceof FireDto) {
+            return size(((FireDto) result).getPersons());
+        } else if (result instanceof ChildAlertDto) {
+            return size(((ChildAlertDto) result).getChildren()) + size(((ChildAlertDto) result).getAdults());
+        }
+        return -1;
+    }
+
+    private static int size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
+    private MeterRegistry meterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistryProvider.getObject();
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+
+    private String operation(Method method) {
+        return className + "." + method.getName();
+    }
+
+    private Timer timer(Method method, String endpoint, String exception) {
+        return Timer.builder(layer)
+                .description("Calls to the " + layer.substring(layer.lastIndexOf('.') + 1) + " methods")
+                .tags("endpoint", endpoint, "operation", operation(method), "exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry());
+    }
+
+    /**
+     * Meters of a method called while handling an endpoint, once its call has succeeded.
+     */
+    private class MethodMeters {
+        private final Timer timer;
+        private final DistributionSummary resultSize;
+        /*Lookups counters, null for the methods that do not look data up*/
+        private final Counter hits;
+        private final Counter misses;
+
+        MethodMeters(Method method, String endpoint) {
+            this.timer = timer(method, endpoint, NONE);
+            this.resultSize = DistributionSummary.builder(layer + ".result.size")
+                    .description("Number of items returned")
+                    .baseUnit("items")
+                    .tags("endpoint", endpoint, "operation", operation(method))
+                    .register(meterRegistry());
+            if (recordLookups && method.getName().startsWith("get")) {
+                this.hits = lookups(method, endpoint, "hit");
+                this.misses = lookups(method, endpoint, "miss");
+            } else {
+                this.hits = null;
+                this.misses = null;
+            }
+        }
+
+        private Counter lookups(Method method, String endpoint, String result) {
+            return Counter.builder(layer + ".lookups")
+                    .description("Index lookups that found data (hit) or not (miss)")
+                    .tags("endpoint", endpoint, "operation", operation(method), "result", result)
+                    .register(meterRegistry());
+        }
+    }
+}
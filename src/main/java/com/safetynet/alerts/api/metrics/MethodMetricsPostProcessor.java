@@ -0,0 +1,63 @@
+package com.safetynet.alerts.api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Wrap the services and the DAOs into a proxy recording the metrics of each method of their interfaces
+ * (see {@link MethodMetricsInterceptor}).
+ *
+ * Proxies subclass the bean class, so that beans are still injectable by class and their lifecycle methods still apply.
+ * The meter registry is only resolved by the first call, not to initialize it before its own post processors.
+ */
+@Component
+@ConditionalOnProperty(name = "api.metrics.methods.enabled", havingValue = "true", matchIfMissing = true)
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+
+    /*Layer, i.e. metric name prefix, of the beans of each instrumented package*/
+    private static final Map<String, String> LAYERS = Map.of(
+            "com.safetynet.alerts.api.service", "alerts.service",
+            "com.safetynet.alerts.api.dao", "alerts.dao");
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MethodMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> beanClass = AopUtils.getTargetClass(bean);
+        String layer = LAYERS.get(beanClass.getPackageName());
+        if (layer == null || beanClass.getInterfaces().length == 0) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new InterfaceMethodPointcut(),
+                new MethodMetricsInterceptor(layer, beanClass.getSimpleName(), meterRegistry)));
+        return proxyFactory.getProxy(beanClass.getClassLoader());
+    }
+
+    /**
+     * Match the methods declared by an interface of the bean class.
+     */
+    private static class InterfaceMethodPointcut extends StaticMethodMatcherPointcut {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return ClassUtils.getAllInterfacesForClassAsSet(targetClass).stream()
+                    .anyMatch(i -> ClassUtils.hasMethod(i, method.getName(), method.getParameterTypes()));
+        }
+    }
+}
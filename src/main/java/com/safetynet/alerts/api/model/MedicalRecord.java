@@ -22,9 +22,9 @@ public class MedicalRecord {
     public MedicalRecord(MedicalRecord medicalRecord){
         this.firstName = medicalRecord.firstName;
         this.lastName = medicalRecord.lastName;
-        this.birthdate = new Date(medicalRecord.birthdate.getTime());
-        this.medications = new ArrayList<>(medicalRecord.medications);
-        this.allergies = new ArrayList<>(medicalRecord.allergies);
+        this.birthdate = medicalRecord.birthdate == null ? null : new Date(medicalRecord.birthdate.getTime());
+        this.medications = medicalRecord.medications == null ? null : new ArrayList<>(medicalRecord.medications);
+        this.allergies = medicalRecord.allergies == null ? null : new ArrayList<>(medicalRecord.allergies);
     }
 
     public String getFirstName() {
@@ -0,0 +1,24 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Result of one item of a batch request.
+ */
+@Getter
+@Setter
+public class BatchItemResultDto {
+    /*Position of the item in the request, from 0*/
+    private int index;
+    /*Http status code the item would have been answered with by the single item endpoint*/
+    private int status;
+    /*Reason of the failure, null if the item has been applied*/
+    private String message;
+
+    public BatchItemResultDto(int index, int status, String message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+}
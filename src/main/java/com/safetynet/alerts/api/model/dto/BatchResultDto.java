@@ -0,0 +1,27 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Result of a batch request : counts, throughput and result of each item.
+ */
+@Getter
+@Setter
+public class BatchResultDto {
+    private int succeeded;
+    private int failed;
+    private long durationMillis;
+    private long itemsPerSecond;
+    private List<BatchItemResultDto> results;
+
+    public BatchResultDto(int succeeded, int failed, long durationMillis, long itemsPerSecond, List<BatchItemResultDto> results) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.durationMillis = durationMillis;
+        this.itemsPerSecond = itemsPerSecond;
+        this.results = results;
+    }
+}
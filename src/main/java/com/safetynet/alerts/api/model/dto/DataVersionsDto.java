@@ -0,0 +1,22 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+public class DataVersionsDto {
+    private long epoch;
+    private long generation;
+    private Map<String, Long> addresses;
+    private Map<Integer, Long> stations;
+
+    public DataVersionsDto(long epoch, long generation, Map<String, Long> addresses, Map<Integer, Long> stations) {
+        this.epoch = epoch;
+        this.generation = generation;
+        this.addresses = addresses;
+        this.stations = stations;
+    }
+}
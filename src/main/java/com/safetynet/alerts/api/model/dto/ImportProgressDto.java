@@ -0,0 +1,42 @@
+package com.safetynet.alerts.api.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Progress of an import : counts so far, throughput and first errors.
+ */
+@Getter
+@Setter
+public class ImportProgressDto {
+    private long id;
+    /*RUNNING, COMPLETED or FAILED (body malformed or not readable, mutation not committed)*/
+    private String state;
+    private long durationMillis;
+    /*Records parsed from the body*/
+    private long read;
+    /*Records parsed and waiting to be applied*/
+    private int queued;
+    private long created;
+    private long updated;
+    private long failed;
+    private long recordsPerSecond;
+    /*First failures, index being the position of the record in the body from 0*/
+    private List<BatchItemResultDto> errors;
+
+    public ImportProgressDto(long id, String state, long durationMillis, long read, int queued, long created, long updated,
+                             long failed, long recordsPerSecond, List<BatchItemResultDto> errors) {
+        this.id = id;
+        this.state = state;
+        this.durationMillis = durationMillis;
+        this.read = read;
+        this.queued = queued;
+        this.created = created;
+        this.updated = updated;
+        this.failed = failed;
+        this.recordsPerSecond = recordsPerSecond;
+        this.errors = errors;
+    }
+}
@@ -1,5 +1,6 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.dao.IFireStationDao;
 import com.safetynet.alerts.api.dao.IMedicalRecordDao;
 import com.safetynet.alerts.api.dao.IPersonDao;
@@ -7,11 +8,15 @@ import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FloodDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
 import com.safetynet.alerts.api.utils.Age;
+import com.safetynet.alerts.api.utils.ISingleFlight;
+import com.safetynet.alerts.api.view.IStationResidentView;
+import com.safetynet.alerts.api.view.StationResidents;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,11 +26,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of {@link IFireStationService} to get,
  * delete or save a fire station mapping from/to a datasource.
+ * Identical queries running concurrently share their computation (see {@link ISingleFlight}).
  */
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -36,6 +43,9 @@ public class FireStationService implements IFireStationService {
     private final IPersonDao personDao;
     private final IMedicalRecordDao medicalRecordDao;
     private final IDtoMapper<Person,PersonDto> personDtoMapper;
+    private final IStationResidentView stationResidentView;
+    private final IFloodQueryEngine floodQueryEngine;
+    private final ISingleFlight singleFlight;
     /**
      * Delete a fire station mapping.
      *
@@ -70,6 +80,18 @@ public class FireStationService implements IFireStationService {
         return fireStationDao.createFireStation(fireStationToCreate);
     }
 
+    /**
+     * Create, update or delete a chunk of fire station mappings at once.
+     *
+     * @param operation the mutation to apply to each fire station.
+     * @param fireStations fire stations to create or update, fire stations to delete (only their address is used).
+     * @return for each fire station, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutateFireStations(DataMutationEvent.Operation operation, List<FireStation> fireStations) {
+        return fireStationDao.mutateFireStations(operation, fireStations);
+    }
+
     /**
      * Get the list of persons that depends on that fire station.
      *
@@ -78,21 +100,34 @@ public class FireStationService implements IFireStationService {
      * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
      */
     public FireStationPersonsDto getPersons(Integer stationNumber) throws DataNotFoundException {
+        return singleFlight.execute("FireStationService.getPersons", () -> computePersons(stationNumber), stationNumber);
+    }
+
+    private FireStationPersonsDto computePersons(Integer stationNumber) throws DataNotFoundException {
+        Optional<StationResidents> residentsResult = stationResidentView.getResidents(stationNumber);
+        if (residentsResult.isPresent()) {
+            /*residents and their number of adults and children are materialized by the view*/
+            StationResidents residents = residentsResult.get();
+            if (!residents.hasAddresses()) {
+                throw new DataNotFoundException("Fire station number " + stationNumber);
+            }
+            return new FireStationPersonsDto(personDtoMapper.mapToDto(residents.getPersons()),
+                    residents.getNumberOfAdults(), residents.getNumberOfChildren());
+        }
+
         int numberOfAdults = 0;
         int numberOfChildren = 0;
-        final List<PersonDto> personDtos= new ArrayList<>();
+        final List<PersonDto> personDtos;
 
         final List<String> fireStationAddresses = fireStationDao.getAddresses(stationNumber);
         if(! fireStationAddresses.isEmpty()){
-            /*For each address covered by the fire station, get all persons (Dto) that lives at that address
-            and add them to the personDtos list*/
+            /*Get all persons that live at an address covered by the fire station,
+            then map them all at once to personDtos*/
+            final List<Person> persons = new ArrayList<>();
             for(String fireStationAddress : fireStationAddresses){
-                personDtos.addAll(
-                        personDao.getPersonsByAddress(fireStationAddress)
-                                .stream()
-                                .map(p -> personDtoMapper.mapToDto(p))
-                                .collect(Collectors.toList()));
+                persons.addAll(personDao.getPersonsByAddress(fireStationAddress));
             }
+            personDtos = personDtoMapper.mapToDto(persons);
             numberOfAdults = (int)personDtos.stream()
                     .filter(p -> Objects.nonNull(p.getAge()) && Age.isAdult(p.getAge()))
                     .count();
@@ -114,6 +149,18 @@ public class FireStationService implements IFireStationService {
      */
     @Override
     public List<String> getPhones(Integer stationNumber) throws DataNotFoundException {
+        return singleFlight.execute("FireStationService.getPhones", () -> computePhones(stationNumber), stationNumber);
+    }
+
+    private List<String> computePhones(Integer stationNumber) throws DataNotFoundException {
+        Optional<StationResidents> residentsResult = stationResidentView.getResidents(stationNumber);
+        if (residentsResult.isPresent()) {
+            if (!residentsResult.get().hasAddresses()) {
+                throw new DataNotFoundException("Fire station number " + stationNumber);
+            }
+            return new ArrayList<>(residentsResult.get().getPhones());
+        }
+
         List<String> phones = new ArrayList<>();
         final List<String> fireStationAddresses = fireStationDao.getAddresses(stationNumber);
         if (!fireStationAddresses.isEmpty()) {
@@ -136,25 +183,11 @@ public class FireStationService implements IFireStationService {
      * For each given fire station, get the list of homes that depends on it,
      * Home is defined by a list of persons that leave at same address, their medical record.
      *
-     * @param stations list of station numbers
-     * @retun List of object {@link FloodDto}
+     * @param stations list of station numbers, a station given several times is queried once.
+     * @retun List of object {@link FloodDto}, in the order documented by {@link IFloodQueryEngine#getFloodHomes(List)}
      */
     @Override
     public  List<FloodDto> getFloodHomes(List<Integer> stations) {
-        List<PersonDto> personDtos;
-        List<FloodDto> floodDtos = new ArrayList<>();
-
-        for(Integer stationNumber : stations){
-            for(String address : fireStationDao.getAddresses(stationNumber))
-            {
-                personDtos = personDao.getPersonsByAddress(address)
-                        .stream()
-                        .map(p -> personDtoMapper.mapToDto(p))
-                        .collect(Collectors.toList());
-
-                floodDtos.add(new FloodDto(address,personDtos));
-            }
-        }
-        return floodDtos;
+        return singleFlight.execute("FireStationService.getFloodHomes", () -> floodQueryEngine.getFloodHomes(stations), stations);
     }
 }
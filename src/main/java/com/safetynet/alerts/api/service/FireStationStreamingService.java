@@ -0,0 +1,223 @@
+package com.safetynet.alerts.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.utils.Age;
+import com.safetynet.alerts.api.utils.IAgeCache;
+import com.safetynet.alerts.api.view.IStationResidentView;
+import com.safetynet.alerts.api.view.StationResidents;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link IFireStationStreamingService} : persons and medical records are read from the DAO
+ * indexes address by address and written field by field with a {@link JsonGenerator}.
+ * Flood homes are assembled by {@link IFireStationService} then written field by field.
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
+public class FireStationStreamingService implements IFireStationStreamingService {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final IFireStationDao fireStationDao;
+    private final IPersonDao personDao;
+    private final IMedicalRecordDao medicalRecordDao;
+    private final IAgeCache ageCache;
+    private final IStationResidentView stationResidentView;
+    private final IFireStationService fireStationService;
+
+    /**
+     * Write the persons that depend on a fire station :
+     * {"persons":[{firstName, lastName, address, city, zip, phone}...],"numberOfAdults":n,"numberOfChildren":n}
+     *
+     * @param stationNumber the number of the fire station
+     * @param outputStream stream the json is written to.
+     * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
+     */
+    @Override
+    public void writePersons(Integer stationNumber, OutputStream outputStream) throws DataNotFoundException, IOException {
+        Optional<StationResidents> residentsResult = stationResidentView.getResidents(stationNumber);
+        if (residentsResult.isPresent()) {
+            writePersons(stationNumber, residentsResult.get(), outputStream);
+            return;
+        }
+
+        final List<String> fireStationAddresses = fireStationDao.getAddresses(stationNumber);
+        if (fireStationAddresses.isEmpty()) {
+            throw new DataNotFoundException("Fire station number " + stationNumber);
+        }
+        int numberOfAdults = 0;
+        int numberOfChildren = 0;
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("persons");
+            for (String fireStationAddress : fireStationAddresses) {
+                List<Person> persons = personDao.getPersonsByAddress(fireStationAddress);
+                List<Optional<MedicalRecord>> medicalRecords = medicalRecordDao.getMedicalRecords(persons);
+                for (int i = 0; i < persons.size(); i++) {
+                    Person person = persons.get(i);
+                    writeFireStationPerson(generator, person);
+
+                    Integer age = getAge(person, medicalRecords.get(i));
+                    if (age != null) {
+                        if (Age.isAdult(age)) {
+                            numberOfAdults++;
+                        } else {
+                            numberOfChildren++;
+                        }
+                    }
+                }
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("numberOfAdults", numberOfAdults);
+            generator.writeNumberField("numberOfChildren", numberOfChildren);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Write the persons that depend on a fire station from its materialized residents :
+     * residents ages do not need to be computed.
+     */
+    private void writePersons(Integer stationNumber, StationResidents residents, OutputStream outputStream) throws DataNotFoundException, IOException {
+        if (!residents.hasAddresses()) {
+            throw new DataNotFoundException("Fire station number " + stationNumber);
+        }
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("persons");
+            for (List<Person> persons : residents.getPersonsByAddress()) {
+                for (Person person : persons) {
+                    writeFireStationPerson(generator, person);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("numberOfAdults", residents.getNumberOfAdults());
+            generator.writeNumberField("numberOfChildren", residents.getNumberOfChildren());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Write the homes that depend on the given fire stations :
+     * [{"address":a,"persons":[{firstName, lastName, phone, age, medicalRecord:{medications, allergies}}...]}...]
+     *
+     * Homes are assembled by {@link IFireStationService#getFloodHomes(List)} : stations deduplicated, addresses
+     * assembled in parallel by the {@link IFloodQueryEngine} and identical queries sharing their computation,
+     * only the json serialization is streamed.
+     *
+     * @param stations list of station numbers, a station given several times is written once.
+     * @param outputStream stream the json is written to.
+     */
+    @Override
+    public void writeFloodHomes(List<Integer> stations, OutputStream outputStream) throws IOException {
+        List<FloodDto> floodDtos = fireStationService.getFloodHomes(stations);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (FloodDto floodDto : floodDtos) {
+                generator.writeStartObject();
+                writeStringField(generator, "address", floodDto.getAddress());
+                generator.writeArrayFieldStart("persons");
+                for (PersonDto personDto : floodDto.getPersons()) {
+                    writeFloodPerson(generator, personDto);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static void writeFireStationPerson(JsonGenerator generator, Person person) throws IOException {
+        generator.writeStartObject();
+        writeStringField(generator, "firstName", person.getFirstName());
+        writeStringField(generator, "lastName", person.getLastName());
+        writeStringField(generator, "address", person.getAddress());
+        writeStringField(generator, "city", person.getCity());
+        writeStringField(generator, "zip", person.getZip());
+        writeStringField(generator, "phone", person.getPhone());
+        generator.writeEndObject();
+    }
+
+    private static void writeFloodPerson(JsonGenerator generator, PersonDto personDto) throws IOException {
+        generator.writeStartObject();
+        writeStringField(generator, "firstName", personDto.getFirstName());
+        writeStringField(generator, "lastName", personDto.getLastName());
+        writeStringField(generator, "phone", personDto.getPhone());
+        if (personDto.getAge() == null) {
+            generator.writeNullField("age");
+        } else {
+            generator.writeNumberField("age", personDto.getAge());
+        }
+        generator.writeFieldName("medicalRecord");
+        MedicalRecordDto medicalRecordDto = personDto.getMedicalRecord();
+        if (medicalRecordDto != null) {
+            generator.writeStartObject();
+            writeStringArrayField(generator, "medications", medicalRecordDto.getMedications());
+            writeStringArrayField(generator, "allergies", medicalRecordDto.getAllergies());
+            generator.writeEndObject();
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Get the age of a person from its medical record, as {@link com.safetynet.alerts.api.service.dtomapper.PersonDtoMapper} does.
+     *
+     * @return the age, or null if the medical record or the birthdate is missing or illegal.
+     */
+    private Integer getAge(Person person, Optional<MedicalRecord> medicalRecordResult) {
+        if (medicalRecordResult.isEmpty()) {
+            log.error("Failed to get the medical record of " + person.getFirstName() + " " + person.getLastName());
+            return null;
+        }
+        if (medicalRecordResult.get().getBirthdate() == null) {
+            return null;
+        }
+        try {
+            return ageCache.getAge(medicalRecordResult.get().getBirthdate());
+        } catch (DataIllegalValueException e) {
+            log.error("Failed to get the age of " + person.getFirstName() + " " + person.getLastName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeStringField(JsonGenerator generator, String fieldName, String value) throws IOException {
+        generator.writeFieldName(fieldName);
+        generator.writeString(value);
+    }
+
+    private static void writeStringArrayField(JsonGenerator generator, String fieldName, List<String> values) throws IOException {
+        generator.writeFieldName(fieldName);
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,110 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implementation of {@link IFloodQueryEngine}.
+ *
+ * Stations are deduplicated and the addresses they cover gathered first, then the homes are assembled :
+ * on the calling thread for a few addresses, else split among the tasks of a fork/join pool.
+ * Each home is written to the slot of its address, so the result order does not depend on task scheduling.
+ */
+@Component
+public class FloodQueryEngine implements IFloodQueryEngine {
+
+    /*Number of addresses below which homes are assembled by a single task*/
+    static final int ADDRESSES_PER_TASK = 64;
+
+    private final IFireStationDao fireStationDao;
+    private final IPersonDao personDao;
+    private final IDtoMapper<Person, PersonDto> personDtoMapper;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of threads assembling homes, 0 for the number of available processors.
+     */
+    @Autowired
+    public FloodQueryEngine(IFireStationDao fireStationDao, IPersonDao personDao, IDtoMapper<Person, PersonDto> personDtoMapper,
+                            @Value("${api.flood.parallelism:0}") int parallelism) {
+        this.fireStationDao = fireStationDao;
+        this.personDao = personDao;
+        this.personDtoMapper = personDtoMapper;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("flood-query-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    @Override
+    public List<FloodDto> getFloodHomes(List<Integer> stations) {
+        List<String> addresses = new ArrayList<>();
+        for (Integer stationNumber : new LinkedHashSet<>(stations)) {
+            addresses.addAll(fireStationDao.getAddresses(stationNumber));
+        }
+        FloodDto[] floodDtos = new FloodDto[addresses.size()];
+        HomesTask task = new HomesTask(addresses, floodDtos, 0, floodDtos.length);
+        if (floodDtos.length <= ADDRESSES_PER_TASK || pool.getParallelism() == 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new ArrayList<>(Arrays.asList(floodDtos));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private FloodDto getFloodHome(String address) {
+        return new FloodDto(address, personDtoMapper.mapToDto(personDao.getPersonsByAddress(address)));
+    }
+
+    /**
+     * Assemble the homes of a range of addresses, the range being split in halves while it is too large.
+     */
+    private class HomesTask extends RecursiveAction {
+        private final List<String> addresses;
+        private final FloodDto[] floodDtos;
+        private final int from;
+        private final int to;
+
+        HomesTask(List<String> addresses, FloodDto[] floodDtos, int from, int to) {
+            this.addresses = addresses;
+            this.floodDtos = floodDtos;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ADDRESSES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    floodDtos[i] = getFloodHome(addresses.get(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HomesTask(addresses, floodDtos, from, middle), new HomesTask(addresses, floodDtos, middle, to));
+            }
+        }
+    }
+}
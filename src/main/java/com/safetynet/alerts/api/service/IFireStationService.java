@@ -1,9 +1,11 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.dto.FloodDto;
 import jdk.jfr.FlightRecorder;
 
@@ -37,6 +39,14 @@ public interface IFireStationService {
      *  @throws DataAlreadyExistsException if fire station to create already exists at the given address.
      */
     public FireStation createFireStation(FireStation fireStationToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of fire station mappings at once.
+     *
+     * @param operation the mutation to apply to each fire station.
+     * @param fireStations fire stations to create or update, fire stations to delete (only their address is used).
+     * @return for each fire station, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    List<Optional<ServiceException>> mutateFireStations(DataMutationEvent.Operation operation, List<FireStation> fireStations);
     /**
      * Get the list of persons that depends on that fire station.
      *
@@ -58,7 +68,7 @@ public interface IFireStationService {
      * For each given fire station, get the list of homes that depends on it,
      * Home is defined by a list of persons that leave at same address, their medical record.
      *
-     * @param stations list of station numbers
+     * @param stations list of station numbers, a station given several times is listed once.
      * @retun a list of objects {@link com.safetynet.alerts.api.model.dto.FloodDto}
      */
     List<FloodDto> getFloodHomes(List<Integer> stations);
@@ -0,0 +1,34 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Write the fire station endpoints responses as json, straight from the datasource to an output stream,
+ * without building the response DTOs (flood homes excepted, they are assembled in parallel then streamed).
+ */
+public interface IFireStationStreamingService {
+    /**
+     * Write the persons that depend on a fire station, in the GET /firestation projection
+     * (same json as {@link IFireStationService#getPersons(Integer)} filtered by the fireStation profile).
+     *
+     * @param stationNumber the number of the fire station
+     * @param outputStream stream the json is written to, nothing is written if the fire station does not exist.
+     * @throws DataNotFoundException if no fire station with number 'stationNumber' exists in datasource
+     * @throws IOException if the json can not be written.
+     */
+    void writePersons(Integer stationNumber, OutputStream outputStream) throws DataNotFoundException, IOException;
+
+    /**
+     * Write the homes that depend on the given fire stations, in the GET /flood/stations projection
+     * (the homes of {@link IFireStationService#getFloodHomes(List)} written as filtered by the flood profile).
+     *
+     * @param stations list of station numbers, a station given several times is written once as by getFloodHomes.
+     * @param outputStream stream the json is written to.
+     * @throws IOException if the json can not be written.
+     */
+    void writeFloodHomes(List<Integer> stations, OutputStream outputStream) throws IOException;
+}
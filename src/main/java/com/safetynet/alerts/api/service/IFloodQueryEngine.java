@@ -0,0 +1,21 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.model.dto.FloodDto;
+
+import java.util.List;
+
+/**
+ * Batch query of the homes that depend on a set of fire stations.
+ */
+public interface IFloodQueryEngine {
+
+    /**
+     * For each given fire station, get the list of homes that depends on it,
+     * Home is defined by a list of persons that leave at same address, their medical record.
+     *
+     * @param stations list of station numbers, a station given several times is queried once.
+     * @return list of objects {@link FloodDto}, station by station in the order stations are first given,
+     * and for each station address by address in the order the station covers them.
+     */
+    List<FloodDto> getFloodHomes(List<Integer> stations);
+}
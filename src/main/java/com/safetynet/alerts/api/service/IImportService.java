@@ -0,0 +1,36 @@
+package com.safetynet.alerts.api.service;
+
+import com.safetynet.alerts.api.model.dto.ImportProgressDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface IImportService {
+    /**
+     * Import records into the datasource : each record is created, or updated if it already exists.
+     *
+     * The body holds one record per line, wrapped into an object naming its type :
+     * {"person":{...}}, {"firestation":{...}} or {"medicalrecord":{...}}.
+     * Records are applied while the body is read, reading is paused while too many records wait to be applied.
+     *
+     * @param body the NDJSON body.
+     * @return progress of the import once finished.
+     * @throws IOException if the body can not be read.
+     */
+    ImportProgressDto importRecords(InputStream body) throws IOException;
+    /**
+     * Get the progress of running and last finished imports.
+     *
+     * @return progress of each import, most recent first.
+     */
+    List<ImportProgressDto> getImports();
+    /**
+     * Get the progress of an import.
+     *
+     * @param id id of the import.
+     * @return progress of the import, empty if it is unknown or too old.
+     */
+    Optional<ImportProgressDto> getImport(long id);
+}
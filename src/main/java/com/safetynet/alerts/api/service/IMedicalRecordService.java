@@ -1,12 +1,15 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.model.MedicalRecord;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataIllegalValueException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 /**
  * Get, delete or save a person's medical record from/to a datasource.
  */
@@ -38,4 +41,12 @@ public interface IMedicalRecordService {
      * @throws DataAlreadyExistsException if medical record already exists in datasource
      */
     public MedicalRecord createMedicalRecord(MedicalRecord medicalRecordToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of medical records at once.
+     *
+     * @param operation the mutation to apply to each medical record.
+     * @param medicalRecords medical records to create or update, medical records to delete (only their names are used).
+     * @return for each medical record, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    List<Optional<ServiceException>> mutateMedicalRecords(DataMutationEvent.Operation operation, List<MedicalRecord> medicalRecords);
 }
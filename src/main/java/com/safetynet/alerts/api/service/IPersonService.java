@@ -1,13 +1,16 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Get, delete or save a person from/to a datasource.
@@ -43,6 +46,14 @@ public interface IPersonService {
      *
      */
     public Person createPerson(Person personToCreate) throws DataAlreadyExistsException;
+    /**
+     * Create, update or delete a chunk of persons at once.
+     *
+     * @param operation the mutation to apply to each person.
+     * @param persons persons to create or update, persons to delete (only their names are used).
+     * @return for each person, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    List<Optional<ServiceException>> mutatePersons(DataMutationEvent.Operation operation, List<Person> persons);
     /**
      * Get a list of children that live to a given address.
      *
@@ -0,0 +1,373 @@
+package com.safetynet.alerts.api.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.BatchItemResultDto;
+import com.safetynet.alerts.api.model.dto.ImportProgressDto;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link IImportService}.
+ *
+ * The request thread parses the body record by record with a streaming parser and puts the records into a bounded queue,
+ * an applier thread takes them chunk by chunk and creates, or updates, them through the DAOs.
+ * When the queue is full the request thread stops reading the body, so memory does not depend on the body size.
+ */
+@Log4j2
+@Service
+public class ImportService implements IImportService {
+
+    /*Number of errors kept by import, the others are only counted*/
+    static final int MAX_ERRORS = 100;
+
+    private static final Map<String, Class<?>> RECORD_TYPES = Map.of(
+            "person", Person.class, "firestation", FireStation.class, "medicalrecord", MedicalRecord.class);
+
+    /*Record put into the queue once the body has been read*/
+    private static final Record END = new Record(-1, null);
+
+    private final IPersonDao personDao;
+    private final IFireStationDao fireStationDao;
+    private final IMedicalRecordDao medicalRecordDao;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int chunkSize;
+    private final int history;
+    private final ExecutorService appliers;
+    private final AtomicLong lastId = new AtomicLong();
+    /*Running and last finished imports, most recent first*/
+    private final Deque<ImportJob> imports = new ArrayDeque<>();
+
+    /**
+     * @param queueCapacity number of parsed records waiting to be applied above which the body is no longer read.
+     * @param chunkSize number of records applied at once, i.e. while holding the DAO lock once.
+     * @param history number of finished imports whose progress is kept.
+     */
+    @Autowired
+    public ImportService(IPersonDao personDao, IFireStationDao fireStationDao, IMedicalRecordDao medicalRecordDao, ObjectMapper objectMapper,
+                         @Value("${api.import.queue.capacity:10000}") int queueCapacity,
+                         @Value("${api.batch.chunk.size:1000}") int chunkSize,
+                         @Value("${api.import.history:20}") int history) {
+        this.personDao = personDao;
+        this.fireStationDao = fireStationDao;
+        this.medicalRecordDao = medicalRecordDao;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.chunkSize = chunkSize;
+        this.history = history;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.appliers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "import-applier-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public ImportProgressDto importRecords(InputStream body) throws IOException {
+        ImportJob job = new ImportJob(lastId.incrementAndGet(), queueCapacity);
+        register(job);
+        Future<?> applier = appliers.submit(() -> apply(job));
+        try {
+            read(body, job);
+        } catch (IOException | RuntimeException e) {
+            job.fail();
+            throw e;
+        } finally {
+            /*reading may have been interrupted : the end is queued and the applier awaited with the interrupt cleared,
+            an interrupt while awaiting it stops the applier*/
+            boolean interrupted = Thread.interrupted();
+            try {
+                job.enqueue(END);
+                applier.get();
+            } catch (InterruptedIOException | InterruptedException e) {
+                Thread.interrupted();
+                interrupted = true;
+                job.fail();
+                applier.cancel(true);
+            } catch (ExecutionException e) {
+                log.error("Import {} : applier failed", job.id, e.getCause());
+            } finally {
+                job.finish();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return job.progress();
+    }
+
+    @Override
+    public List<ImportProgressDto> getImports() {
+        synchronized (imports) {
+            return imports.stream().map(ImportJob::progress).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Optional<ImportProgressDto> getImport(long id) {
+        synchronized (imports) {
+            return imports.stream().filter(job -> job.id == id).findFirst().map(ImportJob::progress);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        appliers.shutdown();
+    }
+
+    /**
+     * Add an import to the history, forgetting the oldest finished imports.
+     */
+    private void register(ImportJob job) {
+        synchronized (imports) {
+            imports.addFirst(job);
+            Iterator<ImportJob> oldest = imports.descendingIterator();
+            int finished = (int) imports.stream().filter(j -> !j.isRunning()).count();
+            while (finished > history && oldest.hasNext()) {
+                if (!oldest.next().isRunning()) {
+                    oldest.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse the records of the body and queue them, until the body ends, is malformed or the applier stops.
+     */
+    private void read(InputStream body, ImportJob job) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                int index = (int) job.read.get();
+                if (token != JsonToken.START_OBJECT || parser.nextToken() != JsonToken.FIELD_NAME) {
+                    throw new JsonParseException(parser, "Record shall be an object naming its type");
+                }
+                String type = parser.getCurrentName();
+                Class<?> recordType = RECORD_TYPES.get(type);
+                parser.nextToken();
+                Object entity = null;
+                if (recordType == null) {
+                    parser.skipChildren();
+                } else {
+                    entity = parser.readValueAs(recordType);
+                }
+                if (parser.nextToken() != JsonToken.END_OBJECT) {
+                    throw new JsonParseException(parser, "Record shall hold a single " + type);
+                }
+                job.read.incrementAndGet();
+
+                if (recordType == null) {
+                    job.addError(index, HttpStatus.BAD_REQUEST, "Unknown record type: " + type);
+                } else if (entity == null) {
+                    job.addError(index, HttpStatus.BAD_REQUEST, "Missing " + type);
+                } else if (!job.enqueue(new Record(index, entity))) {
+                    /*applier stopped, its failure has been recorded*/
+                    return;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            /*the body can not be resynchronized after a malformed record*/
+            job.addError((int) job.read.get(), HttpStatus.BAD_REQUEST, "Malformed record: " + e.getOriginalMessage());
+            job.fail();
+        }
+    }
+
+    /**
+     * Apply the queued records chunk by chunk, until the end of the body.
+     */
+    private void apply(ImportJob job) {
+        try {
+            List<Record> chunk = new ArrayList<>(chunkSize);
+            boolean end = false;
+            while (!end) {
+                chunk.add(job.queue.take());
+                job.queue.drainTo(chunk, chunkSize - 1);
+                if (chunk.get(chunk.size() - 1) == END) {
+                    chunk.remove(chunk.size() - 1);
+                    end = true;
+                }
+                applyChunk(job, chunk, Person.class, personDao::mutatePersons);
+                applyChunk(job, chunk, FireStation.class, fireStationDao::mutateFireStations);
+                applyChunk(job, chunk, MedicalRecord.class, medicalRecordDao::mutateMedicalRecords);
+                chunk.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail();
+        } catch (RuntimeException e) {
+            log.error("Import {} : records not applied", job.id, e);
+            job.fail();
+        } finally {
+            job.applierDone = true;
+        }
+    }
+
+    /**
+     * Create the records of a chunk having a given type, then update those that already exist.
+     */
+    private static <T> void applyChunk(ImportJob job, List<Record> chunk, Class<T> type,
+                                       BiFunction<DataMutationEvent.Operation, List<T>, List<Optional<ServiceException>>> mutation) {
+        List<Record> records = chunk.stream().filter(record -> type.isInstance(record.entity)).collect(Collectors.toList());
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Optional<ServiceException>> creations = mutation.apply(DataMutationEvent.Operation.CREATE,
+                records.stream().map(record -> type.cast(record.entity)).collect(Collectors.toList()));
+        List<Record> existingRecords = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            Optional<ServiceException> failure = creations.get(i);
+            if (failure.isEmpty()) {
+                job.created.incrementAndGet();
+            } else if (failure.get() instanceof DataAlreadyExistsException) {
+                existingRecords.add(records.get(i));
+            } else {
+                job.addError(records.get(i).index, failure.get().getHttpStatus(), failure.get().getMessage());
+            }
+        }
+        if (existingRecords.isEmpty()) {
+            return;
+        }
+        List<Optional<ServiceException>> updates = mutation.apply(DataMutationEvent.Operation.UPDATE,
+                existingRecords.stream().map(record -> type.cast(record.entity)).collect(Collectors.toList()));
+        for (int i = 0; i < existingRecords.size(); i++) {
+            Optional<ServiceException> failure = updates.get(i);
+            if (failure.isEmpty()) {
+                job.updated.incrementAndGet();
+            } else {
+                job.addError(existingRecords.get(i).index, failure.get().getHttpStatus(), failure.get().getMessage());
+            }
+        }
+    }
+
+    private enum ImportState { RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Parsed record and its position in the body.
+     */
+    private static class Record {
+        private final int index;
+        private final Object entity;
+
+        Record(int index, Object entity) {
+            this.index = index;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * State of an import, updated by the request thread and the applier thread.
+     */
+    private static class ImportJob {
+        private final long id;
+        private final long startNanos = System.nanoTime();
+        private final BlockingQueue<Record> queue;
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<BatchItemResultDto> errors = new ArrayList<>();
+        private volatile boolean aborted;
+        /*0 while running*/
+        private volatile long endNanos;
+        private volatile boolean applierDone;
+
+        ImportJob(long id, int queueCapacity) {
+            this.id = id;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        /**
+         * Queue a record, waiting while the queue is full.
+         *
+         * @return false if the applier stopped, record not queued.
+         */
+        boolean enqueue(Record record) throws InterruptedIOException {
+            try {
+                while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                    if (applierDone) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import " + id + " interrupted");
+            }
+        }
+
+        void addError(int index, HttpStatus status, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(new BatchItemResultDto(index, status.value(), message));
+                }
+            }
+        }
+
+        void fail() {
+            aborted = true;
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        boolean isRunning() {
+            return endNanos == 0;
+        }
+
+        ImportProgressDto progress() {
+            long currentEndNanos = endNanos;
+            ImportState currentState = currentEndNanos == 0 ? ImportState.RUNNING : aborted ? ImportState.FAILED : ImportState.COMPLETED;
+            long durationNanos = Math.max(1, (currentEndNanos == 0 ? System.nanoTime() : currentEndNanos) - startNanos);
+            long applied = created.get() + updated.get();
+            List<BatchItemResultDto> currentErrors;
+            synchronized (errors) {
+                currentErrors = new ArrayList<>(errors);
+            }
+            return new ImportProgressDto(id, currentState.name(), TimeUnit.NANOSECONDS.toMillis(durationNanos), read.get(), queue.size(),
+                    created.get(), updated.get(), failed.get(), applied * TimeUnit.SECONDS.toNanos(1) / durationNanos, currentErrors);
+        }
+    }
+}
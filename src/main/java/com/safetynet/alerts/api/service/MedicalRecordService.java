@@ -1,14 +1,17 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.dao.IMedicalRecordDao;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataIllegalValueException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.MedicalRecord;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 /**
  * Implementation of {@link IMedicalRecordService} to get,
@@ -55,5 +58,17 @@ public class MedicalRecordService implements IMedicalRecordService {
         return medicalRecordDao.createMedicalRecord(medicalRecordToCreate);
     }
 
+    /**
+     * Create, update or delete a chunk of medical records at once.
+     *
+     * @param operation the mutation to apply to each medical record.
+     * @param medicalRecords medical records to create or update, medical records to delete (only their names are used).
+     * @return for each medical record, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutateMedicalRecords(DataMutationEvent.Operation operation, List<MedicalRecord> medicalRecords) {
+        return medicalRecordDao.mutateMedicalRecords(operation, medicalRecords);
+    }
+
 
 }
@@ -1,15 +1,18 @@
 package com.safetynet.alerts.api.service;
 
+import com.safetynet.alerts.api.dao.DataMutationEvent;
 import com.safetynet.alerts.api.dao.IFireStationDao;
 import com.safetynet.alerts.api.dao.IPersonDao;
 import com.safetynet.alerts.api.model.dto.ChildAlertDto;
 import com.safetynet.alerts.api.model.dto.FireDto;
 import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
 import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
 import com.safetynet.alerts.api.utils.Age;
+import com.safetynet.alerts.api.utils.ISingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
 /**
  * Implementation of {@link IPersonService} to get,
  * delete or save a person from/to a datasource.
+ * Identical queries running concurrently share their computation (see {@link ISingleFlight}).
  */
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -30,6 +34,7 @@ public class PersonService implements IPersonService {
     private final IPersonDao personDao;
     private final IFireStationDao fireStationDao;
     private final IDtoMapper<Person,PersonDto> personDtoMapper;
+    private final ISingleFlight singleFlight;
     /**
      * Delete a person from a datasource.
      *
@@ -72,6 +77,18 @@ public class PersonService implements IPersonService {
     }
 
      /**
+     * Create, update or delete a chunk of persons at once.
+     *
+     * @param operation the mutation to apply to each person.
+     * @param persons persons to create or update, persons to delete (only their names are used).
+     * @return for each person, in the same order, the reason why it has not been mutated, empty if it has been.
+     */
+    @Override
+    public List<Optional<ServiceException>> mutatePersons(DataMutationEvent.Operation operation, List<Person> persons) {
+        return personDao.mutatePersons(operation, persons);
+    }
+
+    /**
      * Get a list of children that live to a given address.
      *
      * @param address the address
@@ -79,22 +96,24 @@ public class PersonService implements IPersonService {
      *
      */
     public ChildAlertDto getChildren(String address){
+        return singleFlight.execute("PersonService.getChildren", () -> computeChildren(address), address);
+    }
+
+    private ChildAlertDto computeChildren(String address) {
         List<PersonDto> adults = new ArrayList<>();
         List<PersonDto> children = new ArrayList<>();
 
-        List<Person> persons = personDao.getPersonsByAddress(address);
-
-        adults.addAll(
-                persons.stream()
-                        .map(p -> personDtoMapper.mapToDto(p))
-                        .filter(p -> Objects.nonNull(p.getAge()) && Age.isAdult(p.getAge()))
-                        .collect(Collectors.toList()));
+        List<PersonDto> personDtos = personDtoMapper.mapToDto(personDao.getPersonsByAddress(address));
 
-        children.addAll(
-                persons.stream()
-                        .map(p -> personDtoMapper.mapToDto(p))
-                        .filter(p -> Objects.nonNull(p.getAge()) && !Age.isAdult(p.getAge()))
-                        .collect(Collectors.toList()));
+        for(PersonDto personDto : personDtos){
+            if(Objects.nonNull(personDto.getAge())){
+                if(Age.isAdult(personDto.getAge())){
+                    adults.add(personDto);
+                } else {
+                    children.add(personDto);
+                }
+            }
+        }
 
         return new ChildAlertDto(children,adults);
     }
@@ -107,13 +126,14 @@ public class PersonService implements IPersonService {
      */
     @Override
     public FireDto getFiredPersons(String address) throws DataNotFoundException {
+        return singleFlight.execute("PersonService.getFiredPersons", () -> computeFiredPersons(address), address);
+    }
+
+    private FireDto computeFiredPersons(String address) throws DataNotFoundException {
         int stationNumber=0;
         List<PersonDto> personDtos;
 
-        personDtos = personDao.getPersonsByAddress(address)
-                .stream()
-                .map(p -> personDtoMapper.mapToDto(p))
-                .collect(Collectors.toList());
+        personDtos = personDtoMapper.mapToDto(personDao.getPersonsByAddress(address));
 
         try {
             stationNumber = fireStationDao.getFireStationNumber(address);
@@ -134,10 +154,8 @@ public class PersonService implements IPersonService {
      */
     @Override
     public List<PersonDto> getPersonInfo(String firstName, String lastName) {
-        return personDao.getPersons(firstName, lastName)
-                .stream()
-                .map(p -> personDtoMapper.mapToDto(p))
-                .collect(Collectors.toList());
+        return singleFlight.execute("PersonService.getPersonInfo",
+                () -> personDtoMapper.mapToDto(personDao.getPersons(firstName, lastName)), firstName, lastName);
     }
     /**
      * Get email of people who live in a given city
@@ -147,10 +165,10 @@ public class PersonService implements IPersonService {
      */
     @Override
     public List<String> getEmailsByCity(String city){
-        return personDao.getPersonsByCity(city)
+        return singleFlight.execute("PersonService.getEmailsByCity", () -> personDao.getPersonsByCity(city)
                 .stream()
                 .map(p->p.getEmail())
                 .distinct()
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), city);
     }
 }
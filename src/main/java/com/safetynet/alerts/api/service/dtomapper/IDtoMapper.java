@@ -1,5 +1,21 @@
 package com.safetynet.alerts.api.service.dtomapper;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public interface IDtoMapper<T,U> {
     public U mapToDto(T entityToMap);
+
+    /**
+     * Map a batch of entities, keeping their order.
+     *
+     * @param entitiesToMap entities to map.
+     * @return list of mapped Dto.
+     */
+    public default List<U> mapToDto(Collection<? extends T> entitiesToMap) {
+        return entitiesToMap.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
 }
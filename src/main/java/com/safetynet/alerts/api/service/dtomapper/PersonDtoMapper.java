@@ -6,13 +6,15 @@ import com.safetynet.alerts.api.model.MedicalRecord;
 import com.safetynet.alerts.api.model.Person;
 import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
-import com.safetynet.alerts.api.utils.Age;
+import com.safetynet.alerts.api.utils.IAgeCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -22,22 +24,42 @@ public class PersonDtoMapper implements IDtoMapper<Person, PersonDto> {
 
     private final IMedicalRecordDao medicalRecordDao;
     private final IDtoMapper<MedicalRecord, MedicalRecordDto> medicalRecordDtoIDtoMapper;
+    private final IAgeCache ageCache;
 
     @Override
     public PersonDto mapToDto(Person p) {
-        Date birthdate;
-        Integer age = null;
-        MedicalRecordDto medicalRecordDto = null;
-
         /*get the medical record of the person*/
         Optional<MedicalRecord> medicalRecordResult = medicalRecordDao.getMedicalRecord(p.getFirstName(),p.getLastName());
+        return mapToDto(p, medicalRecordResult);
+    }
+
+    /**
+     * Map a batch of persons, their medical records being all resolved at once.
+     *
+     * @param persons persons to map.
+     * @return list of PersonDto, in the same order as persons.
+     */
+    @Override
+    public List<PersonDto> mapToDto(Collection<? extends Person> persons) {
+        List<Person> personList = new ArrayList<>(persons);
+        List<Optional<MedicalRecord>> medicalRecordResults = medicalRecordDao.getMedicalRecords(personList);
+        List<PersonDto> personDtos = new ArrayList<>(personList.size());
+        for (int i = 0; i < personList.size(); i++) {
+            personDtos.add(mapToDto(personList.get(i), medicalRecordResults.get(i)));
+        }
+        return personDtos;
+    }
+
+    private PersonDto mapToDto(Person p, Optional<MedicalRecord> medicalRecordResult) {
+        Integer age = null;
+        MedicalRecordDto medicalRecordDto = null;
 
         if(medicalRecordResult.isPresent()){
             medicalRecordDto = medicalRecordDtoIDtoMapper.mapToDto(medicalRecordResult.get());
 
-            /*Compute age of the person according to its birthdate from the medical record*/
+            /*Get age of the person according to its birthdate from the medical record*/
             try{
-                age = Age.computeFromBirthdate(medicalRecordDto.getBirthdate());
+                age = ageCache.getAge(medicalRecordResult.get().getBirthdate());
             } catch (DataIllegalValueException e) {
                 log.error("Failed to get the age of " + p.getFirstName() + " " + p.getLastName() + ": " + e.getMessage());
             }
@@ -11,10 +11,18 @@ public class Age {
     private static final int CHILD_AGE_LIMIT = 18;
 
     public static int computeFromBirthdate(Date birthdate) throws DataIllegalValueException {
-        LocalDate birthDateLocalDate = birthdate.toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDate();
-        LocalDate now = LocalDate.now();
+        return computeFromBirthdate(toLocalDate(birthdate.getTime()), LocalDate.now());
+    }
+
+    /**
+     * Compute the age, at a given day, of a person born at a given date.
+     *
+     * @param birthDateLocalDate birthdate of the person.
+     * @param now day at which the age is computed.
+     * @return the age in years.
+     * @throws DataIllegalValueException if birthdate is not before 'now'.
+     */
+    public static int computeFromBirthdate(LocalDate birthDateLocalDate, LocalDate now) throws DataIllegalValueException {
         if(birthDateLocalDate.isBefore(now)){
             return Period.between(birthDateLocalDate, now).getYears();
         } else {
@@ -22,6 +30,18 @@ public class Age {
         }
     }
 
+    /**
+     * Convert a birthdate given in milliseconds since epoch to a date of the system default time zone.
+     *
+     * @param birthdateMillis birthdate in milliseconds since epoch.
+     * @return the birthdate as a local date.
+     */
+    public static LocalDate toLocalDate(long birthdateMillis) {
+        return new Date(birthdateMillis).toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate();
+    }
+
     public static boolean isAdult(int age)  {
         if(age > CHILD_AGE_LIMIT){
             return true;
@@ -0,0 +1,107 @@
+package com.safetynet.alerts.api.utils;
+
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link IAgeCache} : ages are cached by birthdate for the current day.
+ * The whole cache is recomputed when the calendar day rolls over, by a task scheduled at midnight
+ * or, if that task is late, by the first read of the new day.
+ * Reads are counted as hits or misses of the cache (meter alerts.cache.requests, tagged cache "age").
+ */
+@Component
+@Log4j2
+public class AgeCache implements IAgeCache, MeterBinder {
+
+    /*Cached value of a birthdate that is not before today*/
+    private static final int ILLEGAL_BIRTHDATE = -1;
+
+    private volatile AgeTable ageTable = new AgeTable(LocalDate.now());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Override
+    public int getAge(Date birthdate) throws DataIllegalValueException {
+        AgeTable table = ageTable;
+        if (System.currentTimeMillis() >= table.endOfDayMillis) {
+            rollOver();
+            table = ageTable;
+        }
+        Integer cachedAge = table.ages.get(birthdate.getTime());
+        int age;
+        if (cachedAge != null) {
+            hits.increment();
+            age = cachedAge;
+        } else {
+            misses.increment();
+            age = table.getAge(birthdate.getTime());
+        }
+        if (age == ILLEGAL_BIRTHDATE) {
+            /*throw the same exception as Age.computeFromBirthdate*/
+            Age.computeFromBirthdate(Age.toLocalDate(birthdate.getTime()), table.day);
+        }
+        return age;
+    }
+
+    @Override
+    @Scheduled(cron = "0 0 0 * * *")
+    public synchronized void rollOver() {
+        AgeTable table = ageTable;
+        LocalDate today = LocalDate.now();
+        if (!today.equals(table.day)) {
+            AgeTable newTable = new AgeTable(today);
+            table.ages.keySet().forEach(newTable::getAge);
+            ageTable = newTable;
+            log.info("Ages of " + newTable.ages.size() + " birthdates recomputed for " + today);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("alerts.cache.requests", hits, LongAdder::sum)
+                .description("Cache reads that found (hit) or not (miss) the value")
+                .tags("cache", "age", "result", "hit").register(registry);
+        FunctionCounter.builder("alerts.cache.requests", misses, LongAdder::sum)
+                .description("Cache reads that found (hit) or not (miss) the value")
+                .tags("cache", "age", "result", "miss").register(registry);
+    }
+
+    /**
+     * Ages by birthdate (milliseconds since epoch) for one day.
+     */
+    private static class AgeTable {
+        private final LocalDate day;
+        private final long endOfDayMillis;
+        private final Map<Long, Integer> ages = new ConcurrentHashMap<>();
+
+        AgeTable(LocalDate day) {
+            this.day = day;
+            this.endOfDayMillis = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        int getAge(long birthdateMillis) {
+            return ages.computeIfAbsent(birthdateMillis, this::computeAge);
+        }
+
+        private int computeAge(long birthdateMillis) {
+            try {
+                return Age.computeFromBirthdate(Age.toLocalDate(birthdateMillis), day);
+            } catch (DataIllegalValueException e) {
+                return ILLEGAL_BIRTHDATE;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.safetynet.alerts.api.utils;
+
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+
+import java.util.Date;
+
+/**
+ * Ages of persons computed once per day from their birthdate.
+ */
+public interface IAgeCache {
+
+    /**
+     * Get the age, today, of a person born at the given date.
+     *
+     * @param birthdate birthdate of the person.
+     * @return the age in years.
+     * @throws DataIllegalValueException if birthdate is not before today.
+     */
+    int getAge(Date birthdate) throws DataIllegalValueException;
+
+    /**
+     * Recompute all cached ages if the calendar day has rolled over since they have been computed.
+     */
+    void rollOver();
+}
@@ -0,0 +1,30 @@
+package com.safetynet.alerts.api.utils;
+
+/**
+ * Single flight of identical concurrent queries.
+ */
+public interface ISingleFlight {
+
+    /**
+     * Computation of a query result.
+     */
+    @FunctionalInterface
+    interface Computation<T, E extends Exception> {
+        T compute() throws E;
+    }
+
+    /**
+     * Get the result of a query, sharing the computation of identical queries running concurrently.
+     *
+     * A query joins a running computation only if no data has been mutated since this computation started :
+     * its result is then as up to date as the result of a computation of its own.
+     * Queries sharing a computation get the same result object, which shall not be modified.
+     *
+     * @param operation name of the query.
+     * @param computation computation of the result.
+     * @param arguments arguments of the query, compared with equals().
+     * @return the result.
+     * @throws E if the computation failed, every query sharing it gets the same exception.
+     */
+    <T, E extends Exception> T execute(String operation, Computation<T, E> computation, Object... arguments) throws E;
+}
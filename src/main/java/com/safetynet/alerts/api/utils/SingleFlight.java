@@ -0,0 +1,108 @@
+package com.safetynet.alerts.api.utils;
+
+import com.safetynet.alerts.api.view.IDataVersions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link ISingleFlight}.
+ *
+ * Running computations are registered by operation, arguments and generation of the data ({@link IDataVersions}),
+ * the generation being incremented by each mutation (the DAOs publish their mutation before returning).
+ * A query started after a mutation has returned thus never joins a computation started before it.
+ * Queries that joined a computation are counted (meter alerts.queries.coalesced).
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class SingleFlight implements ISingleFlight, MeterBinder {
+
+    private final IDataVersions dataVersions;
+    private final Map<Key, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T execute(String operation, Computation<T, E> computation, Object... arguments) throws E {
+        Key key = new Key(operation, Arrays.asList(arguments), dataVersions.getGeneration());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> runningFlight = flights.putIfAbsent(key, flight);
+        if (runningFlight != null) {
+            coalesced.increment();
+            try {
+                return (T) runningFlight.get();
+            } catch (InterruptedException e) {
+                /*do not wait any longer, compute the result*/
+                Thread.currentThread().interrupt();
+                return computation.compute();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                /*checked exceptions are thrown by a computation of the same query*/
+                throw (E) cause;
+            }
+        }
+
+        try {
+            T result = computation.compute();
+            flight.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("alerts.queries.coalesced", coalesced, LongAdder::sum)
+                .description("Queries that got the result of an identical query running concurrently")
+                .register(registry);
+    }
+
+    /**
+     * Query of a given generation of the data.
+     */
+    private static class Key {
+        private final String operation;
+        private final List<Object> arguments;
+        private final long generation;
+
+        Key(String operation, List<Object> arguments, long generation) {
+            this.operation = operation;
+            this.arguments = arguments;
+            this.generation = generation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return generation == key.generation && operation.equals(key.operation) && arguments.equals(key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, arguments, generation);
+        }
+    }
+}
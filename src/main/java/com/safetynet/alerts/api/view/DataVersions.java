@@ -0,0 +1,115 @@
+package com.safetynet.alerts.api.view;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link IDataVersions}.
+ *
+ * Versions are bumped by the mutation events, published by the DAOs once the mutation has been applied :
+ * a version read after some data is never older than those data. Versions are read without locking.
+ * The mutation listener runs before the other listeners but the mutation journal : the generation they read while
+ * handling a mutation is already the one of the mutation, a mutation rolled back because it could not be journaled
+ * bumps no version. Its rollback does, as the rolled back data may have been read.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DataVersions implements IDataVersions {
+
+    /*Key of a null address*/
+    private static final String NULL_KEY = "\0";
+
+    private final IPersonDao personDao;
+    private final IFireStationDao fireStationDao;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Long> addressVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> stationVersions = new ConcurrentHashMap<>();
+
+    @Override
+    public long getEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Override
+    public long getAddressVersion(String address) {
+        return addressVersions.getOrDefault(fold(address), 0L);
+    }
+
+    @Override
+    public long getStationVersion(Integer stationNumber) {
+        return stationNumber == null ? 0L : stationVersions.getOrDefault(stationNumber, 0L);
+    }
+
+    /**
+     * Bump the versions of the addresses and fire stations touched by a mutation.
+     *
+     * @param event the mutation.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onDataMutation(DataMutationEvent event) {
+        Set<String> addresses = new HashSet<>();
+        Set<Integer> stations = new HashSet<>();
+        addTouched(event.getEntity(), addresses, stations);
+        addTouched(event.getPreviousEntity(), addresses, stations);
+        for (String address : addresses) {
+            if (address != null) {
+                for (FireStation fireStation : fireStationDao.getFireStations(address)) {
+                    stations.add(fireStation.getStation());
+                }
+            }
+        }
+
+        long version = generation.incrementAndGet();
+        /*mutations of distinct DAOs are published concurrently : keep the highest generation*/
+        for (String address : addresses) {
+            addressVersions.merge(fold(address), version, Math::max);
+        }
+        for (Integer station : stations) {
+            stationVersions.merge(station, version, Math::max);
+        }
+    }
+
+    private void addTouched(Object entity, Set<String> addresses, Set<Integer> stations) {
+        if (entity instanceof Person) {
+            addresses.add(((Person) entity).getAddress());
+        } else if (entity instanceof FireStation) {
+            FireStation fireStation = (FireStation) entity;
+            addresses.add(fireStation.getAddress());
+            stations.add(fireStation.getStation());
+        } else if (entity instanceof MedicalRecord) {
+            MedicalRecord medicalRecord = (MedicalRecord) entity;
+            for (Person person : personDao.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName())) {
+                addresses.add(person.getAddress());
+            }
+        }
+    }
+
+    private static String fold(String address) {
+        return address == null ? NULL_KEY : address.trim().toLowerCase(Locale.ROOT);
+    }
+}
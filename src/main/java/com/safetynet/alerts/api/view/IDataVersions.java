@@ -0,0 +1,47 @@
+package com.safetynet.alerts.api.view;
+
+/**
+ * Versions of the SafetyNet Alerts data, to validate a previous read without reading the data again.
+ *
+ * Every mutation increments the generation of the data and sets the version of each address and fire station
+ * it touches to that generation : a caller holding the version read along with some data knows the data are
+ * unchanged as long as the version is. Versions are never decremented, 0 is the version of never mutated data.
+ *
+ * Generation and versions start again from 0 when the application restarts : they are only comparable within an
+ * epoch, identifying the running instance. A caller seeing another epoch shall consider all its data changed.
+ * The generation is shared by the components invalidating data derived from a previous generation.
+ */
+public interface IDataVersions {
+
+    /**
+     * Get the epoch of the versions.
+     *
+     * @return the time the running instance started counting versions, in milliseconds since the Unix epoch.
+     */
+    long getEpoch();
+
+    /**
+     * Get the generation of the data.
+     *
+     * @return the number of mutations since the data have been loaded.
+     */
+    long getGeneration();
+
+    /**
+     * Get the version of an address : generation of the last mutation of a person living there, of their
+     * medical records, or of the fire station mapping of the address.
+     *
+     * @param address the address, compared case insensitively.
+     * @return the version of the address.
+     */
+    long getAddressVersion(String address);
+
+    /**
+     * Get the version of a fire station : generation of the last mutation of an address it covers,
+     * or of a mapping to the station.
+     *
+     * @param stationNumber the number of the fire station.
+     * @return the version of the fire station.
+     */
+    long getStationVersion(Integer stationNumber);
+}
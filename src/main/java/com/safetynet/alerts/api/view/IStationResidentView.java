@@ -0,0 +1,30 @@
+package com.safetynet.alerts.api.view;
+
+import java.util.Optional;
+
+/**
+ * Materialized view of the residents of each fire station : the persons living at the addresses a station covers,
+ * their number of adults and children and their distinct phone numbers.
+ * The view is kept up to date with the datasource mutations.
+ */
+public interface IStationResidentView {
+
+    /**
+     * Get the residents of a fire station.
+     *
+     * @param stationNumber the number of the fire station.
+     * @return the residents of the fire station, empty if the view has not been built yet.
+     * Residents of a fire station that does not cover any address have no address.
+     */
+    Optional<StationResidents> getResidents(Integer stationNumber);
+
+    /**
+     * (Re)build the whole view from the data currently held by the datasource.
+     */
+    void build();
+
+    /**
+     * Rebuild the view if the calendar day has rolled over since it has been built : residents ages have changed.
+     */
+    void rollOver();
+}
@@ -0,0 +1,370 @@
+package com.safetynet.alerts.api.view;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.utils.Age;
+import com.safetynet.alerts.api.utils.IAgeCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link IStationResidentView}.
+ *
+ * The view is made of one aggregate per address covered by a fire station (its residents, their phones and
+ * their number of adults and children) and, per fire station, the sums of the aggregates of its addresses.
+ * A mutation only recomputes the aggregates of the addresses it touches and adjusts the sums of their stations,
+ * whose residents are marked stale : they are republished as an immutable {@link StationResidents} by the next read,
+ * so that a burst of mutations (e.g. a batch request) does not copy the residents of a station on each mutation.
+ * Up to date residents are read without locking, the view is mutated while holding its monitor.
+ * Reads are counted as hits (residents up to date), republished (residents stale) or misses (view not built)
+ * of the view (meter alerts.cache.requests, tagged cache "stationResidents").
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Log4j2
+public class StationResidentView implements IStationResidentView, MeterBinder {
+
+    /*Key of a null address*/
+    private static final String NULL_KEY = "\0";
+
+    /*Published in place of the residents of a station mutated since they have been published*/
+    private static final StationResidents STALE = new StationResidents(Collections.emptyList(), 0, 0, Collections.emptyList());
+
+    private final IAlertsDataSource dataSource;
+    private final IFireStationDao fireStationDao;
+    private final IPersonDao personDao;
+    private final IMedicalRecordDao medicalRecordDao;
+    private final IAgeCache ageCache;
+
+    /*Published residents of each station covering at least one address, possibly stale*/
+    private volatile Map<Integer, StationResidents> residentsByStation = new ConcurrentHashMap<>();
+
+    /*Aggregates of each station and stations covering each address, guarded by the view monitor*/
+    private Map<Integer, Station> stations = new HashMap<>();
+    private Map<String, Set<Integer>> stationsByAddress = new HashMap<>();
+
+    /*End of the day the ages of the view have been computed for, 0 while the view has not been built*/
+    private volatile long validUntilMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder republished = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Get the residents of a fire station.
+     *
+     * @param stationNumber the number of the fire station.
+     * @return the residents of the fire station, empty if the view has not been built yet.
+     */
+    @Override
+    public Optional<StationResidents> getResidents(Integer stationNumber) {
+        long validUntil = validUntilMillis;
+        if (validUntil == 0) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() >= validUntil) {
+            rollOver();
+        }
+        StationResidents residents = residentsByStation.getOrDefault(stationNumber, StationResidents.NO_ADDRESS);
+        if (residents == STALE) {
+            republished.increment();
+            residents = republish(stationNumber);
+        } else {
+            hits.increment();
+        }
+        return Optional.of(residents);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindRequests(registry, hits, "hit");
+        bindRequests(registry, republished, "republished");
+        bindRequests(registry, misses, "miss");
+    }
+
+    private static void bindRequests(MeterRegistry registry, LongAdder requests, String result) {
+        FunctionCounter.builder("alerts.cache.requests", requests, LongAdder::sum)
+                .description("Cache reads that found (hit) or not (miss) the value")
+                .tags("cache", "stationResidents", "result", result).register(registry);
+    }
+
+    /**
+     * Republish the residents of a station that have been mutated since they have been published.
+     */
+    private synchronized StationResidents republish(Integer stationNumber) {
+        StationResidents residents = residentsByStation.getOrDefault(stationNumber, StationResidents.NO_ADDRESS);
+        if (residents == STALE) {
+            residents = stations.get(stationNumber).toResidents();
+            residentsByStation.put(stationNumber, residents);
+        }
+        return residents;
+    }
+
+    /**
+     * (Re)build the whole view from the data currently held by the datasource.
+     * The new view is published at once, readers keep on reading the previous one meanwhile.
+     */
+    @Override
+    public synchronized void build() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Set<Integer> stationNumbers = new LinkedHashSet<>();
+        for (FireStation fireStation : dataSource.getData().getFirestations()) {
+            stationNumbers.add(fireStation.getStation());
+        }
+        Map<Integer, Station> newStations = new HashMap<>();
+        Map<String, Set<Integer>> newStationsByAddress = new HashMap<>();
+        Map<Integer, StationResidents> newResidentsByStation = new ConcurrentHashMap<>();
+        for (Integer stationNumber : stationNumbers) {
+            Station station = new Station();
+            for (String address : fireStationDao.getAddresses(stationNumber)) {
+                station.put(fold(address), home(address));
+                newStationsByAddress.computeIfAbsent(fold(address), key -> new LinkedHashSet<>()).add(stationNumber);
+            }
+            if (!station.homes.isEmpty()) {
+                newStations.put(stationNumber, station);
+                newResidentsByStation.put(stationNumber, station.toResidents());
+            }
+        }
+        stations = newStations;
+        stationsByAddress = newStationsByAddress;
+        residentsByStation = newResidentsByStation;
+        validUntilMillis = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        log.info("Residents of " + newStations.size() + " fire stations materialized in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    @Override
+    @Scheduled(cron = "0 0 0 * * *")
+    public synchronized void rollOver() {
+        if (validUntilMillis != 0 && System.currentTimeMillis() >= validUntilMillis) {
+            build();
+        }
+    }
+
+    /**
+     * Apply a mutation of the datasource to the view.
+     * Aggregates are recomputed from the DAOs, that already hold the mutation : applying a mutation is
+     * idempotent, whatever the order mutations of different entity types are received in.
+     *
+     * @param event the mutation.
+     */
+    @EventListener
+    public synchronized void onDataMutation(DataMutationEvent event) {
+        if (validUntilMillis == 0) {
+            /*not built yet, build will read the mutated data*/
+            return;
+        }
+        Object entity = event.getEntity();
+        if (entity instanceof Person) {
+            String address = ((Person) entity).getAddress();
+            refreshHome(address);
+            Person previousPerson = (Person) event.getPreviousEntity();
+            if (previousPerson != null && !fold(previousPerson.getAddress()).equals(fold(address))) {
+                refreshHome(previousPerson.getAddress());
+            }
+        } else if (entity instanceof MedicalRecord) {
+            MedicalRecord medicalRecord = (MedicalRecord) entity;
+            for (Person person : personDao.getPersons(medicalRecord.getFirstName(), medicalRecord.getLastName())) {
+                refreshHome(person.getAddress());
+            }
+        } else if (entity instanceof FireStation) {
+            moveAddress(((FireStation) entity).getAddress());
+        }
+    }
+
+    /**
+     * Recompute the aggregate of an address in each fire station covering it.
+     */
+    private void refreshHome(String address) {
+        Set<Integer> stationNumbers = stationsByAddress.getOrDefault(fold(address), Collections.emptySet());
+        if (!stationNumbers.isEmpty()) {
+            Home home = home(address);
+            for (Integer stationNumber : stationNumbers) {
+                Station station = stations.get(stationNumber);
+                station.put(fold(address), home);
+                publish(stationNumber, station);
+            }
+        }
+    }
+
+    /**
+     * Move an address from the stations that covered it to the stations that now cover it, if any.
+     * As the fire station DAO does, an address keeps its rank in a station still covering it and comes last
+     * in the addresses of a station newly covering it.
+     */
+    private void moveAddress(String address) {
+        Set<Integer> previousStationNumbers = stationsByAddress.getOrDefault(fold(address), Collections.emptySet());
+        Set<Integer> stationNumbers = new LinkedHashSet<>();
+        for (FireStation fireStation : fireStationDao.getFireStations(address)) {
+            stationNumbers.add(fireStation.getStation());
+        }
+        for (Integer previousStationNumber : previousStationNumbers) {
+            if (!stationNumbers.contains(previousStationNumber)) {
+                Station previousStation = stations.get(previousStationNumber);
+                previousStation.remove(fold(address));
+                publish(previousStationNumber, previousStation);
+            }
+        }
+        if (stationNumbers.isEmpty()) {
+            stationsByAddress.remove(fold(address));
+        } else {
+            Home home = home(address);
+            for (Integer stationNumber : stationNumbers) {
+                Station station = stations.computeIfAbsent(stationNumber, n -> new Station());
+                station.put(fold(address), home);
+                publish(stationNumber, station);
+            }
+            stationsByAddress.put(fold(address), stationNumbers);
+        }
+    }
+
+    private void publish(Integer stationNumber, Station station) {
+        if (station.homes.isEmpty()) {
+            stations.remove(stationNumber);
+            residentsByStation.remove(stationNumber);
+        } else {
+            residentsByStation.put(stationNumber, STALE);
+        }
+    }
+
+    /**
+     * Compute the aggregate of the residents of an address.
+     * Residents whose age is unknown (no medical record, illegal birthdate) are neither adults nor children.
+     */
+    private Home home(String address) {
+        List<Person> persons = personDao.getPersonsByAddress(address);
+        List<Optional<MedicalRecord>> medicalRecords = medicalRecordDao.getMedicalRecords(persons);
+        List<String> phones = new ArrayList<>(persons.size());
+        int numberOfAdults = 0;
+        int numberOfChildren = 0;
+        for (int i = 0; i < persons.size(); i++) {
+            phones.add(persons.get(i).getPhone());
+            Integer age = getAge(medicalRecords.get(i));
+            if (age != null) {
+                if (Age.isAdult(age)) {
+                    numberOfAdults++;
+                } else {
+                    numberOfChildren++;
+                }
+            }
+        }
+        return new Home(Collections.unmodifiableList(persons), phones, numberOfAdults, numberOfChildren);
+    }
+
+    private Integer getAge(Optional<MedicalRecord> medicalRecordResult) {
+        if (medicalRecordResult.isEmpty() || medicalRecordResult.get().getBirthdate() == null) {
+            return null;
+        }
+        try {
+            return ageCache.getAge(medicalRecordResult.get().getBirthdate());
+        } catch (DataIllegalValueException e) {
+            return null;
+        }
+    }
+
+    private static String fold(String address) {
+        return address == null ? NULL_KEY : address.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Aggregate of the residents of one address.
+     */
+    private static class Home {
+        private final List<Person> persons;
+        private final List<String> phones;
+        private final int numberOfAdults;
+        private final int numberOfChildren;
+
+        Home(List<Person> persons, List<String> phones, int numberOfAdults, int numberOfChildren) {
+            this.persons = persons;
+            this.phones = phones;
+            this.numberOfAdults = numberOfAdults;
+            this.numberOfChildren = numberOfChildren;
+        }
+    }
+
+    /**
+     * Aggregates of the addresses covered by one station, in the order the station covers them,
+     * with their running sums : number of adults and children and count of each phone number.
+     */
+    private static class Station {
+        private final Map<String, Home> homes = new LinkedHashMap<>();
+        private final Map<String, Integer> phoneCounts = new LinkedHashMap<>();
+        private int numberOfAdults;
+        private int numberOfChildren;
+
+        /**
+         * Add or replace the aggregate of an address.
+         * The new aggregate is counted before the previous one is discounted, so that phones that are
+         * still present keep their order.
+         */
+        void put(String addressKey, Home home) {
+            Home previousHome = homes.put(addressKey, home);
+            count(home, 1);
+            if (previousHome != null) {
+                count(previousHome, -1);
+            }
+        }
+
+        void remove(String addressKey) {
+            Home previousHome = homes.remove(addressKey);
+            if (previousHome != null) {
+                count(previousHome, -1);
+            }
+        }
+
+        private void count(Home home, int sign) {
+            numberOfAdults += sign * home.numberOfAdults;
+            numberOfChildren += sign * home.numberOfChildren;
+            for (String phone : home.phones) {
+                int count = phoneCounts.getOrDefault(phone, 0) + sign;
+                if (count == 0) {
+                    phoneCounts.remove(phone);
+                } else {
+                    phoneCounts.put(phone, count);
+                }
+            }
+        }
+
+        StationResidents toResidents() {
+            List<List<Person>> personsByAddress = new ArrayList<>(homes.size());
+            for (Home home : homes.values()) {
+                personsByAddress.add(home.persons);
+            }
+            return new StationResidents(Collections.unmodifiableList(personsByAddress), numberOfAdults, numberOfChildren,
+                    Collections.unmodifiableList(new ArrayList<>(phoneCounts.keySet())));
+        }
+    }
+}
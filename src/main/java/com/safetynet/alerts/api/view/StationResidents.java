@@ -0,0 +1,72 @@
+package com.safetynet.alerts.api.view;
+
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable aggregate of the residents of one fire station, as materialized by {@link IStationResidentView}.
+ */
+public final class StationResidents {
+
+    static final StationResidents NO_ADDRESS = new StationResidents(Collections.emptyList(), 0, 0, Collections.emptyList());
+
+    private final List<List<Person>> personsByAddress;
+    private final int numberOfAdults;
+    private final int numberOfChildren;
+    private final List<String> phones;
+
+    public StationResidents(List<List<Person>> personsByAddress, int numberOfAdults, int numberOfChildren, List<String> phones) {
+        this.personsByAddress = personsByAddress;
+        this.numberOfAdults = numberOfAdults;
+        this.numberOfChildren = numberOfChildren;
+        this.phones = phones;
+    }
+
+    /**
+     * @return true if the fire station covers at least one address.
+     */
+    public boolean hasAddresses() {
+        return !personsByAddress.isEmpty();
+    }
+
+    /**
+     * @return the residents, address by address in the order the fire station covers them.
+     */
+    public List<List<Person>> getPersonsByAddress() {
+        return personsByAddress;
+    }
+
+    /**
+     * @return a new list of the residents, address by address in the order the fire station covers them.
+     */
+    public List<Person> getPersons() {
+        List<Person> persons = new ArrayList<>();
+        personsByAddress.forEach(persons::addAll);
+        return persons;
+    }
+
+    /**
+     * @return number of residents whose age is known and who are adults.
+     */
+    public int getNumberOfAdults() {
+        return numberOfAdults;
+    }
+
+    /**
+     * @return number of residents whose age is known and who are children.
+     */
+    public int getNumberOfChildren() {
+        return numberOfChildren;
+    }
+
+    /**
+     * @return the distinct phone numbers of the residents : phones of the data the view has been built from
+     * in order of first appearance, then phones that appeared since.
+     */
+    public List<String> getPhones() {
+        return phones;
+    }
+}
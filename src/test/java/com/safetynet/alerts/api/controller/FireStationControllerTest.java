@@ -5,12 +5,14 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.controller.uitls.IBatchRequestProcessor;
 import com.safetynet.alerts.api.controller.uitls.IRequestLogger;
 import com.safetynet.alerts.api.model.FireStation;
 import com.safetynet.alerts.api.model.dto.FireStationPersonsDto;
 import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.IFireStationService;
+import com.safetynet.alerts.api.service.IFireStationStreamingService;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -37,9 +39,15 @@ class FireStationControllerTest {
     @MockBean
     private IFireStationService iFireStationService;
 
+    @MockBean
+    private IFireStationStreamingService iFireStationStreamingService;
+
     @MockBean
     private IRequestLogger iRequestLogger;
 
+    @MockBean
+    private IBatchRequestProcessor iBatchRequestProcessor;
+
     @Test
     void testDeleteFireStation() throws Exception {
         doNothing().when(this.iRequestLogger)
@@ -0,0 +1,86 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.dto.BatchItemResultDto;
+import com.safetynet.alerts.api.model.dto.BatchResultDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BatchRequestProcessorTest {
+
+    private BatchRequestProcessor batchRequestProcessor;
+
+    /*Chunks received by the operation*/
+    private List<List<String>> chunks;
+
+    @BeforeEach
+    void setUp() {
+        batchRequestProcessor = new BatchRequestProcessor(new ObjectMapper());
+        ReflectionTestUtils.setField(batchRequestProcessor, "chunkSize", 2);
+        chunks = new ArrayList<>();
+    }
+
+    /**
+     * Process a body with an operation that fails on the fire stations mapped to station 0.
+     */
+    private BatchResultDto process(String body) throws IOException {
+        return batchRequestProcessor.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), FireStation.class,
+                fireStations -> {
+                    chunks.add(fireStations.stream().map(FireStation::getAddress).collect(Collectors.toList()));
+                    return fireStations.stream()
+                            .map(f -> f.getStation() == 0
+                                    ? Optional.<ServiceException>of(new DataNotFoundException("Fire station at " + f.getAddress()))
+                                    : Optional.<ServiceException>empty())
+                            .collect(Collectors.toList());
+                }, HttpStatus.CREATED);
+    }
+
+    private static List<Integer> statuses(BatchResultDto batchResultDto) {
+        return batchResultDto.getResults().stream().map(BatchItemResultDto::getStatus).collect(Collectors.toList());
+    }
+
+    @Test
+    void testProcessArray() throws IOException {
+        BatchResultDto batchResultDto = process("[{\"address\":\"a\",\"station\":1},{\"address\":\"b\",\"station\":0},"
+                + "{\"address\":\"c\",\"station\":2}]");
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), chunks);
+        assertEquals(List.of(201, 404, 201), statuses(batchResultDto));
+        assertEquals(2, batchResultDto.getSucceeded());
+        assertEquals(1, batchResultDto.getFailed());
+        assertEquals(1, batchResultDto.getResults().get(1).getIndex());
+        assertNull(batchResultDto.getResults().get(2).getMessage());
+    }
+
+    @Test
+    void testProcessNdjson() throws IOException {
+        BatchResultDto batchResultDto = process("{\"address\":\"a\",\"station\":1}\n{\"address\":\"b\",\"station\":1}\n"
+                + "{\"address\":\"c\",\"station\":1}\n");
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), chunks);
+        assertEquals(3, batchResultDto.getSucceeded());
+    }
+
+    @Test
+    void testProcessStopsAtMalformedItem() throws IOException {
+        BatchResultDto batchResultDto = process("{\"address\":\"a\",\"station\":1}\n{\"address\":\"b\",\n{\"address\":\"c\",\"station\":1}\n");
+        assertEquals(List.of(List.of("a")), chunks);
+        assertEquals(List.of(201, 400), statuses(batchResultDto));
+        assertEquals(1, batchResultDto.getFailed());
+    }
+}
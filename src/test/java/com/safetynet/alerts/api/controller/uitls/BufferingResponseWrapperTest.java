@@ -0,0 +1,55 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BufferingResponseWrapperTest {
+
+    private ServletOutputStream wrappedStream;
+    private BufferingResponseWrapper bufferingResponse;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        wrappedStream = mock(ServletOutputStream.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(wrappedStream);
+        bufferingResponse = new BufferingResponseWrapper(response, 4, 0L);
+    }
+
+    @Test
+    void testSetWriteListenerWhileBuffering() {
+        WriteListener writeListener = mock(WriteListener.class);
+
+        bufferingResponse.getOutputStream().setWriteListener(writeListener);
+
+        verify(wrappedStream).setWriteListener(writeListener);
+        assertTrue(bufferingResponse.getOutputStream().isReady());
+    }
+
+    @Test
+    void testIsReadyOnceSpilled() throws IOException {
+        ServletOutputStream outputStream = bufferingResponse.getOutputStream();
+        outputStream.write(new byte[]{1, 2});
+        assertArrayEquals(new byte[]{1, 2}, bufferingResponse.getBufferedBody());
+
+        outputStream.write(new byte[]{3, 4, 5});
+        when(wrappedStream.isReady()).thenReturn(false);
+
+        assertNull(bufferingResponse.getBufferedBody());
+        assertFalse(outputStream.isReady());
+    }
+}
@@ -0,0 +1,50 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.safetynet.alerts.api.exception.ServiceUnavailableException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+class BulkheadsTest {
+
+    private Bulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        bulkheads = new Bulkheads(1, 1, 1, 2, 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.shutdown();
+    }
+
+    @Test
+    void testPrepare() throws Exception {
+        WebAsyncTask<String> task = bulkheads.prepare(AsyncHandler.Bulkhead.AGGREGATE, () -> "flood");
+        assertEquals(1000L, task.getTimeout());
+        /*aggregate bulkhead full, lookup bulkhead still available*/
+        assertThrows(ServiceUnavailableException.class, () -> bulkheads.prepare(AsyncHandler.Bulkhead.AGGREGATE, () -> "flood"));
+        bulkheads.prepare(AsyncHandler.Bulkhead.LOOKUP, () -> "phoneAlert");
+        bulkheads.prepare(AsyncHandler.Bulkhead.LOOKUP, () -> "phoneAlert");
+        assertThrows(ServiceUnavailableException.class, () -> bulkheads.prepare(AsyncHandler.Bulkhead.LOOKUP, () -> "phoneAlert"));
+
+        /*permit released once the task is done*/
+        assertEquals("flood", task.getCallable().call());
+        bulkheads.prepare(AsyncHandler.Bulkhead.AGGREGATE, () -> "flood");
+    }
+
+    @Test
+    void testPrepareReleasesPermitOnFailure() throws Exception {
+        WebAsyncTask<String> task = bulkheads.prepare(AsyncHandler.Bulkhead.AGGREGATE, () -> {
+            throw new IllegalStateException();
+        });
+        assertThrows(IllegalStateException.class, () -> task.getCallable().call());
+        bulkheads.prepare(AsyncHandler.Bulkhead.AGGREGATE, () -> "flood");
+    }
+}
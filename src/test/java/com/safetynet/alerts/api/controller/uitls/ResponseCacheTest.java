@@ -0,0 +1,89 @@
+package com.safetynet.alerts.api.controller.uitls;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.view.DataVersions;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResponseCacheTest {
+
+    private IFireStationDao fireStationDao;
+    private DataVersions dataVersions;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        fireStationDao = mock(IFireStationDao.class);
+        IPersonDao personDao = mock(IPersonDao.class);
+        dataVersions = new DataVersions(personDao, fireStationDao);
+        responseCache = new ResponseCache(personDao, fireStationDao, dataVersions, 3 * (256 + 100));
+    }
+
+    private static IResponseCache.CachedResponse response() {
+        return new IResponseCache.CachedResponse(new byte[100], "application/json", "\"0\"");
+    }
+
+    @Test
+    void testPutEvictsLeastRecentlyUsed() {
+        long generation = responseCache.getGeneration();
+        responseCache.put("/fire\0a", response(), Set.of(ResponseCache.addressTag("a")), generation);
+        responseCache.put("/fire\0b", response(), Set.of(ResponseCache.addressTag("b")), generation);
+        responseCache.put("/fire\0c", response(), Set.of(ResponseCache.addressTag("c")), generation);
+        assertTrue(responseCache.get("/fire\0a").isPresent());
+
+        responseCache.put("/fire\0d", response(), Set.of(ResponseCache.addressTag("d")), generation);
+
+        assertTrue(responseCache.get("/fire\0a").isPresent());
+        assertFalse(responseCache.get("/fire\0b").isPresent());
+        assertTrue(responseCache.get("/fire\0c").isPresent());
+        assertTrue(responseCache.get("/fire\0d").isPresent());
+    }
+
+    @Test
+    void testOnDataMutationInvalidatesTaggedResponses() {
+        long generation = responseCache.getGeneration();
+        responseCache.put("/fire\0a", response(), Set.of(ResponseCache.addressTag("1509 Culver St")), generation);
+        responseCache.put("/firestation\03", response(), Set.of(ResponseCache.stationTag(3)), generation);
+        responseCache.put("/phoneAlert\02", response(), Set.of(ResponseCache.stationTag(2)), generation);
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress("1509 Culver St");
+        fireStation.setStation(3);
+        when(fireStationDao.getFireStations("1509 culver st ")).thenReturn(List.of(fireStation));
+        Person person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Boyd");
+        person.setAddress("1509 culver st ");
+        person.setCity("Culver");
+
+        responseCache.onDataMutation(new DataMutationEvent(this, DataMutationEvent.Operation.CREATE, person, null));
+
+        assertFalse(responseCache.get("/fire\0a").isPresent());
+        assertFalse(responseCache.get("/firestation\03").isPresent());
+        assertTrue(responseCache.get("/phoneAlert\02").isPresent());
+    }
+
+    @Test
+    void testPutIgnoresResponseComputedBeforeMutation() {
+        long generation = responseCache.getGeneration();
+        DataMutationEvent event = new DataMutationEvent(this, DataMutationEvent.Operation.DELETE, new FireStation(), null);
+        dataVersions.onDataMutation(event);
+        responseCache.onDataMutation(event);
+
+        responseCache.put("/fire\0a", response(), Set.of(ResponseCache.addressTag("a")), generation);
+
+        assertFalse(responseCache.get("/fire\0a").isPresent());
+    }
+}
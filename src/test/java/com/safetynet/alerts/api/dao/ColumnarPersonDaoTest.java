@@ -0,0 +1,163 @@
+package com.safetynet.alerts.api.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColumnarPersonDaoTest {
+
+    private AlertsDataSource dataSource;
+    private List<Person> loadedPersons;
+    private List<DataMutationEvent> events;
+    private ColumnarPersonDao personDao;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataSource = new AlertsDataSource();
+        dataSource.load("data-test.json");
+        loadedPersons = new ArrayList<>();
+        dataSource.getData().getPersons().forEach(person -> loadedPersons.add(new Person(person)));
+        events = new ArrayList<>();
+        personDao = new ColumnarPersonDao(dataSource, event -> events.add((DataMutationEvent) event));
+        personDao.buildIndex();
+    }
+
+    private static Person person(String firstName, String lastName, String address, String city) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setAddress(address);
+        person.setCity(city);
+        return person;
+    }
+
+    private static List<String> firstNames(List<Person> persons) {
+        return persons.stream().map(Person::getFirstName).collect(Collectors.toList());
+    }
+
+    private static List<String> describe(List<Person> persons) {
+        return persons.stream()
+                .map(p -> String.join(" ", p.getFirstName(), p.getLastName(), p.getAddress(), p.getCity(), p.getZip(), p.getPhone(), p.getEmail()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testGetPersons() {
+        Person person = loadedPersons.get(0);
+
+        assertEquals(describe(List.of(person)), describe(List.of(personDao.getPerson(person.getFirstName().toUpperCase(), person.getLastName()).get())));
+        assertEquals(describe(loadedPersons.stream().filter(p -> p.getAddress().equalsIgnoreCase(person.getAddress())).collect(Collectors.toList())),
+                describe(personDao.getPersonsByAddress(person.getAddress().toLowerCase())));
+        assertEquals(describe(loadedPersons.stream().filter(p -> p.getCity().equalsIgnoreCase(person.getCity())).collect(Collectors.toList())),
+                describe(personDao.getPersonsByCity(person.getCity().toUpperCase())));
+        assertTrue(personDao.getPersonsByCity("Nowhere").isEmpty());
+        assertTrue(personDao.getPersonsByAddress("Nowhere").isEmpty());
+        /*the datasource holds a view of the columns*/
+        assertEquals(describe(loadedPersons), describe(dataSource.getData().getPersons()));
+    }
+
+    @Test
+    void testMutations() throws Exception {
+        personDao.createPerson(person("Jane", "Doe", "1 Main St", "Springfield"));
+        assertThrows(DataAlreadyExistsException.class, () -> personDao.createPerson(person("jane", "doe", "", "")));
+        assertEquals(List.of("Jane"), firstNames(personDao.getPersonsByCity("springfield")));
+
+        personDao.updatePerson(person("Jane", "Doe", "2 Main St", "Shelbyville"));
+        assertTrue(personDao.getPersonsByAddress("1 Main St").isEmpty());
+        assertTrue(personDao.getPersonsByCity("Springfield").isEmpty());
+        assertEquals(List.of("Jane"), firstNames(personDao.getPersonsByAddress("2 main st")));
+        assertEquals(List.of("Jane"), firstNames(personDao.getPersonsByCity("Shelbyville")));
+
+        personDao.deletePerson("Jane", "Doe");
+        assertFalse(personDao.getPerson("Jane", "Doe").isPresent());
+        assertTrue(personDao.getPersonsByCity("Shelbyville").isEmpty());
+        assertThrows(DataNotFoundException.class, () -> personDao.deletePerson("Jane", "Doe"));
+        assertEquals(3, events.size());
+        assertEquals(7, dataSource.getData().getPersons().size());
+        assertEquals("Shelbyville", ((Person) events.get(2).getPreviousEntity()).getCity());
+    }
+
+    @Test
+    void testMutatePersonsCompactsDeletedRows() {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            persons.add(person("First" + i, "Last", i % 2 == 0 ? "1 Main St" : "2 Main St", "Springfield"));
+        }
+        personDao.mutatePersons(DataMutationEvent.Operation.CREATE, persons);
+
+        List<Optional<ServiceException>> results = personDao.mutatePersons(DataMutationEvent.Operation.DELETE, persons.subList(0, 2500));
+
+        assertTrue(results.stream().noneMatch(Optional::isPresent));
+        assertEquals(500, personDao.getPersonsByCity("Springfield").size());
+        assertEquals(250, personDao.getPersonsByAddress("1 Main St").size());
+        assertEquals("First2999", personDao.getPersons("first2999", "last").get(0).getFirstName());
+        assertFalse(personDao.getPerson("First0", "Last").isPresent());
+    }
+
+    @Test
+    void testReadsWhileUpdating() throws InterruptedException {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            persons.add(person("First" + i, "Last", i + " Main St", "Springfield"));
+        }
+        personDao.mutatePersons(DataMutationEvent.Operation.CREATE, persons);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean updating = new AtomicBoolean(true);
+
+        Thread writer = new Thread(() -> {
+            try {
+                /*columns grow and are compacted while updating*/
+                for (int n = 1; n <= 200; n++) {
+                    for (int i = 0; i < 100; i++) {
+                        personDao.updatePerson(person("First" + i, "Last", i + " Main St", n % 2 == 0 ? "Springfield" : "Shelbyville"));
+                    }
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            } finally {
+                updating.set(false);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (updating.get()) {
+                    for (int i = 0; i < 100; i++) {
+                        /*a person being updated is read either before or after its update, never missed nor twice*/
+                        assertTrue(personDao.getPerson("First" + i, "Last").isPresent());
+                        assertEquals(List.of("First" + i), firstNames(personDao.getPersonsByAddress(i + " Main St")));
+                    }
+                    assertEquals(loadedPersons.size() + 100, dataSource.getData().getPersons().size());
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertTrue(failures.isEmpty(), () -> "Failures : " + failures);
+        assertEquals(100, personDao.getPersonsByCity("Springfield").size());
+        assertEquals(loadedPersons.size() + 100, dataSource.getData().getPersons().size());
+    }
+}
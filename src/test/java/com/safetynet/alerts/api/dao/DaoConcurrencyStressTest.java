@@ -0,0 +1,181 @@
+package com.safetynet.alerts.api.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrent readers and writers on the DAOs sharing one datasource :
+ * no reader shall fail and indexes shall match the datasource lists once writers are done.
+ * Read and write throughputs are logged, writes shall not fall under a floor.
+ */
+@Log4j2
+class DaoConcurrencyStressTest {
+    private static final int ADDRESSES = 200;
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPERATIONS_PER_WRITER = 2_000;
+    /*Floor of the DAO mutations per second, a few times below the throughput of a shared CI runner*/
+    private static final long MIN_WRITES_PER_SECOND = 500;
+
+    private static String address(int i) {
+        return (i % ADDRESSES) + " Main St";
+    }
+
+    private static Person person(String firstName, int i) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName("Doe");
+        person.setAddress(address(i));
+        person.setCity("City" + (i % 10));
+        person.setPhone("555-" + i);
+        return person;
+    }
+
+    /*Persons are updated as a whole : address, city and phone of a person read shall be those of one write*/
+    private static void assertConsistent(Person person) {
+        int i = Integer.parseInt(person.getPhone().substring("555-".length()));
+        assertEquals(address(i), person.getAddress());
+        assertEquals("City" + (i % 10), person.getCity());
+    }
+
+    @Test
+    void testConcurrentReadsAndWrites() throws InterruptedException {
+        List<Person> persons = new ArrayList<>();
+        List<FireStation> fireStations = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            persons.add(person("Initial" + i, i));
+        }
+        for (int i = 0; i < ADDRESSES; i++) {
+            FireStation fireStation = new FireStation();
+            fireStation.setAddress(address(i));
+            fireStation.setStation(i % 5);
+            fireStations.add(fireStation);
+        }
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(persons);
+        data.setFirestations(fireStations);
+        data.setMedicalrecords(new ArrayList<>());
+        IAlertsDataSource dataSource = new IAlertsDataSource() {
+            @Override
+            public void load(String dataSourceFilePath) {
+            }
+
+            @Override
+            public void load(String dataSourceFilePath, Executor executor) {
+            }
+
+            @Override
+            public boolean loadSnapshot(String snapshotFilePath, String dataSourceFilePath) {
+                return false;
+            }
+
+            @Override
+            public void writeSnapshot(String snapshotFilePath, String dataSourceFilePath, boolean journaled) {
+            }
+
+            @Override
+            public Data getData() {
+                return data;
+            }
+        };
+        PersonDao personDao = new PersonDao(dataSource, event -> { });
+        FireStationDao fireStationDao = new FireStationDao(dataSource, event -> { });
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                        String firstName = "Writer" + writer + "_" + i;
+                        personDao.createPerson(person(firstName, i));
+                        personDao.updatePerson(person(firstName, i + 1));
+                        if (i % 2 == 0) {
+                            personDao.deletePerson(firstName, "Doe");
+                        }
+                        FireStation fireStation = new FireStation();
+                        fireStation.setAddress(address(i));
+                        fireStation.setStation((i + writer) % 5);
+                        fireStationDao.updateFireStation(fireStation);
+                        writes.addAndGet(i % 2 == 0 ? 4 : 3);
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    int i = 0;
+                    while (writing.get()) {
+                        personDao.getPersonsByAddress(address(i)).forEach(DaoConcurrencyStressTest::assertConsistent);
+                        personDao.getPersonsByCity("City" + (i % 10));
+                        fireStationDao.getAddresses(i % 5);
+                        assertTrue(data.getPersons().stream().count() >= 10_000);
+                        i++;
+                        reads.addAndGet(4);
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        writersDone.await();
+        writing.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Failures : " + failures);
+        assertTrue(reads.get() > 0);
+        long readsPerSecond = (long) (reads.get() / seconds);
+        long writesPerSecond = (long) (writes.get() / seconds);
+        log.info(WRITERS + " writers, " + READERS + " readers : " + writesPerSecond + " writes/s, " + readsPerSecond + " reads/s");
+        assertTrue(writesPerSecond > MIN_WRITES_PER_SECOND, () -> writesPerSecond + " writes/s");
+
+        /*indexes match the datasource lists*/
+        assertEquals(10_000 + WRITERS * OPERATIONS_PER_WRITER / 2, data.getPersons().size());
+        int indexedByAddress = 0;
+        for (int i = 0; i < ADDRESSES; i++) {
+            indexedByAddress += personDao.getPersonsByAddress(address(i)).size();
+        }
+        assertEquals(data.getPersons().size(), indexedByAddress);
+        for (Person person : data.getPersons()) {
+            assertTrue(personDao.getPerson(person.getFirstName(), person.getLastName()).isPresent());
+        }
+        int indexedByStation = 0;
+        for (int station = 0; station < 5; station++) {
+            indexedByStation += fireStationDao.getAddresses(station).size();
+        }
+        assertEquals(ADDRESSES, indexedByStation);
+    }
+}
@@ -237,8 +237,10 @@ class FireStationDaoTest {
         when(fireStation1.getStation()).thenReturn(1);
         when(fireStation1.getAddress()).thenReturn("42 Main St");
         FireStation actualUpdateFireStationResult = this.fireStationDao.updateFireStation(fireStation1);
-        assertSame(fireStation, actualUpdateFireStationResult);
+        assertSame(data.getFirestations().get(0), actualUpdateFireStationResult);
         assertEquals(1, actualUpdateFireStationResult.getStation());
+        /*fire stations are copied on write*/
+        assertEquals(0, fireStation.getStation());
         verify(this.iAlertsDataSource).getData();
         verify(fireStation1).getAddress();
         verify(fireStation1).getStation();
@@ -323,5 +325,83 @@ class FireStationDaoTest {
         verify(fireStation).getAddress();
         verify(fireStation).getStation();
     }
-}
 
+    @Test
+    void testUpdateFireStationMovesAddressToNewStation() throws DataNotFoundException {
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress("42 Main St");
+        fireStation.setStation(1);
+
+        ArrayList<FireStation> fireStationList = new ArrayList<>();
+        fireStationList.add(fireStation);
+
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(new ArrayList<>());
+        data.setFirestations(fireStationList);
+        data.setMedicalrecords(new ArrayList<>());
+        when(this.iAlertsDataSource.getData()).thenReturn(data);
+
+        FireStation fireStationToUpdate = new FireStation();
+        fireStationToUpdate.setAddress("42 MAIN ST");
+        fireStationToUpdate.setStation(2);
+        this.fireStationDao.updateFireStation(fireStationToUpdate);
+        assertTrue(this.fireStationDao.getAddresses(1).isEmpty());
+        assertEquals(List.of("42 Main St"), this.fireStationDao.getAddresses(2));
+        assertEquals(2, this.fireStationDao.getFireStationNumber("42 main st"));
+    }
+
+    @Test
+    void testCreateAndDeleteFireStationMaintainIndexes() throws DataAlreadyExistsException, DataNotFoundException {
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(new ArrayList<>());
+        data.setFirestations(new ArrayList<>());
+        data.setMedicalrecords(new ArrayList<>());
+        when(this.iAlertsDataSource.getData()).thenReturn(data);
+
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress("42 Main St");
+        fireStation.setStation(3);
+        this.fireStationDao.createFireStation(fireStation);
+        assertEquals(List.of("42 Main St"), this.fireStationDao.getAddresses(3));
+        assertTrue(this.fireStationDao.getFireStation("42 MAIN ST").isPresent());
+
+        this.fireStationDao.deleteFireStation("42 main st");
+        assertTrue(data.getFirestations().isEmpty());
+        assertTrue(this.fireStationDao.getAddresses(3).isEmpty());
+        assertFalse(this.fireStationDao.getFireStation("42 Main St").isPresent());
+    }
+
+    @Test
+    void testAddressMappedToSeveralStations() throws DataNotFoundException {
+        ArrayList<FireStation> fireStationList = new ArrayList<>();
+        for (int station : new int[]{3, 4}) {
+            FireStation fireStation = new FireStation();
+            fireStation.setAddress("112 Steppes Pl");
+            fireStation.setStation(station);
+            fireStationList.add(fireStation);
+        }
+
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(new ArrayList<>());
+        data.setFirestations(fireStationList);
+        data.setMedicalrecords(new ArrayList<>());
+        when(this.iAlertsDataSource.getData()).thenReturn(data);
+
+        assertEquals(List.of("112 Steppes Pl"), this.fireStationDao.getAddresses(3));
+        assertEquals(List.of("112 Steppes Pl"), this.fireStationDao.getAddresses(4));
+        assertEquals(3, this.fireStationDao.getFireStationNumber("112 steppes pl"));
+        assertEquals(2, this.fireStationDao.getFireStations("112 STEPPES PL").size());
+
+        FireStation fireStationToUpdate = new FireStation();
+        fireStationToUpdate.setAddress("112 Steppes Pl");
+        fireStationToUpdate.setStation(4);
+        this.fireStationDao.updateFireStation(fireStationToUpdate);
+        assertTrue(this.fireStationDao.getAddresses(3).isEmpty());
+        assertEquals(List.of("112 Steppes Pl", "112 Steppes Pl"), this.fireStationDao.getAddresses(4));
+
+        this.fireStationDao.deleteFireStation("112 Steppes Pl");
+        assertEquals(List.of("112 Steppes Pl"), this.fireStationDao.getAddresses(4));
+        assertEquals(4, this.fireStationDao.getFireStationNumber("112 Steppes Pl"));
+        assertEquals(1, data.getFirestations().size());
+    }
+}
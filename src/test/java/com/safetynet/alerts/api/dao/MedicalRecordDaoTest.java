@@ -0,0 +1,42 @@
+package com.safetynet.alerts.api.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.model.MedicalRecord;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MedicalRecordDaoTest {
+
+    private static MedicalRecord medicalRecord(String firstName, String lastName, List<String> medications) {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName(firstName);
+        medicalRecord.setLastName(lastName);
+        medicalRecord.setMedications(medications);
+        medicalRecord.setAllergies(List.of());
+        return medicalRecord;
+    }
+
+    /*Medical records of a same name loaded from the datasource : the next one is found once the first one is deleted*/
+    @Test
+    void testDeleteMedicalRecordOfDuplicatedName() throws Exception {
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load("data-test.json");
+        int loadedCount = dataSource.getData().getMedicalrecords().size();
+        dataSource.getData().getMedicalrecords().add(medicalRecord("Jane", "Doe", List.of("first")));
+        dataSource.getData().getMedicalrecords().add(medicalRecord("JANE", "DOE", List.of("second")));
+        MedicalRecordDao medicalRecordDao = new MedicalRecordDao(dataSource, event -> { });
+
+        assertEquals(List.of("first"), medicalRecordDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+        medicalRecordDao.updateMedicalRecord(medicalRecord("Jane", "Doe", List.of("updated")));
+        medicalRecordDao.deleteMedicalRecord("Jane", "Doe");
+        assertEquals(List.of("second"), medicalRecordDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+        medicalRecordDao.deleteMedicalRecord("Jane", "Doe");
+        assertFalse(medicalRecordDao.getMedicalRecord("Jane", "Doe").isPresent());
+        assertEquals(loadedCount, dataSource.getData().getMedicalrecords().size());
+    }
+}
@@ -0,0 +1,202 @@
+package com.safetynet.alerts.api.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OffHeapMedicalRecordDaoTest {
+
+    private AlertsDataSource dataSource;
+    private List<MedicalRecord> loadedMedicalRecords;
+    private List<DataMutationEvent> events;
+    private OffHeapMedicalRecordDao medicalRecordDao;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataSource = new AlertsDataSource();
+        dataSource.load("data-test.json");
+        loadedMedicalRecords = new ArrayList<>();
+        dataSource.getData().getMedicalrecords().forEach(medicalRecord -> loadedMedicalRecords.add(new MedicalRecord(medicalRecord)));
+        events = new ArrayList<>();
+        medicalRecordDao = new OffHeapMedicalRecordDao(dataSource, event -> events.add((DataMutationEvent) event));
+        medicalRecordDao.buildIndex();
+    }
+
+    private static MedicalRecord medicalRecord(String firstName, String lastName, Date birthdate, List<String> medications) {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName(firstName);
+        medicalRecord.setLastName(lastName);
+        medicalRecord.setBirthdate(birthdate);
+        medicalRecord.setMedications(medications);
+        medicalRecord.setAllergies(List.of());
+        return medicalRecord;
+    }
+
+    private static Person person(String firstName, String lastName) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        return person;
+    }
+
+    private static List<String> describe(List<MedicalRecord> medicalRecords) {
+        return medicalRecords.stream()
+                .map(m -> m.getFirstName() + " " + m.getLastName() + " " + m.getBirthdate() + " " + m.getMedications() + " " + m.getAllergies())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testGetMedicalRecords() throws Exception {
+        MedicalRecord loadedMedicalRecord = loadedMedicalRecords.get(1);
+
+        MedicalRecord medicalRecord = medicalRecordDao.getMedicalRecord(loadedMedicalRecord.getFirstName().toUpperCase(), loadedMedicalRecord.getLastName()).get();
+
+        assertEquals(loadedMedicalRecord.getBirthdate(), medicalRecord.getBirthdate());
+        assertEquals(loadedMedicalRecord.getMedications(), medicalRecord.getMedications());
+        assertEquals(loadedMedicalRecord.getAllergies(), medicalRecord.getAllergies());
+        assertEquals(loadedMedicalRecord.getBirthdate(), medicalRecordDao.getPersonBirthdate(loadedMedicalRecord.getFirstName(), loadedMedicalRecord.getLastName()));
+        List<Optional<MedicalRecord>> medicalRecords = medicalRecordDao.getMedicalRecords(List.of(person(loadedMedicalRecord.getFirstName(), loadedMedicalRecord.getLastName()), person("Jane", "Doe")));
+        assertEquals(describe(List.of(medicalRecord)), describe(List.of(medicalRecords.get(0).get())));
+        assertFalse(medicalRecords.get(1).isPresent());
+        assertThrows(DataNotFoundException.class, () -> medicalRecordDao.getPersonBirthdate("Jane", "Doe"));
+        /*the datasource holds a view of the store*/
+        assertEquals(describe(loadedMedicalRecords), describe(dataSource.getData().getMedicalrecords()));
+    }
+
+    @Test
+    void testMutations() throws Exception {
+        medicalRecordDao.createMedicalRecord(medicalRecord("Jane", "Doe", new Date(0), null));
+        assertThrows(DataAlreadyExistsException.class, () -> medicalRecordDao.createMedicalRecord(medicalRecord("jane", "doe", null, null)));
+        assertNull(medicalRecordDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+
+        MedicalRecord updatedMedicalRecord = medicalRecordDao.updateMedicalRecord(medicalRecord("JANE", "DOE", null, List.of("aznol:350mg", "")));
+        assertEquals("Jane", updatedMedicalRecord.getFirstName());
+        assertNull(medicalRecordDao.getPersonBirthdate("Jane", "Doe"));
+        assertEquals(List.of("aznol:350mg", ""), medicalRecordDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+        assertEquals(loadedMedicalRecords.size() + 1, dataSource.getData().getMedicalrecords().size());
+
+        medicalRecordDao.deleteMedicalRecord("Jane", "Doe");
+        medicalRecordDao.deleteMedicalRecord(loadedMedicalRecords.get(0).getFirstName(), loadedMedicalRecords.get(0).getLastName());
+        assertFalse(medicalRecordDao.getMedicalRecord("Jane", "Doe").isPresent());
+        assertThrows(DataNotFoundException.class, () -> medicalRecordDao.deleteMedicalRecord("Jane", "Doe"));
+        assertThrows(DataNotFoundException.class, () -> medicalRecordDao.updateMedicalRecord(medicalRecord("Jane", "Doe", null, null)));
+        assertEquals(4, events.size());
+        assertEquals(new Date(0), ((MedicalRecord) events.get(1).getPreviousEntity()).getBirthdate());
+        assertEquals(describe(loadedMedicalRecords.subList(1, loadedMedicalRecords.size())), describe(dataSource.getData().getMedicalrecords()));
+    }
+
+    /*Records of a same name loaded from the datasource : the next one is found once the first one is deleted*/
+    @Test
+    void testDeleteMedicalRecordOfDuplicatedName() throws Exception {
+        AlertsDataSource duplicatesDataSource = new AlertsDataSource();
+        duplicatesDataSource.load("data-test.json");
+        duplicatesDataSource.getData().getMedicalrecords().add(medicalRecord("Jane", "Doe", new Date(0), List.of("first")));
+        duplicatesDataSource.getData().getMedicalrecords().add(medicalRecord("JANE", "DOE", new Date(0), List.of("second")));
+        OffHeapMedicalRecordDao duplicatesDao = new OffHeapMedicalRecordDao(duplicatesDataSource, event -> { });
+        duplicatesDao.buildIndex();
+
+        assertEquals(List.of("first"), duplicatesDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+        duplicatesDao.deleteMedicalRecord("Jane", "Doe");
+        assertEquals(List.of("second"), duplicatesDao.getMedicalRecord("Jane", "Doe").get().getMedications());
+        duplicatesDao.deleteMedicalRecord("Jane", "Doe");
+        assertFalse(duplicatesDao.getMedicalRecord("Jane", "Doe").isPresent());
+        assertEquals(loadedMedicalRecords.size(), duplicatesDataSource.getData().getMedicalrecords().size());
+    }
+
+    @Test
+    void testMutateMedicalRecordsCompactsReplacedRecords() {
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        String medication = "x".repeat(500);
+        for (int i = 0; i < 3000; i++) {
+            medicalRecords.add(medicalRecord("First" + i, "Last", new Date(0), List.of(medication + i)));
+        }
+        medicalRecordDao.mutateMedicalRecords(DataMutationEvent.Operation.CREATE, medicalRecords);
+
+        List<Optional<ServiceException>> results = medicalRecordDao.mutateMedicalRecords(DataMutationEvent.Operation.DELETE, medicalRecords.subList(0, 2500));
+
+        assertTrue(results.stream().noneMatch(Optional::isPresent));
+        assertFalse(medicalRecordDao.getMedicalRecord("First0", "Last").isPresent());
+        assertEquals(List.of(medication + 2999), medicalRecordDao.getMedicalRecord("first2999", "last").get().getMedications());
+        assertEquals(loadedMedicalRecords.size() + 500, dataSource.getData().getMedicalrecords().size());
+        assertEquals("First2500", dataSource.getData().getMedicalrecords().get(loadedMedicalRecords.size()).getFirstName());
+    }
+
+    /*Records are updated as a whole : birthdate and allergies of a record read shall be those of its medications*/
+    private static void assertConsistent(MedicalRecord medicalRecord) {
+        String medication = medicalRecord.getMedications().get(0);
+        int update = Integer.parseInt(medication.substring(medication.lastIndexOf(':') + 1));
+        assertEquals(new Date(update * 86_400_000L), medicalRecord.getBirthdate());
+        assertEquals(List.of("allergy" + update), medicalRecord.getAllergies());
+    }
+
+    @Test
+    void testReadsWhileUpdating() throws InterruptedException {
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            medicalRecords.add(medicalRecord("First" + i, "Last", new Date(0), List.of("x:0")));
+            medicalRecords.get(i).setAllergies(List.of("allergy0"));
+        }
+        medicalRecordDao.mutateMedicalRecords(DataMutationEvent.Operation.CREATE, medicalRecords);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean updating = new AtomicBoolean(true);
+        String medication = "x".repeat(200) + ":";
+
+        Thread writer = new Thread(() -> {
+            try {
+                /*the buffer grows and is compacted while updating*/
+                for (int update = 1; update <= 200; update++) {
+                    for (int i = 0; i < 100; i++) {
+                        MedicalRecord medicalRecord = medicalRecord("First" + i, "Last", new Date(update * 86_400_000L), List.of(medication + update));
+                        medicalRecord.setAllergies(List.of("allergy" + update));
+                        medicalRecordDao.updateMedicalRecord(medicalRecord);
+                    }
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            } finally {
+                updating.set(false);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (updating.get()) {
+                    for (int i = 0; i < 100; i++) {
+                        assertConsistent(medicalRecordDao.getMedicalRecord("First" + i, "Last").get());
+                    }
+                    assertEquals(loadedMedicalRecords.size() + 100, dataSource.getData().getMedicalrecords().size());
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertTrue(failures.isEmpty(), () -> "Failures : " + failures);
+        assertEquals(List.of(medication + 200), medicalRecordDao.getMedicalRecord("First99", "Last").get().getMedications());
+    }
+}
@@ -0,0 +1,216 @@
+package com.safetynet.alerts.api.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.datasource.IAlertsDataSource;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.DataNotCommittedException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ContextConfiguration(classes = {PersonDao.class})
+@ExtendWith(SpringExtension.class)
+class PersonDaoTest {
+    @Autowired
+    private PersonDao personDao;
+
+    @MockBean
+    private IAlertsDataSource iAlertsDataSource;
+
+    private static Person person(String firstName, String lastName, String address, String city) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setAddress(address);
+        person.setCity(city);
+        return person;
+    }
+
+    private IAlertsDataSource.Data data(Person... persons) {
+        ArrayList<Person> personList = new ArrayList<>(List.of(persons));
+        IAlertsDataSource.Data data = new IAlertsDataSource.Data();
+        data.setPersons(personList);
+        data.setFirestations(new ArrayList<>());
+        data.setMedicalrecords(new ArrayList<>());
+        when(this.iAlertsDataSource.getData()).thenReturn(data);
+        return data;
+    }
+
+    @Test
+    void testGetPerson() {
+        Person jane = person("Jane", "Doe", "42 Main St", "Oxford");
+        data(person("John", "Doe", "42 Main St", "Oxford"), jane);
+        assertSame(jane, this.personDao.getPerson("JANE", "doe").get());
+        assertFalse(this.personDao.getPerson("Jane", "Smith").isPresent());
+    }
+
+    @Test
+    void testGetPersonsByAddressAndCity() {
+        data(person("John", "Doe", "42 Main St", "Oxford"),
+                person("Jane", "Doe", "42 main st", "Oxford"),
+                person("Jim", "Smith", "1 Park Ave", "Culver"));
+        assertEquals(2, this.personDao.getPersonsByAddress("42 MAIN ST").size());
+        assertEquals(2, this.personDao.getPersonsByCity("oxford").size());
+        assertTrue(this.personDao.getPersonsByCity("Paris").isEmpty());
+    }
+
+    @Test
+    void testCreatePerson() throws DataAlreadyExistsException {
+        IAlertsDataSource.Data data = data(person("John", "Doe", "42 Main St", "Oxford"));
+        Person created = this.personDao.createPerson(person("Jane", "Doe", "42 Main St", "Oxford"));
+        assertEquals(2, data.getPersons().size());
+        assertSame(created, this.personDao.getPerson("Jane", "Doe").get());
+        assertEquals(2, this.personDao.getPersonsByAddress("42 Main St").size());
+        assertThrows(DataAlreadyExistsException.class,
+                () -> this.personDao.createPerson(person("jane", "DOE", "1 Park Ave", "Culver")));
+    }
+
+    @Test
+    void testUpdatePerson() throws DataNotFoundException {
+        data(person("John", "Doe", "42 Main St", "Oxford"));
+        this.personDao.updatePerson(person("John", "Doe", "1 Park Ave", "Culver"));
+        assertTrue(this.personDao.getPersonsByAddress("42 Main St").isEmpty());
+        assertTrue(this.personDao.getPersonsByCity("Oxford").isEmpty());
+        assertEquals(1, this.personDao.getPersonsByAddress("1 Park Ave").size());
+        assertEquals(1, this.personDao.getPersonsByCity("Culver").size());
+        assertThrows(DataNotFoundException.class,
+                () -> this.personDao.updatePerson(person("Jane", "Doe", "1 Park Ave", "Culver")));
+    }
+
+    @Test
+    void testDeletePerson() throws DataNotFoundException {
+        IAlertsDataSource.Data data = data(person("John", "Doe", "42 Main St", "Oxford"));
+        this.personDao.deletePerson("john", "doe");
+        assertTrue(data.getPersons().isEmpty());
+        assertFalse(this.personDao.getPerson("John", "Doe").isPresent());
+        assertTrue(this.personDao.getPersonsByAddress("42 Main St").isEmpty());
+        assertThrows(DataNotFoundException.class, () -> this.personDao.deletePerson("John", "Doe"));
+    }
+
+    @Test
+    void testMutatePersons() {
+        IAlertsDataSource.Data data = data(person("John", "Doe", "42 Main St", "Oxford"));
+        List<Optional<ServiceException>> results = this.personDao.mutatePersons(DataMutationEvent.Operation.CREATE,
+                List.of(person("Jane", "Doe", "42 Main St", "Oxford"), person("John", "Doe", "1 Elm St", "Oxford")));
+        assertTrue(results.get(0).isEmpty());
+        assertTrue(results.get(1).get() instanceof DataAlreadyExistsException);
+        assertEquals(2, data.getPersons().size());
+
+        results = this.personDao.mutatePersons(DataMutationEvent.Operation.DELETE,
+                List.of(person("John", "Doe", null, null), person("Jim", "Doe", null, null)));
+        assertTrue(results.get(0).isEmpty());
+        assertTrue(results.get(1).get() instanceof DataNotFoundException);
+        assertEquals(1, this.personDao.getPersonsByAddress("42 Main St").size());
+    }
+
+    @Test
+    void testIndexesRebuiltOnDataReload() {
+        data(person("John", "Doe", "42 Main St", "Oxford"));
+        assertTrue(this.personDao.getPerson("John", "Doe").isPresent());
+        data(person("Jane", "Doe", "42 Main St", "Oxford"));
+        assertFalse(this.personDao.getPerson("John", "Doe").isPresent());
+        assertTrue(this.personDao.getPerson("Jane", "Doe").isPresent());
+    }
+
+    @Test
+    void testMutatePersonsUpdatesSamePersonTwice() {
+        IAlertsDataSource.Data data = data(person("John", "Doe", "42 Main St", "Oxford"), person("Jane", "Doe", "42 Main St", "Oxford"));
+        List<Optional<ServiceException>> results = this.personDao.mutatePersons(DataMutationEvent.Operation.UPDATE,
+                List.of(person("John", "Doe", "1 Elm St", "Oxford"), person("John", "Doe", "1 Park Ave", "Culver")));
+        assertTrue(results.stream().noneMatch(Optional::isPresent));
+        assertEquals(2, data.getPersons().size());
+        assertSame(this.personDao.getPerson("John", "Doe").get(), data.getPersons().get(0));
+        assertEquals("1 Park Ave", data.getPersons().get(0).getAddress());
+        assertTrue(this.personDao.getPersonsByAddress("1 Elm St").isEmpty());
+    }
+
+    /*Mutations that can not be published are rolled back from the first failure and reported as not committed*/
+    @Test
+    void testMutatePersonsRollsBackUnpublishedMutations() {
+        IAlertsDataSource.Data data = data(person("John", "Doe", "42 Main St", "Oxford"),
+                person("Jane", "Doe", "42 Main St", "Oxford"), person("Jim", "Smith", "1 Park Ave", "Culver"));
+        List<DataMutationEvent> rollbacks = new ArrayList<>();
+        AtomicInteger published = new AtomicInteger();
+        PersonDao failingPersonDao = new PersonDao(this.iAlertsDataSource, event -> {
+            DataMutationEvent mutation = (DataMutationEvent) event;
+            if (mutation.isRollback()) {
+                rollbacks.add(mutation);
+            } else if (published.incrementAndGet() >= 2) {
+                throw new UncheckedIOException(new IOException("Journal has failed"));
+            }
+        });
+
+        List<Optional<ServiceException>> results = failingPersonDao.mutatePersons(DataMutationEvent.Operation.UPDATE,
+                List.of(person("John", "Doe", "1 Elm St", "Oxford"), person("Jane", "Doe", "1 Elm St", "Oxford"),
+                        person("Jim", "Smith", "1 Elm St", "Culver")));
+
+        assertFalse(results.get(0).isPresent());
+        assertTrue(results.get(1).get() instanceof DataNotCommittedException);
+        assertTrue(results.get(2).get() instanceof DataNotCommittedException);
+        assertEquals("1 Elm St", data.getPersons().get(0).getAddress());
+        assertEquals("42 Main St", data.getPersons().get(1).getAddress());
+        assertEquals("1 Park Ave", data.getPersons().get(2).getAddress());
+        assertSame(data.getPersons().get(1), failingPersonDao.getPerson("Jane", "Doe").get());
+        assertEquals(1, failingPersonDao.getPersonsByAddress("1 Elm St").size());
+        assertEquals(2, rollbacks.size());
+        assertEquals("Jim", ((Person) rollbacks.get(0).getEntity()).getFirstName());
+
+        assertThrows(UncheckedIOException.class, () -> failingPersonDao.createPerson(person("Jack", "Doe", "42 Main St", "Oxford")));
+        assertEquals(3, data.getPersons().size());
+        assertFalse(failingPersonDao.getPerson("Jack", "Doe").isPresent());
+    }
+
+    /*A chunk copies the datasource list once : a bulk update of a large list is not quadratic*/
+    @Test
+    void testMutatePersonsThroughput() throws IOException {
+        int personCount = 200_000;
+        int chunkSize = 1_000;
+        AlertsDataSource dataSource = new AlertsDataSource();
+        dataSource.load("data-test.json");
+        for (int i = 0; i < personCount; i++) {
+            dataSource.getData().getPersons().add(person("First" + i, "Last", i + " Main St", "Oxford"));
+        }
+        PersonDao personDao = new PersonDao(dataSource, event -> { });
+        personDao.buildIndex();
+
+        List<Person> created = new ArrayList<>();
+        List<Person> updated = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            created.add(person("New" + i, "Last", i + " Elm St", "Springfield"));
+            updated.add(person("First" + i * 10, "Last", i + " Park Ave", "Springfield"));
+        }
+        for (DataMutationEvent.Operation operation : List.of(DataMutationEvent.Operation.CREATE, DataMutationEvent.Operation.UPDATE)) {
+            List<Person> items = operation == DataMutationEvent.Operation.CREATE ? created : updated;
+            long start = System.nanoTime();
+            for (int i = 0; i < items.size(); i += chunkSize) {
+                List<Optional<ServiceException>> results = personDao.mutatePersons(operation, items.subList(i, i + chunkSize));
+                assertTrue(results.stream().noneMatch(Optional::isPresent));
+            }
+            double itemsPerSecond = items.size() * 1e9 / (System.nanoTime() - start);
+            assertTrue(itemsPerSecond > 5_000, operation + " : " + (long) itemsPerSecond + " items/s");
+        }
+        assertEquals(40_000, personDao.getPersonsByCity("Springfield").size());
+        assertEquals("0 Park Ave", personDao.getPerson("First0", "Last").get().getAddress());
+    }
+}
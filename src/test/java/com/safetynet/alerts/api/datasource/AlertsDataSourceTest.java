@@ -1,13 +1,219 @@
 package com.safetynet.alerts.api.datasource;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class AlertsDataSourceTest {
     @Test
     void testConstructor() {
         assertNull((new AlertsDataSource()).getData());
     }
-}
 
+    @Test
+    void testLoadClassPathResource() throws IOException {
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load("data-test.json");
+        IAlertsDataSource.Data data = alertsDataSource.getData();
+        assertEquals(7, data.getPersons().size());
+        assertEquals("Lily", data.getPersons().get(0).getFirstName());
+        assertEquals(4, data.getFirestations().size());
+        assertEquals(3, data.getFirestations().get(0).getStation());
+        assertEquals(4, data.getMedicalrecords().size());
+    }
+
+    @Test
+    void testLoadParallel() throws IOException {
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            alertsDataSource.load("data-test.json", executor);
+        } finally {
+            executor.shutdown();
+        }
+        IAlertsDataSource.Data data = alertsDataSource.getData();
+        assertEquals(7, data.getPersons().size());
+        assertEquals("Lily", data.getPersons().get(0).getFirstName());
+        assertEquals(4, data.getFirestations().size());
+        assertEquals(4, data.getMedicalrecords().size());
+    }
+
+    @Test
+    void testLoadParallelLocatesSectionsByByteOffset(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, "{\"comment\":\"Données générées\",\"persons\":[{\"firstName\":\"Zoé\"},{\"firstName\":\"Jane\"}],"
+                + "\"firestations\":[{\"address\":\"1 Main St\",\"station\":\"2\"}],\"medicalrecords\":[]}");
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            alertsDataSource.load(file.toString(), executor);
+        } finally {
+            executor.shutdown();
+        }
+        IAlertsDataSource.Data data = alertsDataSource.getData();
+        assertEquals("Zoé", data.getPersons().get(0).getFirstName());
+        assertEquals(2, data.getPersons().size());
+        assertEquals(2, data.getFirestations().get(0).getStation());
+        assertTrue(data.getMedicalrecords().isEmpty());
+    }
+
+    @Test
+    void testLoadFileSystemPath(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data-test.json")) {
+            Files.copy(inputStream, file);
+        }
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+        assertEquals(7, alertsDataSource.getData().getPersons().size());
+    }
+
+    @Test
+    void testLoadSkipsUnknownSections(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, "{\"comment\":{\"a\":[1,2]},\"persons\":[{\"firstName\":\"Jane\"}],"
+                + "\"firestations\":[],\"medicalrecords\":[]}");
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+        assertEquals("Jane", alertsDataSource.getData().getPersons().get(0).getFirstName());
+    }
+
+    @Test
+    void testLoadSharesRepeatedValues(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, "{\"persons\":[{\"firstName\":\"Jane\",\"address\":\"1 Main St\",\"city\":\"Culver\"},"
+                + "{\"firstName\":\"John\",\"address\":\"1 Main St\",\"city\":\"Culver\"}],"
+                + "\"firestations\":[{\"address\":\"1 Main St\",\"station\":\"1\"}],"
+                + "\"medicalrecords\":[{\"firstName\":\"Jane\",\"medications\":[\"aznol:350mg\"],\"allergies\":[]},"
+                + "{\"firstName\":\"John\",\"medications\":[\"aznol:350mg\"],\"allergies\":[]}]}");
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+        IAlertsDataSource.Data data = alertsDataSource.getData();
+        assertSame(data.getPersons().get(0).getAddress(), data.getPersons().get(1).getAddress());
+        assertSame(data.getPersons().get(0).getCity(), data.getPersons().get(1).getCity());
+        assertSame(data.getPersons().get(0).getAddress(), data.getFirestations().get(0).getAddress());
+        assertSame(data.getMedicalrecords().get(0).getMedications().get(0), data.getMedicalrecords().get(1).getMedications().get(0));
+
+        Person person = new Person();
+        person.setAddress(new String("1 Main St"));
+        alertsDataSource.canonicalize(person);
+        assertSame(data.getPersons().get(0).getAddress(), person.getAddress());
+    }
+
+    @Test
+    void testLoadInvalidFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        Files.writeString(file, "[]");
+        assertThrows(IOException.class, () -> new AlertsDataSource().load(file.toString()));
+    }
+
+    @Test
+    void testSnapshot(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data-test.json")) {
+            Files.copy(inputStream, file);
+        }
+        String snapshot = tempDir.resolve("data.snapshot").toString();
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+        assertFalse(alertsDataSource.loadSnapshot(snapshot, file.toString()));
+        alertsDataSource.writeSnapshot(snapshot, file.toString(), false);
+
+        AlertsDataSource snapshotDataSource = new AlertsDataSource();
+        assertTrue(snapshotDataSource.loadSnapshot(snapshot, file.toString()));
+        IAlertsDataSource.Data expected = alertsDataSource.getData();
+        IAlertsDataSource.Data data = snapshotDataSource.getData();
+        assertEquals(expected.getPersons().size(), data.getPersons().size());
+        assertEquals(expected.getPersons().get(6).getEmail(), data.getPersons().get(6).getEmail());
+        assertSame(data.getPersons().get(1).getAddress(), data.getPersons().get(2).getAddress());
+        assertEquals(expected.getFirestations().get(3).getStation(), data.getFirestations().get(3).getStation());
+        assertEquals(expected.getMedicalrecords().get(0).getBirthdate(), data.getMedicalrecords().get(0).getBirthdate());
+        assertEquals(expected.getMedicalrecords().get(0).getMedications(), data.getMedicalrecords().get(0).getMedications());
+        assertEquals(expected.getMedicalrecords().get(0).getAllergies(), data.getMedicalrecords().get(0).getAllergies());
+
+        Files.writeString(file, "{\"persons\":[],\"firestations\":[],\"medicalrecords\":[]}");
+        assertFalse(new AlertsDataSource().loadSnapshot(snapshot, file.toString()));
+    }
+
+    @Test
+    void testSnapshotOfDataUpdatedWhileWriting(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data-test.json")) {
+            Files.copy(inputStream, file);
+        }
+        String snapshot = tempDir.resolve("data.snapshot").toString();
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+        /*a person updated by a concurrent writer, each read sees a new city*/
+        AtomicInteger updates = new AtomicInteger();
+        Person person = new Person() {
+            @Override
+            public String getCity() {
+                return "City" + updates.incrementAndGet();
+            }
+        };
+        person.setFirstName("Jane");
+        person.setLastName("Doe");
+        alertsDataSource.getData().getPersons().add(person);
+
+        alertsDataSource.writeSnapshot(snapshot, file.toString(), false);
+
+        AlertsDataSource snapshotDataSource = new AlertsDataSource();
+        assertTrue(snapshotDataSource.loadSnapshot(snapshot, file.toString()));
+        List<Person> persons = snapshotDataSource.getData().getPersons();
+        assertEquals("Jane", persons.get(persons.size() - 1).getFirstName());
+        assertEquals("City1", persons.get(persons.size() - 1).getCity());
+    }
+
+    /*A snapshot that may hold journaled mutations is never discarded when it can not be loaded*/
+    @Test
+    void testUnreadableSnapshot(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("data.json");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data-test.json")) {
+            Files.copy(inputStream, file);
+        }
+        Path snapshot = tempDir.resolve("data.snapshot");
+        AlertsDataSource alertsDataSource = new AlertsDataSource();
+        alertsDataSource.load(file.toString());
+
+        alertsDataSource.writeSnapshot(snapshot.toString(), file.toString(), false);
+        truncate(snapshot);
+        assertThrows(IOException.class, () -> new AlertsDataSource().loadSnapshot(snapshot.toString(), file.toString()));
+
+        alertsDataSource.writeSnapshot(snapshot.toString(), file.toString(), true);
+        truncate(snapshot);
+        assertThrows(IllegalStateException.class, () -> new AlertsDataSource().loadSnapshot(snapshot.toString(), file.toString()));
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).putInt(4, 3);
+        Files.write(snapshot, bytes);
+        assertThrows(IllegalStateException.class, () -> new AlertsDataSource().loadSnapshot(snapshot.toString(), file.toString()));
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+        Files.write(snapshot, bytes);
+        assertFalse(new AlertsDataSource().loadSnapshot(snapshot.toString(), file.toString()));
+    }
+
+    private static void truncate(Path snapshot) throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 8));
+    }
+}
@@ -0,0 +1,63 @@
+package com.safetynet.alerts.api.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class SnapshotListTest {
+    @Test
+    void testAddGetRemove() {
+        SnapshotList<String> list = new SnapshotList<>(List.of("a", "b"));
+        for (int i = 0; i < 100; i++) {
+            list.add(String.valueOf(i));
+        }
+        assertEquals(102, list.size());
+        assertEquals("b", list.get(1));
+        assertTrue(list.remove("b"));
+        assertFalse(list.remove("b"));
+        assertEquals("0", list.get(1));
+        assertEquals("a", list.remove(0));
+        assertEquals(100, list.size());
+        assertTrue(list.removeIf(s -> s.startsWith("9")));
+        assertEquals(89, list.size());
+    }
+
+    @Test
+    void testIteratorIsASnapshot() {
+        SnapshotList<String> list = new SnapshotList<>(new ArrayList<>(List.of("a", "b", "c")));
+        Iterator<String> iterator = list.iterator();
+        list.remove("a");
+        list.add("d");
+        List<String> iterated = new ArrayList<>();
+        iterator.forEachRemaining(iterated::add);
+        assertEquals(List.of("a", "b", "c"), iterated);
+        assertEquals(List.of("b", "c", "d"), list.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void testStreamWhileAdding() throws InterruptedException {
+        SnapshotList<Integer> list = new SnapshotList<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                list.add(i);
+                if (i % 10 == 0) {
+                    list.remove(0);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            long count = list.stream().filter(i -> i >= 0).count();
+            assertTrue(count >= 0);
+        }
+        writer.join();
+        assertEquals(90_000, list.size());
+    }
+}
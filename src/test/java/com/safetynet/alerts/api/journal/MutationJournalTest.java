@@ -0,0 +1,177 @@
+package com.safetynet.alerts.api.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.FireStationDao;
+import com.safetynet.alerts.api.dao.MedicalRecordDao;
+import com.safetynet.alerts.api.dao.PersonDao;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MutationJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AlertsDataSource dataSource;
+    private PersonDao personDao;
+    private FireStationDao fireStationDao;
+    private MedicalRecordDao medicalRecordDao;
+    private MutationJournal mutationJournal;
+    private String dataSourceFilePath = "data-test.json";
+
+    /**
+     * Start the datasource, DAOs and journal as the application does : load data, then replay the journal.
+     *
+     * @return number of mutations replayed.
+     */
+    private int start() throws IOException {
+        String snapshotFilePath = tempDir.resolve("data.snapshot").toString();
+        dataSource = new AlertsDataSource();
+        if (!dataSource.loadSnapshot(snapshotFilePath, dataSourceFilePath)) {
+            dataSource.load(dataSourceFilePath);
+        }
+        MutationJournal[] journal = new MutationJournal[1];
+        personDao = new PersonDao(dataSource, event -> journal[0].onDataMutation((DataMutationEvent) event));
+        fireStationDao = new FireStationDao(dataSource, event -> journal[0].onDataMutation((DataMutationEvent) event));
+        medicalRecordDao = new MedicalRecordDao(dataSource, event -> journal[0].onDataMutation((DataMutationEvent) event));
+        journal[0] = new MutationJournal(dataSource, personDao, fireStationDao, medicalRecordDao);
+        ReflectionTestUtils.setField(journal[0], "journalDirPath", tempDir.resolve("journal").toString());
+        ReflectionTestUtils.setField(journal[0], "snapshotFilePath", snapshotFilePath);
+        ReflectionTestUtils.setField(journal[0], "dataSourceFilePath", dataSourceFilePath);
+        mutationJournal = journal[0];
+        return mutationJournal.replay();
+    }
+
+    private static Person person(String firstName, String address) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName("Journal");
+        person.setAddress(address);
+        person.setCity("Culver");
+        return person;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("journal"))) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testReplay() throws IOException, ServiceException {
+        assertEquals(0, start());
+        personDao.createPerson(person("John", "1509 Culver St"));
+        Person lily = new Person(personDao.getPerson("Lily", "Cooper").get());
+        lily.setAddress("29 15th St");
+        personDao.updatePerson(lily);
+        fireStationDao.deleteFireStation("834 Binoc Ave");
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName("John");
+        medicalRecord.setLastName("Journal");
+        medicalRecord.setBirthdate(new Date(0));
+        medicalRecord.setMedications(List.of("aznol:350mg"));
+        medicalRecord.setAllergies(new ArrayList<>());
+        medicalRecordDao.createMedicalRecord(medicalRecord);
+
+        assertEquals(4, start());
+        assertTrue(personDao.getPerson("John", "Journal").isPresent());
+        assertEquals("29 15th St", personDao.getPerson("Lily", "Cooper").get().getAddress());
+        assertEquals(1, personDao.getPersonsByAddress("29 15th St").size());
+        assertFalse(fireStationDao.getFireStation("834 Binoc Ave").isPresent());
+        assertEquals(List.of("aznol:350mg"), medicalRecordDao.getMedicalRecord("John", "Journal").get().getMedications());
+        assertEquals(7 + 1, dataSource.getData().getPersons().size());
+    }
+
+    @Test
+    void testGroupCommit() throws Exception {
+        start();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    try {
+                        personDao.createPerson(person("Writer" + writer + "-" + i, "1509 Culver St"));
+                    } catch (ServiceException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(100, start());
+        assertEquals(100, personDao.getPersonsByAddress("1509 Culver St").size());
+    }
+
+    @Test
+    void testCompact() throws IOException, ServiceException {
+        start();
+        personDao.createPerson(person("Before", "1509 Culver St"));
+        mutationJournal.compact();
+        assertEquals(1, segments().size());
+        assertTrue(Files.exists(tempDir.resolve("data.snapshot")));
+        personDao.createPerson(person("After", "1509 Culver St"));
+
+        assertEquals(1, start());
+        assertTrue(personDao.getPerson("Before", "Journal").isPresent());
+        assertTrue(personDao.getPerson("After", "Journal").isPresent());
+    }
+
+    @Test
+    void testCompactedMutationsSurviveDataFileChange() throws IOException, ServiceException {
+        Path dataFile = tempDir.resolve("data.json");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data-test.json")) {
+            Files.copy(inputStream, dataFile);
+        }
+        dataSourceFilePath = dataFile.toString();
+        start();
+        personDao.createPerson(person("Compacted", "1509 Culver St"));
+        mutationJournal.compact();
+        FileTime lastModified = Files.getLastModifiedTime(dataFile);
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(lastModified.toMillis() + 60_000));
+
+        /*the snapshot is the only copy of the compacted mutation : it is neither discarded nor overwritten*/
+        assertThrows(IllegalStateException.class, this::start);
+        Files.setLastModifiedTime(dataFile, lastModified);
+        assertEquals(0, start());
+        assertTrue(personDao.getPerson("Compacted", "Journal").isPresent());
+    }
+
+    @Test
+    void testReplayIgnoresIncompleteRecord() throws IOException, ServiceException {
+        start();
+        personDao.createPerson(person("John", "1509 Culver St"));
+        Files.write(segments().get(0), new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        assertEquals(1, start());
+        assertTrue(personDao.getPerson("John", "Journal").isPresent());
+    }
+}
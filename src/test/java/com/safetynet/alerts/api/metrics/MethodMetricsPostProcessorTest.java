@@ -0,0 +1,68 @@
+package com.safetynet.alerts.api.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.FloodQueryEngine;
+import com.safetynet.alerts.api.service.IFloodQueryEngine;
+import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+class MethodMetricsPostProcessorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPostProcessAfterInitialization() {
+        IFireStationDao fireStationDao = mock(IFireStationDao.class);
+        IPersonDao personDao = mock(IPersonDao.class);
+        IDtoMapper<Person, PersonDto> personDtoMapper = mock(IDtoMapper.class);
+        when(fireStationDao.getAddresses(1)).thenReturn(List.of("1509 Culver St", "29 15th St"));
+        when(fireStationDao.getAddresses(2)).thenThrow(new IllegalStateException());
+        when(personDao.getPersonsByAddress(any())).thenReturn(new ArrayList<>());
+        when(personDtoMapper.mapToDto(anyCollection())).thenReturn(new ArrayList<>());
+        FloodQueryEngine floodQueryEngine = new FloodQueryEngine(fireStationDao, personDao, personDtoMapper, 1);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        MethodMetricsPostProcessor methodMetricsPostProcessor = new MethodMetricsPostProcessor(meterRegistryProvider);
+
+        Object proxy = methodMetricsPostProcessor.postProcessAfterInitialization(floodQueryEngine, "floodQueryEngine");
+        assertTrue(proxy instanceof FloodQueryEngine);
+        ((IFloodQueryEngine) proxy).getFloodHomes(List.of(1));
+        assertThrows(IllegalStateException.class, () -> ((IFloodQueryEngine) proxy).getFloodHomes(List.of(2)));
+        ((FloodQueryEngine) proxy).shutdown();
+
+        assertEquals(1, meterRegistry.get("alerts.service")
+                .tags("endpoint", "none", "operation", "FloodQueryEngine.getFloodHomes", "exception", "none").timer().count());
+        assertEquals(1, meterRegistry.get("alerts.service")
+                .tags("operation", "FloodQueryEngine.getFloodHomes", "exception", "IllegalStateException").timer().count());
+        assertEquals(2.0, meterRegistry.get("alerts.service.result.size").summary().totalAmount());
+        assertNull(meterRegistry.find("alerts.service").tags("operation", "FloodQueryEngine.shutdown").timer());
+    }
+
+    @Test
+    void testPostProcessAfterInitializationOutOfServicesAndDaos() {
+        MethodMetricsPostProcessor methodMetricsPostProcessor = new MethodMetricsPostProcessor(null);
+        Object bean = new ArrayList<>();
+        assertSame(bean, methodMetricsPostProcessor.postProcessAfterInitialization(bean, "list"));
+    }
+}
@@ -6,9 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.safetynet.alerts.api.dao.IFireStationDao;
@@ -23,10 +25,15 @@ import com.safetynet.alerts.api.model.dto.FloodDto;
 import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
 import com.safetynet.alerts.api.model.dto.PersonDto;
 import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
+import com.safetynet.alerts.api.utils.SingleFlight;
+import com.safetynet.alerts.api.view.DataVersions;
+import com.safetynet.alerts.api.view.IStationResidentView;
+import com.safetynet.alerts.api.view.StationResidents;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,7 +42,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-@ContextConfiguration(classes = {FireStationService.class})
+@ContextConfiguration(classes = {FireStationService.class, FloodQueryEngine.class, SingleFlight.class, DataVersions.class})
 @ExtendWith(SpringExtension.class)
 class FireStationServiceTest {
     @Autowired
@@ -53,6 +60,9 @@ class FireStationServiceTest {
     @MockBean
     private IPersonDao iPersonDao;
 
+    @MockBean
+    private IStationResidentView iStationResidentView;
+
     @Test
     void testDeleteFireStation() throws DataNotFoundException {
         doNothing().when(this.iFireStationDao).deleteFireStation((String) any());
@@ -115,6 +125,7 @@ class FireStationServiceTest {
         when(this.iDtoMapper.mapToDto((Person) any()))
                 .thenReturn(new PersonDto("Jane", "Doe", "42 Main St", "Oxford", "21654", "4105551212", "jane.doe@example.org",
                         1, new MedicalRecordDto(birthdate, medications, new ArrayList<>())));
+        when(this.iDtoMapper.mapToDto(anyCollection())).thenCallRealMethod();
         FireStationPersonsDto actualPersons = this.fireStationService.getPersons(10);
         assertEquals(0, actualPersons.getNumberOfAdults().intValue());
         assertEquals(1, actualPersons.getPersons().size());
@@ -139,6 +150,7 @@ class FireStationServiceTest {
         when(this.iDtoMapper.mapToDto((Person) any()))
                 .thenReturn(new PersonDto("Jane", "Doe", "42 Main St", "Oxford", "21654", "4105551212", "jane.doe@example.org",
                         1, new MedicalRecordDto(birthdate, medications, new ArrayList<>())));
+        when(this.iDtoMapper.mapToDto(anyCollection())).thenCallRealMethod();
         FireStationPersonsDto actualPersons = this.fireStationService.getPersons(10);
         assertEquals(0, actualPersons.getNumberOfAdults().intValue());
         assertEquals(2, actualPersons.getPersons().size());
@@ -200,6 +212,36 @@ class FireStationServiceTest {
         verify(this.iFireStationDao).getAddresses((Integer) any());
     }
 
+    @Test
+    void testGetPersons5() throws DataNotFoundException {
+        Person person = new Person();
+        List<PersonDto> personDtos = new ArrayList<>();
+        when(this.iStationResidentView.getResidents((Integer) any())).thenReturn(
+                Optional.of(new StationResidents(List.of(List.of(person)), 1, 0, List.of("841-874-6512"))));
+        when(this.iDtoMapper.mapToDto(anyCollection())).thenReturn(personDtos);
+        FireStationPersonsDto actualPersons = this.fireStationService.getPersons(10);
+        assertSame(personDtos, actualPersons.getPersons());
+        assertEquals(1, actualPersons.getNumberOfAdults().intValue());
+        assertEquals(0, actualPersons.getNumberOfChildren().intValue());
+        verify(this.iDtoMapper).mapToDto(List.of(person));
+        verifyNoInteractions(this.iFireStationDao, this.iPersonDao);
+    }
+
+    @Test
+    void testGetPhones5() throws DataNotFoundException {
+        when(this.iStationResidentView.getResidents((Integer) any())).thenReturn(
+                Optional.of(new StationResidents(List.of(List.of(new Person())), 1, 0, List.of("841-874-6512"))));
+        assertEquals(List.of("841-874-6512"), this.fireStationService.getPhones(10));
+        verifyNoInteractions(this.iFireStationDao, this.iPersonDao);
+    }
+
+    @Test
+    void testGetPhones6() {
+        when(this.iStationResidentView.getResidents((Integer) any())).thenReturn(
+                Optional.of(new StationResidents(List.of(), 0, 0, List.of())));
+        assertThrows(DataNotFoundException.class, () -> this.fireStationService.getPhones(10));
+    }
+
     @Test
     void testGetFloodHomes() {
         assertTrue(this.fireStationService.getFloodHomes(new ArrayList<>()).isEmpty());
@@ -249,6 +291,7 @@ class FireStationServiceTest {
         when(this.iDtoMapper.mapToDto((Person) any()))
                 .thenReturn(new PersonDto("Jane", "Doe", "42 Main St", "Oxford", "21654", "4105551212", "jane.doe@example.org",
                         1, new MedicalRecordDto(birthdate, medications, new ArrayList<>())));
+        when(this.iDtoMapper.mapToDto(anyCollection())).thenCallRealMethod();
 
         ArrayList<Integer> integerList = new ArrayList<>();
         integerList.add(2);
@@ -277,6 +320,7 @@ class FireStationServiceTest {
         when(this.iDtoMapper.mapToDto((Person) any()))
                 .thenReturn(new PersonDto("Jane", "Doe", "42 Main St", "Oxford", "21654", "4105551212", "jane.doe@example.org",
                         1, new MedicalRecordDto(birthdate, medications, new ArrayList<>())));
+        when(this.iDtoMapper.mapToDto(anyCollection())).thenCallRealMethod();
 
         ArrayList<Integer> integerList = new ArrayList<>();
         integerList.add(2);
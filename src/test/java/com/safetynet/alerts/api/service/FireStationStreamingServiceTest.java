@@ -0,0 +1,135 @@
+package com.safetynet.alerts.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.utils.IAgeCache;
+import com.safetynet.alerts.api.view.IStationResidentView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ContextConfiguration(classes = {FireStationStreamingService.class})
+@ExtendWith(SpringExtension.class)
+class FireStationStreamingServiceTest {
+    @Autowired
+    private FireStationStreamingService fireStationStreamingService;
+
+    @MockBean
+    private IAgeCache iAgeCache;
+
+    @MockBean
+    private IFireStationDao iFireStationDao;
+
+    @MockBean
+    private IMedicalRecordDao iMedicalRecordDao;
+
+    @MockBean
+    private IPersonDao iPersonDao;
+
+    @MockBean
+    private IStationResidentView iStationResidentView;
+
+    @MockBean
+    private IFireStationService iFireStationService;
+
+    @Test
+    void testWritePersons() throws DataNotFoundException, DataIllegalValueException, IOException {
+        Person adult = person("John", "Boyd");
+        Person child = person("Tenley", "Boyd");
+        Person unknown = person("Jane", "Doe");
+        MedicalRecord adultRecord = medicalRecord(new Date(0L));
+        MedicalRecord childRecord = medicalRecord(new Date(1L));
+        when(this.iFireStationDao.getAddresses(any())).thenReturn(List.of("1509 Culver St"));
+        when(this.iPersonDao.getPersonsByAddress(any())).thenReturn(List.of(adult, child, unknown));
+        when(this.iMedicalRecordDao.getMedicalRecords(any()))
+                .thenReturn(List.of(Optional.of(adultRecord), Optional.of(childRecord), Optional.empty()));
+        when(this.iAgeCache.getAge(new Date(0L))).thenReturn(36);
+        when(this.iAgeCache.getAge(new Date(1L))).thenReturn(10);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.fireStationStreamingService.writePersons(3, outputStream);
+
+        assertEquals("{\"persons\":["
+                + "{\"firstName\":\"John\",\"lastName\":\"Boyd\",\"address\":\"1509 Culver St\",\"city\":\"Culver\",\"zip\":\"97451\",\"phone\":\"841-874-6512\"},"
+                + "{\"firstName\":\"Tenley\",\"lastName\":\"Boyd\",\"address\":\"1509 Culver St\",\"city\":\"Culver\",\"zip\":\"97451\",\"phone\":\"841-874-6512\"},"
+                + "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"address\":\"1509 Culver St\",\"city\":\"Culver\",\"zip\":\"97451\",\"phone\":\"841-874-6512\"}"
+                + "],\"numberOfAdults\":1,\"numberOfChildren\":1}", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWritePersons2() {
+        when(this.iFireStationDao.getAddresses(any())).thenReturn(new ArrayList<>());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertThrows(DataNotFoundException.class, () -> this.fireStationStreamingService.writePersons(3, outputStream));
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    void testWriteFloodHomes() throws IOException {
+        PersonDto adult = new PersonDto("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com",
+                36, new MedicalRecordDto(new Date(0L), List.of("aznol:350mg"), List.of("nillacilan")));
+        PersonDto unknown = new PersonDto("Jane", "Doe", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com",
+                null, null);
+        when(this.iFireStationService.getFloodHomes(List.of(3, 4, 3)))
+                .thenReturn(List.of(new FloodDto("1509 Culver St", List.of(adult, unknown)), new FloodDto("29 15th St", List.of())));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.fireStationStreamingService.writeFloodHomes(List.of(3, 4, 3), outputStream);
+
+        assertEquals("[{\"address\":\"1509 Culver St\",\"persons\":["
+                + "{\"firstName\":\"John\",\"lastName\":\"Boyd\",\"phone\":\"841-874-6512\",\"age\":36,"
+                + "\"medicalRecord\":{\"medications\":[\"aznol:350mg\"],\"allergies\":[\"nillacilan\"]}},"
+                + "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"phone\":\"841-874-6512\",\"age\":null,\"medicalRecord\":null}"
+                + "]},{\"address\":\"29 15th St\",\"persons\":[]}]", outputStream.toString(StandardCharsets.UTF_8));
+        verify(this.iFireStationService, times(1)).getFloodHomes(List.of(3, 4, 3));
+        verify(this.iPersonDao, never()).getPersonsByAddress(any());
+    }
+
+    private static Person person(String firstName, String lastName) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setAddress("1509 Culver St");
+        person.setCity("Culver");
+        person.setZip("97451");
+        person.setPhone("841-874-6512");
+        person.setEmail("jaboyd@email.com");
+        return person;
+    }
+
+    private static MedicalRecord medicalRecord(Date birthdate) {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setBirthdate(birthdate);
+        medicalRecord.setMedications(List.of("aznol:350mg"));
+        medicalRecord.setAllergies(List.of("nillacilan"));
+        return medicalRecord;
+    }
+}
@@ -0,0 +1,85 @@
+package com.safetynet.alerts.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.FloodDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.service.dtomapper.IDtoMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FloodQueryEngineTest {
+
+    private IFireStationDao fireStationDao;
+    private IPersonDao personDao;
+    private IDtoMapper<Person, PersonDto> personDtoMapper;
+    private FloodQueryEngine floodQueryEngine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        fireStationDao = mock(IFireStationDao.class);
+        personDao = mock(IPersonDao.class);
+        personDtoMapper = mock(IDtoMapper.class);
+        when(personDao.getPersonsByAddress(any())).thenReturn(new ArrayList<>());
+        when(personDtoMapper.mapToDto(anyCollection())).thenReturn(new ArrayList<>());
+        floodQueryEngine = new FloodQueryEngine(fireStationDao, personDao, personDtoMapper, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        floodQueryEngine.shutdown();
+    }
+
+    private static List<String> addresses(int station, int count) {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(i + " Station" + station + " St");
+        }
+        return addresses;
+    }
+
+    @Test
+    void testGetFloodHomesDeduplicatesStations() {
+        when(fireStationDao.getAddresses(1)).thenReturn(addresses(1, 2));
+        when(fireStationDao.getAddresses(2)).thenReturn(addresses(2, 1));
+
+        List<FloodDto> floodDtos = floodQueryEngine.getFloodHomes(List.of(2, 1, 2, 1));
+
+        assertEquals(List.of("0 Station2 St", "0 Station1 St", "1 Station1 St"),
+                floodDtos.stream().map(FloodDto::getAddress).collect(Collectors.toList()));
+        verify(fireStationDao, times(1)).getAddresses(1);
+        verify(fireStationDao, times(1)).getAddresses(2);
+        verify(personDao, times(3)).getPersonsByAddress(any());
+    }
+
+    @Test
+    void testGetFloodHomesInParallelKeepsOrder() {
+        List<String> expectedAddresses = new ArrayList<>();
+        List<Integer> stations = new ArrayList<>();
+        for (int station = 1; station <= 10; station++) {
+            when(fireStationDao.getAddresses(station)).thenReturn(addresses(station, FloodQueryEngine.ADDRESSES_PER_TASK));
+            expectedAddresses.addAll(addresses(station, FloodQueryEngine.ADDRESSES_PER_TASK));
+            stations.add(station);
+        }
+
+        List<FloodDto> floodDtos = floodQueryEngine.getFloodHomes(stations);
+
+        assertEquals(expectedAddresses, floodDtos.stream().map(FloodDto::getAddress).collect(Collectors.toList()));
+    }
+}
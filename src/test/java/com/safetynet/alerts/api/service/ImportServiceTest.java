@@ -0,0 +1,140 @@
+package com.safetynet.alerts.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.exception.DataAlreadyExistsException;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.dto.BatchItemResultDto;
+import com.safetynet.alerts.api.model.dto.ImportProgressDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+class ImportServiceTest {
+
+    private IPersonDao personDao;
+    private IFireStationDao fireStationDao;
+    private IMedicalRecordDao medicalRecordDao;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        personDao = mock(IPersonDao.class);
+        fireStationDao = mock(IFireStationDao.class);
+        medicalRecordDao = mock(IMedicalRecordDao.class);
+        when(personDao.mutatePersons(any(), anyList())).thenAnswer(ImportServiceTest::succeed);
+        when(medicalRecordDao.mutateMedicalRecords(any(), anyList())).thenAnswer(ImportServiceTest::succeed);
+        /*fire stations already exist*/
+        when(fireStationDao.mutateFireStations(eq(DataMutationEvent.Operation.CREATE), anyList())).thenAnswer(invocation ->
+                invocation.<List<FireStation>>getArgument(1).stream()
+                        .map(f -> Optional.<ServiceException>of(new DataAlreadyExistsException("Fire station at " + f.getAddress())))
+                        .collect(Collectors.toList()));
+        when(fireStationDao.mutateFireStations(eq(DataMutationEvent.Operation.UPDATE), anyList())).thenAnswer(ImportServiceTest::succeed);
+        /*a queue of 2 records, applied one by one*/
+        importService = new ImportService(personDao, fireStationDao, medicalRecordDao, new ObjectMapper(), 2, 1, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    private static List<Optional<ServiceException>> succeed(InvocationOnMock invocation) {
+        return invocation.<List<?>>getArgument(1).stream().map(entity -> Optional.<ServiceException>empty()).collect(Collectors.toList());
+    }
+
+    private ImportProgressDto importRecords(String body) throws IOException {
+        return importService.importRecords(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testImportRecords() throws IOException {
+        ImportProgressDto importProgressDto = importRecords(
+                "{\"person\":{\"firstName\":\"John\",\"lastName\":\"Boyd\"}}\n"
+                + "{\"firestation\":{\"address\":\"1509 Culver St\",\"station\":3}}\n"
+                + "{\"medicalrecord\":{\"firstName\":\"John\",\"lastName\":\"Boyd\",\"birthdate\":\"03/06/1984\"}}\n"
+                + "{\"vehicle\":{\"plate\":\"AB-123\"}}\n");
+        assertEquals("COMPLETED", importProgressDto.getState());
+        assertEquals(4, importProgressDto.getRead());
+        assertEquals(2, importProgressDto.getCreated());
+        assertEquals(1, importProgressDto.getUpdated());
+        assertEquals(1, importProgressDto.getFailed());
+        BatchItemResultDto error = importProgressDto.getErrors().get(0);
+        assertEquals(3, error.getIndex());
+        assertEquals(400, error.getStatus());
+        assertEquals(importProgressDto.getId(), importService.getImports().get(0).getId());
+    }
+
+    @Test
+    void testImportRecordsThroughFullQueue() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            body.append("{\"person\":{\"firstName\":\"John").append(i).append("\",\"lastName\":\"Boyd\"}}\n");
+        }
+        ImportProgressDto importProgressDto = importRecords(body.toString());
+        assertEquals("COMPLETED", importProgressDto.getState());
+        assertEquals(500, importProgressDto.getCreated());
+        assertEquals(0, importProgressDto.getQueued());
+        verify(personDao, times(500)).mutatePersons(eq(DataMutationEvent.Operation.CREATE), anyList());
+    }
+
+    @Test
+    void testImportRecordsStopsAtMalformedRecord() throws IOException {
+        ImportProgressDto importProgressDto = importRecords(
+                "{\"person\":{\"firstName\":\"John\",\"lastName\":\"Boyd\"}}\n"
+                + "{\"person\":{\"firstName\":\"Jacob\",\n"
+                + "{\"person\":{\"firstName\":\"Tenley\",\"lastName\":\"Boyd\"}}\n");
+        assertEquals("FAILED", importProgressDto.getState());
+        assertEquals(1, importProgressDto.getCreated());
+        assertEquals(1, importProgressDto.getFailed());
+        assertEquals(1, importProgressDto.getErrors().get(0).getIndex());
+        assertTrue(importService.getImport(importProgressDto.getId()).isPresent());
+    }
+
+    @Test
+    void testImportRecordsInterruptedWhileReading() {
+        byte[] record = "{\"person\":{\"firstName\":\"John\",\"lastName\":\"Boyd\"}}\n".getBytes(StandardCharsets.UTF_8);
+        InputStream body = new SequenceInputStream(new ByteArrayInputStream(record), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Request interrupted");
+            }
+        });
+
+        assertThrows(InterruptedIOException.class, () -> importService.importRecords(body));
+
+        /*the end has been queued despite the interrupt : the applier ended and the import is finished*/
+        assertTrue(Thread.interrupted());
+        ImportProgressDto importProgressDto = importService.getImports().get(0);
+        assertEquals("FAILED", importProgressDto.getState());
+        assertEquals(1, importProgressDto.getCreated());
+    }
+}
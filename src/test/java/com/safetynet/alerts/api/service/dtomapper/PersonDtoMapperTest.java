@@ -0,0 +1,71 @@
+package com.safetynet.alerts.api.service.dtomapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.IMedicalRecordDao;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.model.dto.MedicalRecordDto;
+import com.safetynet.alerts.api.model.dto.PersonDto;
+import com.safetynet.alerts.api.utils.IAgeCache;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ContextConfiguration(classes = {PersonDtoMapper.class})
+@ExtendWith(SpringExtension.class)
+class PersonDtoMapperTest {
+    @Autowired
+    private PersonDtoMapper personDtoMapper;
+
+    @MockBean
+    private IMedicalRecordDao iMedicalRecordDao;
+
+    @MockBean
+    private IDtoMapper<MedicalRecord, MedicalRecordDto> iDtoMapper;
+
+    @MockBean
+    private IAgeCache iAgeCache;
+
+    @Test
+    void testMapToDtoBatch() {
+        Person jane = new Person();
+        jane.setFirstName("Jane");
+        jane.setLastName("Doe");
+        Person john = new Person();
+        john.setFirstName("John");
+        john.setLastName("Doe");
+
+        MedicalRecord medicalRecord = new MedicalRecord();
+        MedicalRecordDto medicalRecordDto = new MedicalRecordDto(new Date(1L), new ArrayList<>(), new ArrayList<>());
+        when(this.iMedicalRecordDao.getMedicalRecords(anyList()))
+                .thenReturn(List.of(Optional.of(medicalRecord), Optional.empty()));
+        when(this.iDtoMapper.mapToDto((MedicalRecord) any())).thenReturn(medicalRecordDto);
+
+        List<PersonDto> actualPersonDtos = this.personDtoMapper.mapToDto(List.of(jane, john));
+        assertEquals(2, actualPersonDtos.size());
+        assertEquals("Jane", actualPersonDtos.get(0).getFirstName());
+        assertSame(medicalRecordDto, actualPersonDtos.get(0).getMedicalRecord());
+        assertEquals("John", actualPersonDtos.get(1).getFirstName());
+        assertNull(actualPersonDtos.get(1).getMedicalRecord());
+        assertNull(actualPersonDtos.get(1).getAge());
+        verify(this.iMedicalRecordDao).getMedicalRecords(anyList());
+        verify(this.iMedicalRecordDao, never()).getMedicalRecord(any(), any());
+    }
+}
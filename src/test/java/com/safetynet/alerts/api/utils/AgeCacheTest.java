@@ -0,0 +1,46 @@
+package com.safetynet.alerts.api.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.safetynet.alerts.api.exception.DataIllegalValueException;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+class AgeCacheTest {
+    private static Date date(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void testGetAgeMatchesComputeFromBirthdate() throws DataIllegalValueException {
+        AgeCache ageCache = new AgeCache();
+        LocalDate today = LocalDate.now();
+        for (LocalDate birthdate = today.minusYears(20).minusDays(3); birthdate.isBefore(today.minusYears(17)); birthdate = birthdate.plusDays(1)) {
+            assertEquals(Age.computeFromBirthdate(date(birthdate)), ageCache.getAge(date(birthdate)));
+            /*second read comes from the cache*/
+            assertEquals(Age.computeFromBirthdate(date(birthdate)), ageCache.getAge(date(birthdate)));
+        }
+    }
+
+    @Test
+    void testGetAgeOfFutureBirthdate() {
+        AgeCache ageCache = new AgeCache();
+        Date tomorrow = date(LocalDate.now().plusDays(1));
+        assertThrows(DataIllegalValueException.class, () -> ageCache.getAge(tomorrow));
+        assertThrows(DataIllegalValueException.class, () -> ageCache.getAge(tomorrow));
+    }
+
+    @Test
+    void testRollOverKeepsAgesOnSameDay() throws DataIllegalValueException {
+        AgeCache ageCache = new AgeCache();
+        Date birthdate = date(LocalDate.now().minusYears(30));
+        assertEquals(30, ageCache.getAge(birthdate));
+        ageCache.rollOver();
+        assertEquals(30, ageCache.getAge(birthdate));
+    }
+}
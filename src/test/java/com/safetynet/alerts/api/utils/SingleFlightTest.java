@@ -0,0 +1,125 @@
+package com.safetynet.alerts.api.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.exception.DataNotFoundException;
+import com.safetynet.alerts.api.view.DataVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private DataVersions dataVersions;
+    private SingleFlight singleFlight;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+
+    /*First computation blocks until released*/
+    private CountDownLatch computing;
+    private CountDownLatch release;
+    private AtomicInteger computations;
+
+    @BeforeEach
+    void setUp() {
+        dataVersions = new DataVersions(mock(IPersonDao.class), mock(IFireStationDao.class));
+        singleFlight = new SingleFlight(dataVersions);
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight.bindTo(meterRegistry);
+        executor = Executors.newCachedThreadPool();
+        computing = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        computations = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private List<String> getPhones(Integer stationNumber) throws DataNotFoundException, InterruptedException {
+        if (computations.incrementAndGet() == 1) {
+            computing.countDown();
+            release.await();
+        }
+        if (stationNumber == 0) {
+            throw new DataNotFoundException("Fire station number 0");
+        }
+        return new ArrayList<>(List.of("841-874-6512"));
+    }
+
+    private Future<List<String>> submit(Integer stationNumber) {
+        return executor.submit(() -> singleFlight.execute("getPhones", () -> getPhones(stationNumber), stationNumber));
+    }
+
+    /*Wait until a query has joined the running computation*/
+    private void awaitCoalesced(double count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("alerts.queries.coalesced").functionCounter().count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testExecute() throws Exception {
+        Future<List<String>> leader = submit(1);
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        Future<List<String>> follower = submit(1);
+        Future<List<String>> otherStation = submit(2);
+        awaitCoalesced(1);
+        assertEquals(List.of("841-874-6512"), otherStation.get(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertSame(leader.get(10, TimeUnit.SECONDS), follower.get(10, TimeUnit.SECONDS));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void testExecuteAfterMutation() throws Exception {
+        Future<List<String>> leader = submit(1);
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        dataVersions.onDataMutation(new DataMutationEvent(this, DataMutationEvent.Operation.CREATE, new Object(), null));
+
+        /*computed again, without waiting for the computation started before the mutation*/
+        assertEquals(List.of("841-874-6512"), submit(1).get(10, TimeUnit.SECONDS));
+        release.countDown();
+        leader.get(10, TimeUnit.SECONDS);
+        assertEquals(2, computations.get());
+        assertEquals(0.0, meterRegistry.get("alerts.queries.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void testExecuteFailure() throws Exception {
+        Future<List<String>> leader = submit(0);
+        assertTrue(computing.await(10, TimeUnit.SECONDS));
+        Future<List<String>> follower = submit(0);
+        awaitCoalesced(1);
+        release.countDown();
+
+        ExecutionException leaderException = assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+        ExecutionException followerException = assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+        assertTrue(leaderException.getCause() instanceof DataNotFoundException);
+        assertSame(leaderException.getCause(), followerException.getCause());
+        assertEquals(1, computations.get());
+    }
+}
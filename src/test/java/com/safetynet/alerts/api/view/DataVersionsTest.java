@@ -0,0 +1,73 @@
+package com.safetynet.alerts.api.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.IFireStationDao;
+import com.safetynet.alerts.api.dao.IPersonDao;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataVersionsTest {
+
+    private IPersonDao personDao;
+    private IFireStationDao fireStationDao;
+    private DataVersions dataVersions;
+
+    @BeforeEach
+    void setUp() {
+        personDao = mock(IPersonDao.class);
+        fireStationDao = mock(IFireStationDao.class);
+        dataVersions = new DataVersions(personDao, fireStationDao);
+    }
+
+    @Test
+    void testOnDataMutation() {
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress("1509 Culver St");
+        fireStation.setStation(3);
+        when(fireStationDao.getFireStations("1509 Culver St")).thenReturn(List.of(fireStation));
+        Person person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Boyd");
+        person.setAddress("1509 Culver St");
+        when(personDao.getPersons("John", "Boyd")).thenReturn(List.of(person));
+        FireStation previousFireStation = new FireStation();
+        previousFireStation.setAddress("29 15th St");
+        previousFireStation.setStation(2);
+        FireStation updatedFireStation = new FireStation();
+        updatedFireStation.setAddress("29 15th St");
+        updatedFireStation.setStation(4);
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName("John");
+        medicalRecord.setLastName("Boyd");
+
+        dataVersions.onDataMutation(new DataMutationEvent(this, DataMutationEvent.Operation.CREATE, person, null));
+        dataVersions.onDataMutation(new DataMutationEvent(this, DataMutationEvent.Operation.UPDATE, updatedFireStation, previousFireStation));
+
+        assertEquals(2, dataVersions.getGeneration());
+        assertTrue(dataVersions.getEpoch() > 0);
+        assertEquals(1, dataVersions.getAddressVersion(" 1509 CULVER ST"));
+        assertEquals(1, dataVersions.getStationVersion(3));
+        assertEquals(2, dataVersions.getAddressVersion("29 15th St"));
+        assertEquals(2, dataVersions.getStationVersion(2));
+        assertEquals(2, dataVersions.getStationVersion(4));
+        assertEquals(0, dataVersions.getStationVersion(1));
+        assertEquals(0, dataVersions.getAddressVersion("644 Gershwin Cir"));
+
+        dataVersions.onDataMutation(new DataMutationEvent(this, DataMutationEvent.Operation.UPDATE, medicalRecord, medicalRecord));
+
+        assertEquals(3, dataVersions.getAddressVersion("1509 Culver St"));
+        assertEquals(3, dataVersions.getStationVersion(3));
+        assertEquals(2, dataVersions.getStationVersion(4));
+    }
+}
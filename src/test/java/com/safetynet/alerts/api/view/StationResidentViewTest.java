@@ -0,0 +1,159 @@
+package com.safetynet.alerts.api.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.safetynet.alerts.api.dao.DataMutationEvent;
+import com.safetynet.alerts.api.dao.FireStationDao;
+import com.safetynet.alerts.api.dao.MedicalRecordDao;
+import com.safetynet.alerts.api.dao.PersonDao;
+import com.safetynet.alerts.api.datasource.AlertsDataSource;
+import com.safetynet.alerts.api.exception.ServiceException;
+import com.safetynet.alerts.api.model.FireStation;
+import com.safetynet.alerts.api.model.MedicalRecord;
+import com.safetynet.alerts.api.model.Person;
+import com.safetynet.alerts.api.utils.AgeCache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StationResidentViewTest {
+
+    private AlertsDataSource dataSource;
+    private PersonDao personDao;
+    private FireStationDao fireStationDao;
+    private MedicalRecordDao medicalRecordDao;
+    private StationResidentView stationResidentView;
+    private StationResidentView rebuiltView;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataSource = new AlertsDataSource();
+        dataSource.load("data-test.json");
+        StationResidentView[] view = new StationResidentView[1];
+        personDao = new PersonDao(dataSource, event -> view[0].onDataMutation((DataMutationEvent) event));
+        fireStationDao = new FireStationDao(dataSource, event -> view[0].onDataMutation((DataMutationEvent) event));
+        medicalRecordDao = new MedicalRecordDao(dataSource, event -> view[0].onDataMutation((DataMutationEvent) event));
+        AgeCache ageCache = new AgeCache();
+        view[0] = new StationResidentView(dataSource, fireStationDao, personDao, medicalRecordDao, ageCache);
+        stationResidentView = view[0];
+        rebuiltView = new StationResidentView(dataSource, fireStationDao, personDao, medicalRecordDao, ageCache);
+    }
+
+    private static FireStation fireStation(String address, int station) {
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress(address);
+        fireStation.setStation(station);
+        return fireStation;
+    }
+
+    private static MedicalRecord medicalRecord(String firstName, String lastName, int yearsAgo) {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName(firstName);
+        medicalRecord.setLastName(lastName);
+        medicalRecord.setBirthdate(new Date(System.currentTimeMillis() - yearsAgo * 366L * 24 * 3600 * 1000));
+        medicalRecord.setMedications(new ArrayList<>());
+        medicalRecord.setAllergies(new ArrayList<>());
+        return medicalRecord;
+    }
+
+    private static List<String> names(StationResidents residents) {
+        List<String> names = new ArrayList<>();
+        residents.getPersons().forEach(p -> names.add(p.getFirstName()));
+        return names;
+    }
+
+    /**
+     * Residents maintained incrementally shall be those a view built from scratch materializes,
+     * phones added since the view has been built coming last.
+     */
+    private void assertSameAsRebuilt(Integer stationNumber) {
+        rebuiltView.build();
+        StationResidents expected = rebuiltView.getResidents(stationNumber).get();
+        StationResidents actual = stationResidentView.getResidents(stationNumber).get();
+        assertEquals(names(expected), names(actual));
+        assertEquals(expected.getNumberOfAdults(), actual.getNumberOfAdults());
+        assertEquals(expected.getNumberOfChildren(), actual.getNumberOfChildren());
+        assertEquals(new HashSet<>(expected.getPhones()), new HashSet<>(actual.getPhones()));
+    }
+
+    @Test
+    void testGetResidents() {
+        assertTrue(stationResidentView.getResidents(3).isEmpty());
+        stationResidentView.build();
+        StationResidents residents = stationResidentView.getResidents(3).get();
+        assertTrue(residents.hasAddresses());
+        assertTrue(residents.getPersons().isEmpty());
+        assertFalse(stationResidentView.getResidents(10).get().hasAddresses());
+    }
+
+    @Test
+    void testMutations() throws ServiceException {
+        stationResidentView.build();
+
+        fireStationDao.createFireStation(fireStation("892 Downing Ct", 4));
+        StationResidents residents = stationResidentView.getResidents(4).get();
+        assertEquals(List.of("Sophia", "Warren", "Zach"), names(residents));
+        assertEquals(List.of("841-874-7878", "841-874-7512"), residents.getPhones());
+        assertEquals(0, residents.getNumberOfAdults() + residents.getNumberOfChildren());
+
+        medicalRecordDao.createMedicalRecord(medicalRecord("Sophia", "Zemicks", 40));
+        medicalRecordDao.createMedicalRecord(medicalRecord("Zach", "Zemicks", 10));
+        residents = stationResidentView.getResidents(4).get();
+        assertEquals(1, residents.getNumberOfAdults());
+        assertEquals(1, residents.getNumberOfChildren());
+        assertSameAsRebuilt(4);
+
+        Person sophia = new Person(personDao.getPerson("Sophia", "Zemicks").get());
+        sophia.setAddress("908 73rd St");
+        personDao.updatePerson(sophia);
+        Person warren = new Person(personDao.getPerson("Warren", "Zemicks").get());
+        warren.setPhone("841-874-0000");
+        personDao.updatePerson(warren);
+        residents = stationResidentView.getResidents(4).get();
+        assertEquals(List.of("Warren", "Zach"), names(residents));
+        assertEquals(List.of("841-874-7512", "841-874-0000"), residents.getPhones());
+        assertEquals(0, residents.getNumberOfAdults());
+        assertSameAsRebuilt(4);
+
+        fireStationDao.updateFireStation(fireStation("892 Downing Ct", 3));
+        assertFalse(stationResidentView.getResidents(4).get().hasAddresses());
+        assertEquals(List.of("Warren", "Zach"), names(stationResidentView.getResidents(3).get()));
+        assertSameAsRebuilt(3);
+
+        medicalRecordDao.deleteMedicalRecord("Zach", "Zemicks");
+        personDao.deletePerson("Warren", "Zemicks");
+        residents = stationResidentView.getResidents(3).get();
+        assertEquals(List.of("Zach"), names(residents));
+        assertEquals(0, residents.getNumberOfChildren());
+        assertSameAsRebuilt(3);
+    }
+
+    @Test
+    void testAddressCoveredBySeveralStations() throws ServiceException {
+        /*as "112 Steppes Pl" in data.json, loaded data may map an address to several stations*/
+        dataSource.getData().getFirestations().add(fireStation("892 Downing Ct", 4));
+        dataSource.getData().getFirestations().add(fireStation("892 downing ct", 2));
+        stationResidentView.build();
+
+        assertEquals(List.of("Sophia", "Warren", "Zach"), names(stationResidentView.getResidents(2).get()));
+        assertSameAsRebuilt(2);
+        assertSameAsRebuilt(4);
+
+        personDao.deletePerson("Warren", "Zemicks");
+        assertEquals(List.of("Sophia", "Zach"), names(stationResidentView.getResidents(2).get()));
+        assertEquals(List.of("Sophia", "Zach"), names(stationResidentView.getResidents(4).get()));
+
+        fireStationDao.deleteFireStation("892 Downing Ct");
+        assertFalse(stationResidentView.getResidents(4).get().hasAddresses());
+        assertEquals(List.of("Sophia", "Zach"), names(stationResidentView.getResidents(2).get()));
+        assertSameAsRebuilt(2);
+    }
+}